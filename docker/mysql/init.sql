@@ -68,9 +68,13 @@ CREATE TABLE IF NOT EXISTS `patients` (
     INDEX `idx_patients_name` (`last_name`, `first_name`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
--- Patient vital signs table
+-- Patient vital signs table, partitioned by UTC day of timestamp.
+-- Daily partitions are split off p_future ahead of time and dropped after the retention period
+-- by the backend (VitalsStorageManager). Partitioned tables cannot have foreign keys, and every
+-- unique key must include the partitioning column.
+-- IDs are time-ordered UUIDv7 in BINARY(16), so inserts append to the clustered index.
 CREATE TABLE IF NOT EXISTS patient_vital_signs (
-    id VARCHAR(36) PRIMARY KEY,
+    id BINARY(16) NOT NULL,
     patient_id VARCHAR(36) NOT NULL,
     heart_rate DECIMAL(5,2),
     oxygen_saturation DECIMAL(5,2),
@@ -79,17 +83,93 @@ CREATE TABLE IF NOT EXISTS patient_vital_signs (
     temperature DECIMAL(4,2),
     respiratory_rate DECIMAL(5,2),
     source ENUM('MANUAL', 'MONITOR', 'IOT_DEVICE') DEFAULT 'MONITOR',
-    timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
-    INDEX idx_patient_id (patient_id),
+    PRIMARY KEY (id, timestamp),
     INDEX idx_timestamp (timestamp),
     INDEX idx_patient_timestamp (patient_id, timestamp)
+)
+PARTITION BY RANGE (UNIX_TIMESTAMP(timestamp)) (
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+-- Per-minute rollups of patient_vital_signs, partitioned like it. Each vital keeps min, max,
+-- sum and count, so averages stay exact when buckets are combined.
+CREATE TABLE IF NOT EXISTS patient_vital_signs_1m (
+    patient_id VARCHAR(36) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sample_count INT NOT NULL,
+    heart_rate_min DECIMAL(5,2),
+    heart_rate_max DECIMAL(5,2),
+    heart_rate_sum DECIMAL(14,2),
+    heart_rate_count INT NOT NULL DEFAULT 0,
+    oxygen_saturation_min DECIMAL(5,2),
+    oxygen_saturation_max DECIMAL(5,2),
+    oxygen_saturation_sum DECIMAL(14,2),
+    oxygen_saturation_count INT NOT NULL DEFAULT 0,
+    systolic_bp_min DECIMAL(5,2),
+    systolic_bp_max DECIMAL(5,2),
+    systolic_bp_sum DECIMAL(14,2),
+    systolic_bp_count INT NOT NULL DEFAULT 0,
+    diastolic_bp_min DECIMAL(5,2),
+    diastolic_bp_max DECIMAL(5,2),
+    diastolic_bp_sum DECIMAL(14,2),
+    diastolic_bp_count INT NOT NULL DEFAULT 0,
+    temperature_min DECIMAL(4,2),
+    temperature_max DECIMAL(4,2),
+    temperature_sum DECIMAL(14,2),
+    temperature_count INT NOT NULL DEFAULT 0,
+    respiratory_rate_min DECIMAL(5,2),
+    respiratory_rate_max DECIMAL(5,2),
+    respiratory_rate_sum DECIMAL(14,2),
+    respiratory_rate_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (patient_id, bucket_start)
+)
+PARTITION BY RANGE (UNIX_TIMESTAMP(bucket_start)) (
+    PARTITION p_future VALUES LESS THAN MAXVALUE
 );
 
--- Medical alerts table
+-- Per-hour rollups of patient_vital_signs_1m, kept indefinitely
+CREATE TABLE IF NOT EXISTS patient_vital_signs_1h (
+    patient_id VARCHAR(36) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sample_count INT NOT NULL,
+    heart_rate_min DECIMAL(5,2),
+    heart_rate_max DECIMAL(5,2),
+    heart_rate_sum DECIMAL(14,2),
+    heart_rate_count INT NOT NULL DEFAULT 0,
+    oxygen_saturation_min DECIMAL(5,2),
+    oxygen_saturation_max DECIMAL(5,2),
+    oxygen_saturation_sum DECIMAL(14,2),
+    oxygen_saturation_count INT NOT NULL DEFAULT 0,
+    systolic_bp_min DECIMAL(5,2),
+    systolic_bp_max DECIMAL(5,2),
+    systolic_bp_sum DECIMAL(14,2),
+    systolic_bp_count INT NOT NULL DEFAULT 0,
+    diastolic_bp_min DECIMAL(5,2),
+    diastolic_bp_max DECIMAL(5,2),
+    diastolic_bp_sum DECIMAL(14,2),
+    diastolic_bp_count INT NOT NULL DEFAULT 0,
+    temperature_min DECIMAL(4,2),
+    temperature_max DECIMAL(4,2),
+    temperature_sum DECIMAL(14,2),
+    temperature_count INT NOT NULL DEFAULT 0,
+    respiratory_rate_min DECIMAL(5,2),
+    respiratory_rate_max DECIMAL(5,2),
+    respiratory_rate_sum DECIMAL(14,2),
+    respiratory_rate_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (patient_id, bucket_start)
+);
+
+-- How far each rollup table is complete
+CREATE TABLE IF NOT EXISTS vitals_rollup_watermarks (
+    table_name VARCHAR(64) PRIMARY KEY,
+    rolled_up_to TIMESTAMP NOT NULL
+);
+
+-- Medical alerts table (time-ordered UUIDv7 IDs in BINARY(16); use BIN_TO_UUID(id) to read them)
 CREATE TABLE IF NOT EXISTS medical_alerts (
-    id VARCHAR(36) PRIMARY KEY,
+    id BINARY(16) PRIMARY KEY,
     patient_id VARCHAR(36) NOT NULL,
     severity ENUM('CRITICAL', 'WARNING', 'INFO') NOT NULL,
     alert_type VARCHAR(100) NOT NULL,
@@ -102,7 +182,7 @@ CREATE TABLE IF NOT EXISTS medical_alerts (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
-    INDEX idx_patient_id (patient_id),
+    INDEX idx_patient_triggered_at (patient_id, triggered_at),
     INDEX idx_severity (severity),
     INDEX idx_status (status),
     INDEX idx_triggered_at (triggered_at)
@@ -111,7 +191,7 @@ CREATE TABLE IF NOT EXISTS medical_alerts (
 -- Alert message parameters table
 CREATE TABLE IF NOT EXISTS alert_message_params (
     id VARCHAR(36) PRIMARY KEY,
-    alert_id VARCHAR(36) NOT NULL,
+    alert_id BINARY(16) NOT NULL,
     param_key VARCHAR(100) NOT NULL,
     param_value TEXT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -122,7 +202,7 @@ CREATE TABLE IF NOT EXISTS alert_message_params (
 -- Recommended actions table
 CREATE TABLE IF NOT EXISTS recommended_actions (
     id VARCHAR(36) PRIMARY KEY,
-    alert_id VARCHAR(36) NOT NULL,
+    alert_id BINARY(16) NOT NULL,
     message_key VARCHAR(200) NOT NULL,
     priority ENUM('HIGH', 'MEDIUM', 'LOW') DEFAULT 'MEDIUM',
     completed BOOLEAN DEFAULT FALSE,
@@ -138,7 +218,7 @@ CREATE TABLE IF NOT EXISTS recommended_actions (
 -- Alert history table
 CREATE TABLE IF NOT EXISTS alert_history (
     id VARCHAR(36) PRIMARY KEY,
-    alert_id VARCHAR(36) NOT NULL,
+    alert_id BINARY(16) NOT NULL,
     old_status ENUM('ACTIVE', 'ACKNOWLEDGED', 'RESOLVED'),
     new_status ENUM('ACTIVE', 'ACKNOWLEDGED', 'RESOLVED'),
     action_type VARCHAR(50) NOT NULL,
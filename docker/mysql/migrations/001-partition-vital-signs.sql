@@ -0,0 +1,104 @@
+-- Migration for databases created before vitals storage was partitioned.
+-- Converts patient_vital_signs to a day-partitioned table and creates the rollup tables.
+-- Fresh installs get the same schema from init.sql.
+--
+-- The conversion rebuilds the table; run it in a maintenance window. Existing readings land in
+-- p_history, which is dropped as a whole once all of it is past the retention period, so delete
+-- readings older than medical.persistence.storage.raw-retention-days first if disk space matters.
+
+USE `medical_alerts`;
+
+-- Partitioned tables cannot have foreign keys, and the primary key must include timestamp
+ALTER TABLE patient_vital_signs
+    DROP FOREIGN KEY patient_vital_signs_ibfk_1;
+
+ALTER TABLE patient_vital_signs
+    DROP PRIMARY KEY,
+    DROP INDEX idx_patient_id,
+    MODIFY timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ADD PRIMARY KEY (id, timestamp);
+
+-- Everything up to the start of the current UTC day goes to p_history; the backend splits daily
+-- partitions off p_future from there
+SET @history_end = UNIX_TIMESTAMP() - MOD(UNIX_TIMESTAMP(), 86400);
+SET @partition_sql = CONCAT(
+    'ALTER TABLE patient_vital_signs PARTITION BY RANGE (UNIX_TIMESTAMP(timestamp)) (',
+    'PARTITION p_history VALUES LESS THAN (', @history_end, '), ',
+    'PARTITION p_future VALUES LESS THAN MAXVALUE)');
+PREPARE partition_stmt FROM @partition_sql;
+EXECUTE partition_stmt;
+DEALLOCATE PREPARE partition_stmt;
+
+-- Per-minute rollups of patient_vital_signs, partitioned like it. Each vital keeps min, max,
+-- sum and count, so averages stay exact when buckets are combined.
+CREATE TABLE IF NOT EXISTS patient_vital_signs_1m (
+    patient_id VARCHAR(36) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sample_count INT NOT NULL,
+    heart_rate_min DECIMAL(5,2),
+    heart_rate_max DECIMAL(5,2),
+    heart_rate_sum DECIMAL(14,2),
+    heart_rate_count INT NOT NULL DEFAULT 0,
+    oxygen_saturation_min DECIMAL(5,2),
+    oxygen_saturation_max DECIMAL(5,2),
+    oxygen_saturation_sum DECIMAL(14,2),
+    oxygen_saturation_count INT NOT NULL DEFAULT 0,
+    systolic_bp_min DECIMAL(5,2),
+    systolic_bp_max DECIMAL(5,2),
+    systolic_bp_sum DECIMAL(14,2),
+    systolic_bp_count INT NOT NULL DEFAULT 0,
+    diastolic_bp_min DECIMAL(5,2),
+    diastolic_bp_max DECIMAL(5,2),
+    diastolic_bp_sum DECIMAL(14,2),
+    diastolic_bp_count INT NOT NULL DEFAULT 0,
+    temperature_min DECIMAL(4,2),
+    temperature_max DECIMAL(4,2),
+    temperature_sum DECIMAL(14,2),
+    temperature_count INT NOT NULL DEFAULT 0,
+    respiratory_rate_min DECIMAL(5,2),
+    respiratory_rate_max DECIMAL(5,2),
+    respiratory_rate_sum DECIMAL(14,2),
+    respiratory_rate_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (patient_id, bucket_start)
+)
+PARTITION BY RANGE (UNIX_TIMESTAMP(bucket_start)) (
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+-- Per-hour rollups of patient_vital_signs_1m, kept indefinitely
+CREATE TABLE IF NOT EXISTS patient_vital_signs_1h (
+    patient_id VARCHAR(36) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sample_count INT NOT NULL,
+    heart_rate_min DECIMAL(5,2),
+    heart_rate_max DECIMAL(5,2),
+    heart_rate_sum DECIMAL(14,2),
+    heart_rate_count INT NOT NULL DEFAULT 0,
+    oxygen_saturation_min DECIMAL(5,2),
+    oxygen_saturation_max DECIMAL(5,2),
+    oxygen_saturation_sum DECIMAL(14,2),
+    oxygen_saturation_count INT NOT NULL DEFAULT 0,
+    systolic_bp_min DECIMAL(5,2),
+    systolic_bp_max DECIMAL(5,2),
+    systolic_bp_sum DECIMAL(14,2),
+    systolic_bp_count INT NOT NULL DEFAULT 0,
+    diastolic_bp_min DECIMAL(5,2),
+    diastolic_bp_max DECIMAL(5,2),
+    diastolic_bp_sum DECIMAL(14,2),
+    diastolic_bp_count INT NOT NULL DEFAULT 0,
+    temperature_min DECIMAL(4,2),
+    temperature_max DECIMAL(4,2),
+    temperature_sum DECIMAL(14,2),
+    temperature_count INT NOT NULL DEFAULT 0,
+    respiratory_rate_min DECIMAL(5,2),
+    respiratory_rate_max DECIMAL(5,2),
+    respiratory_rate_sum DECIMAL(14,2),
+    respiratory_rate_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (patient_id, bucket_start)
+);
+
+-- How far each rollup table is complete
+CREATE TABLE IF NOT EXISTS vitals_rollup_watermarks (
+    table_name VARCHAR(64) PRIMARY KEY,
+    rolled_up_to TIMESTAMP NOT NULL
+);
@@ -0,0 +1,76 @@
+-- Migration for databases created before alert and vital sign IDs became BINARY(16).
+-- Converts medical_alerts.id (and the alert_id columns referencing it) and patient_vital_signs.id
+-- from UUID strings to 16-byte binary. Fresh installs get the same schema from init.sql.
+--
+-- New rows get time-ordered UUIDv7 IDs from the backend. Existing UUID strings keep their value,
+-- stored with UUID_TO_BIN(id), so they still read back the same through BIN_TO_UUID(id); IDs that
+-- are not UUIDs (e.g. the old sample data's 'ALERT-001') get a new one.
+--
+-- The conversion rebuilds the tables; run it in a maintenance window with the backend stopped,
+-- then re-run stored-procedures-and-functions.sql and views-and-reports.sql.
+
+USE `medical_alerts`;
+
+-- The children reference medical_alerts.id through unnamed foreign keys, which MySQL names
+-- <table>_ibfk_1; they are re-created once both sides are binary
+ALTER TABLE alert_message_params DROP FOREIGN KEY alert_message_params_ibfk_1;
+ALTER TABLE recommended_actions DROP FOREIGN KEY recommended_actions_ibfk_1;
+ALTER TABLE alert_history DROP FOREIGN KEY alert_history_ibfk_1;
+
+ALTER TABLE medical_alerts ADD COLUMN new_id BINARY(16) NULL AFTER id;
+UPDATE medical_alerts
+SET new_id = IF(IS_UUID(id), UUID_TO_BIN(id), UUID_TO_BIN(UUID(), 1));
+
+ALTER TABLE alert_message_params ADD COLUMN new_alert_id BINARY(16) NULL AFTER alert_id;
+UPDATE alert_message_params p JOIN medical_alerts ma ON ma.id = p.alert_id
+SET p.new_alert_id = ma.new_id;
+DELETE FROM alert_message_params WHERE new_alert_id IS NULL;
+ALTER TABLE alert_message_params
+    DROP INDEX idx_alert_id,
+    DROP COLUMN alert_id,
+    CHANGE COLUMN new_alert_id alert_id BINARY(16) NOT NULL,
+    ADD INDEX idx_alert_id (alert_id);
+
+ALTER TABLE recommended_actions ADD COLUMN new_alert_id BINARY(16) NULL AFTER alert_id;
+UPDATE recommended_actions r JOIN medical_alerts ma ON ma.id = r.alert_id
+SET r.new_alert_id = ma.new_id;
+DELETE FROM recommended_actions WHERE new_alert_id IS NULL;
+ALTER TABLE recommended_actions
+    DROP INDEX idx_alert_id,
+    DROP COLUMN alert_id,
+    CHANGE COLUMN new_alert_id alert_id BINARY(16) NOT NULL,
+    ADD INDEX idx_alert_id (alert_id);
+
+ALTER TABLE alert_history ADD COLUMN new_alert_id BINARY(16) NULL AFTER alert_id;
+UPDATE alert_history h JOIN medical_alerts ma ON ma.id = h.alert_id
+SET h.new_alert_id = ma.new_id;
+DELETE FROM alert_history WHERE new_alert_id IS NULL;
+ALTER TABLE alert_history
+    DROP INDEX idx_alert_id,
+    DROP COLUMN alert_id,
+    CHANGE COLUMN new_alert_id alert_id BINARY(16) NOT NULL,
+    ADD INDEX idx_alert_id (alert_id);
+
+ALTER TABLE medical_alerts
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    CHANGE COLUMN new_id id BINARY(16) NOT NULL,
+    ADD PRIMARY KEY (id);
+
+ALTER TABLE alert_message_params
+    ADD FOREIGN KEY (alert_id) REFERENCES medical_alerts(id) ON DELETE CASCADE;
+ALTER TABLE recommended_actions
+    ADD FOREIGN KEY (alert_id) REFERENCES medical_alerts(id) ON DELETE CASCADE;
+ALTER TABLE alert_history
+    ADD FOREIGN KEY (alert_id) REFERENCES medical_alerts(id) ON DELETE CASCADE;
+
+-- patient_vital_signs is partitioned (see 001) and nothing references it; the primary key has
+-- to include timestamp, so it is swapped in the same statement
+ALTER TABLE patient_vital_signs ADD COLUMN new_id BINARY(16) NULL AFTER id;
+UPDATE patient_vital_signs
+SET new_id = IF(IS_UUID(id), UUID_TO_BIN(id), UUID_TO_BIN(UUID(), 1));
+ALTER TABLE patient_vital_signs
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    CHANGE COLUMN new_id id BINARY(16) NOT NULL,
+    ADD PRIMARY KEY (id, timestamp);
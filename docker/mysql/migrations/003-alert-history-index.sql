@@ -0,0 +1,12 @@
+-- Migration for databases created before alert lists were keyset-paginated.
+-- The patient alert pages and exports read alerts by (patient_id, triggered_at); the composite
+-- index serves them and the patient_id foreign key, replacing idx_patient_id.
+-- Fresh installs get the same schema from init.sql.
+
+USE `medical_alerts`;
+
+ALTER TABLE medical_alerts
+    ADD INDEX idx_patient_triggered_at (patient_id, triggered_at);
+
+ALTER TABLE medical_alerts
+    DROP INDEX idx_patient_id;
@@ -15,11 +15,12 @@ CREATE PROCEDURE `sp_acknowledge_alert`(
 BEGIN
     DECLARE v_old_status VARCHAR(20);
     DECLARE v_patient_id VARCHAR(36);
+    DECLARE v_alert_id BINARY(16) DEFAULT UUID_TO_BIN(p_alert_id);
     
     -- Get current status and patient ID
     SELECT status, patient_id INTO v_old_status, v_patient_id
     FROM medical_alerts 
-    WHERE id = p_alert_id;
+    WHERE id = v_alert_id;
     
     -- Update alert status
     UPDATE medical_alerts 
@@ -28,11 +29,11 @@ BEGIN
         acknowledged_at = NOW(),
         acknowledged_by = p_acknowledged_by,
         updated_at = NOW()
-    WHERE id = p_alert_id;
+    WHERE id = v_alert_id;
     
     -- Log history
     INSERT INTO alert_history (id, alert_id, old_status, new_status, action_type, performed_by, notes)
-    VALUES (UUID(), p_alert_id, v_old_status, 'ACKNOWLEDGED', 'ACKNOWLEDGE', p_acknowledged_by, p_notes);
+    VALUES (UUID(), v_alert_id, v_old_status, 'ACKNOWLEDGED', 'ACKNOWLEDGE', p_acknowledged_by, p_notes);
     
     -- Return success
     SELECT 1 AS success, 'Alert acknowledged successfully' AS message;
@@ -48,7 +49,7 @@ CREATE PROCEDURE `sp_create_medical_alert`(
     IN p_requires_acknowledgment BOOLEAN
 )
 BEGIN
-    DECLARE v_alert_id VARCHAR(36);
+    DECLARE v_alert_id BINARY(16);
     DECLARE v_patient_exists INT;
     
     -- Check if patient exists
@@ -58,8 +59,8 @@ BEGIN
         SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Patient not found';
     END IF;
     
-    -- Generate alert ID
-    SET v_alert_id = UUID();
+    -- Generate a time-ordered alert ID (UUIDv1 with its time fields swapped to the front)
+    SET v_alert_id = UUID_TO_BIN(UUID(), 1);
     
     -- Insert alert
     INSERT INTO medical_alerts (id, patient_id, severity, alert_type, message_key, requires_acknowledgment)
@@ -70,11 +71,12 @@ BEGIN
     VALUES (UUID(), v_alert_id, NULL, 'ACTIVE', 'CREATED', 'SYSTEM', CONCAT('Alert created: ', p_alert_type));
     
     -- Return alert ID
-    SELECT v_alert_id AS alert_id, 1 AS success, 'Alert created successfully' AS message;
+    SELECT BIN_TO_UUID(v_alert_id) AS alert_id, 1 AS success, 'Alert created successfully' AS message;
 END//
 
 -- Function: Calculate Patient Risk Level
--- Function: Calculate Patient Risk Level
+-- Superseded by the in-memory early warning score (GET /api/patients/risk), which is updated
+-- per reading instead of counting alerts on every read. Kept for existing reports.
 DROP FUNCTION IF EXISTS `fn_calculate_patient_risk`//
 CREATE FUNCTION `fn_calculate_patient_risk`(p_patient_id VARCHAR(36)) 
 RETURNS VARCHAR(20)
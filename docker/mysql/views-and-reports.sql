@@ -7,7 +7,7 @@ USE `medical_alerts`;
 DROP VIEW IF EXISTS `v_active_patient_alerts`;
 CREATE VIEW `v_active_patient_alerts` AS
 SELECT 
-    ma.id AS alert_id,
+    BIN_TO_UUID(ma.id) AS alert_id,
     ma.severity,
     ma.alert_type,
     ma.triggered_at,
@@ -28,6 +28,7 @@ ORDER BY
     ma.triggered_at ASC;
 
 -- View: Patient Vital Signs Summary
+-- Superseded by GET /api/vitals/current (latest vitals kept in memory by the backend)
 DROP VIEW IF EXISTS `v_patient_vital_summary`;
 CREATE VIEW `v_patient_vital_summary` AS
 SELECT 
@@ -104,7 +105,7 @@ ORDER BY
 DROP VIEW IF EXISTS `v_critical_alert_timeline`;
 CREATE VIEW `v_critical_alert_timeline` AS
 SELECT 
-    ma.id AS alert_id,
+    BIN_TO_UUID(ma.id) AS alert_id,
     ma.alert_type,
     ma.severity,
     ma.triggered_at,
@@ -127,6 +128,7 @@ ORDER BY
     ma.triggered_at DESC;
 
 -- View: Patient Risk Assessment
+-- Superseded by GET /api/patients/risk (NEWS2-style score kept in memory by the backend)
 DROP VIEW IF EXISTS `v_patient_risk_assessment`;
 CREATE VIEW `v_patient_risk_assessment` AS
 SELECT 
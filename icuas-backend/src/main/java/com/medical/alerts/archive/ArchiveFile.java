@@ -0,0 +1,173 @@
+package com.medical.alerts.archive;
+
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.Vital;
+import com.medical.alerts.archive.VitalsArchive.SourcedReadingHandler;
+import com.medical.alerts.repository.VitalsRollupRepository.ReadingHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Columnar file holding the readings of one patient on one day:
+ * <pre>
+ *   magic 'VCA1', reading count, byte length of each column      (4 + 4 + 8 * 4 bytes)
+ *   timestamps    epoch millis, delta-of-delta ({@link TimestampCodec})
+ *   6 vitals      in {@link Vital} order, value * 100 XOR-encoded ({@link ValueCodec}), NaN if missing
+ *   sources       runs of (ordinal: 8 bits, length: 32 bits)
+ * </pre>
+ * Vitals are two-decimal values; scaled by 100 they are whole numbers, whose doubles have a long
+ * run of trailing zero bits for the XOR encoding to drop. Reading IDs are not kept; sources are
+ * {@link PatientVitalSigns.DataSource} ordinals, decoded back to the source of each reading.
+ */
+final class ArchiveFile {
+
+    static final int MAGIC = 0x56434131;
+    private static final int COLUMNS = 2 + Vital.COUNT;
+    private static final int HEADER_BYTES = 8 + COLUMNS * 4;
+
+    private ArchiveFile() {
+    }
+
+    static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime toTimestamp(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), Math.floorMod(millis, 1000) * 1_000_000,
+            ZoneOffset.UTC);
+    }
+
+    /**
+     * Encodes readings added oldest first; one writer per file.
+     */
+    static final class Writer {
+
+        private final TimestampCodec.Encoder timestamps = new TimestampCodec.Encoder();
+        private final ValueCodec.Encoder[] values = new ValueCodec.Encoder[Vital.COUNT];
+        private final BitOutput sources = new BitOutput();
+        private int count;
+        private int source = -1;
+        private int sourceRun;
+
+        Writer() {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new ValueCodec.Encoder();
+            }
+        }
+
+        /**
+         * @param vitals values in {@link Vital} order, {@code null} where not measured
+         */
+        void add(LocalDateTime timestamp, BigDecimal[] vitals, PatientVitalSigns.DataSource dataSource) {
+            timestamps.add(toMillis(timestamp));
+            for (int i = 0; i < values.length; i++) {
+                values[i].add(vitals[i] == null ? Double.NaN : vitals[i].movePointRight(2).doubleValue());
+            }
+            int ordinal = dataSource.ordinal();
+            if (ordinal != source && sourceRun > 0) {
+                flushSourceRun();
+            }
+            source = ordinal;
+            sourceRun++;
+            count++;
+        }
+
+        int count() {
+            return count;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            if (sourceRun > 0) {
+                flushSourceRun();
+            }
+            BitOutput[] columns = new BitOutput[COLUMNS];
+            columns[0] = timestamps.output();
+            for (int i = 0; i < values.length; i++) {
+                columns[i + 1] = values[i].output();
+            }
+            columns[COLUMNS - 1] = sources;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(count);
+            for (BitOutput column : columns) {
+                header.putInt(column.length());
+            }
+            out.write(header.array());
+            for (BitOutput column : columns) {
+                out.write(column.bytes(), 0, column.length());
+            }
+        }
+
+        private void flushSourceRun() {
+            sources.writeBits(source, 8);
+            sources.writeBits(sourceRun, 32);
+            sourceRun = 0;
+        }
+    }
+
+    static void read(Path file, LocalDateTime from, LocalDateTime to, ReadingHandler handler) throws IOException {
+        read(file, from, to, (timestamp, values, source) -> handler.accept(timestamp, values));
+    }
+
+    /**
+     * Memory-maps a file and decodes the readings in {@code [from, to)}, oldest first. Values passed
+     * to the handler are indexed by {@link Vital#ordinal()}, NaN where not measured.
+     */
+    static void read(Path file, LocalDateTime from, LocalDateTime to, SourcedReadingHandler handler)
+            throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a vitals archive file: " + file);
+        }
+        int count = buffer.getInt(4);
+        int offset = HEADER_BYTES;
+        BitInput[] columns = new BitInput[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            columns[i] = new BitInput(buffer, offset);
+            offset += buffer.getInt(8 + i * 4);
+        }
+
+        TimestampCodec.Decoder timestamps = new TimestampCodec.Decoder(columns[0]);
+        ValueCodec.Decoder[] decoders = new ValueCodec.Decoder[Vital.COUNT];
+        for (int i = 0; i < decoders.length; i++) {
+            decoders[i] = new ValueCodec.Decoder(columns[i + 1]);
+        }
+        BitInput sources = columns[COLUMNS - 1];
+        PatientVitalSigns.DataSource[] dataSources = PatientVitalSigns.DataSource.values();
+        PatientVitalSigns.DataSource source = null;
+        long sourceRun = 0;
+        long fromMillis = toMillis(from);
+        long toMillis = toMillis(to);
+        double[] values = new double[Vital.COUNT];
+        for (int row = 0; row < count; row++) {
+            long millis = timestamps.next();
+            if (millis >= toMillis) {
+                break;
+            }
+            // Every column is decoded in step, as each value depends on the previous one
+            for (int i = 0; i < decoders.length; i++) {
+                values[i] = decoders[i].next() / 100;
+            }
+            if (sourceRun == 0) {
+                source = dataSources[(int) sources.readBits(8)];
+                sourceRun = sources.readBits(32);
+            }
+            sourceRun--;
+            if (millis >= fromMillis) {
+                handler.accept(toTimestamp(millis), values, source);
+            }
+        }
+    }
+}
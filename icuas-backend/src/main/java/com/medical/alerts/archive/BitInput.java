@@ -0,0 +1,36 @@
+package com.medical.alerts.archive;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads bits written by {@link BitOutput} from a region of a buffer, without copying it.
+ */
+final class BitInput {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private long position;
+
+    BitInput(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    /** Reads {@code bits} bits, 0 to 64, as an unsigned value. */
+    long readBits(int bits) {
+        long value = 0;
+        while (bits > 0) {
+            int current = buffer.get(offset + (int) (position >>> 3)) & 0xFF;
+            int available = 8 - (int) (position & 7);
+            int n = Math.min(available, bits);
+            value = value << n | (current >>> (available - n)) & ((1 << n) - 1);
+            bits -= n;
+            position += n;
+        }
+        return value;
+    }
+}
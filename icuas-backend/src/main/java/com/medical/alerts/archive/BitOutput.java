@@ -0,0 +1,41 @@
+package com.medical.alerts.archive;
+
+import java.util.Arrays;
+
+/**
+ * Growable bit buffer, written most significant bit first.
+ */
+final class BitOutput {
+
+    private byte[] bytes = new byte[4096];
+    private long bitCount;
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /** Writes the low {@code bits} bits of {@code value}, 0 to 64. */
+    void writeBits(long value, int bits) {
+        while (bits > 0) {
+            int index = (int) (bitCount >>> 3);
+            if (index == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            int free = 8 - (int) (bitCount & 7);
+            int n = Math.min(free, bits);
+            int chunk = (int) (value >>> (bits - n)) & ((1 << n) - 1);
+            bytes[index] |= (byte) (chunk << (free - n));
+            bits -= n;
+            bitCount += n;
+        }
+    }
+
+    /** Length in bytes, the last one padded with zero bits. */
+    int length() {
+        return (int) ((bitCount + 7) >>> 3);
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+}
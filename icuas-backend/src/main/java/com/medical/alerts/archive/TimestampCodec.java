@@ -0,0 +1,101 @@
+package com.medical.alerts.archive;
+
+/**
+ * Delta-of-delta encoding of ascending millisecond timestamps (Gorilla, VLDB 2015). Readings that
+ * arrive at a steady rate cost one bit each:
+ * <pre>
+ *   first timestamp        64 bits
+ *   delta of delta == 0    '0'
+ *   in [-63, 64]           '10'   + 7 bits
+ *   in [-255, 256]         '110'  + 9 bits
+ *   in [-2047, 2048]       '1110' + 12 bits
+ *   otherwise              '1111' + 64 bits
+ * </pre>
+ */
+final class TimestampCodec {
+
+    private static final int[] BUCKET_BITS = {7, 9, 12};
+
+    private TimestampCodec() {
+    }
+
+    static final class Encoder {
+
+        private final BitOutput out = new BitOutput();
+        private long previous;
+        private long previousDelta;
+        private boolean started;
+
+        void add(long timestamp) {
+            if (!started) {
+                started = true;
+                out.writeBits(timestamp, 64);
+                previous = timestamp;
+                return;
+            }
+            long delta = timestamp - previous;
+            long deltaOfDelta = delta - previousDelta;
+            previous = timestamp;
+            previousDelta = delta;
+
+            if (deltaOfDelta == 0) {
+                out.writeBit(false);
+                return;
+            }
+            for (int i = 0; i < BUCKET_BITS.length; i++) {
+                int bits = BUCKET_BITS[i];
+                if (deltaOfDelta >= -(1L << bits - 1) + 1 && deltaOfDelta <= 1L << bits - 1) {
+                    // i + 1 one bits and a terminating zero select the bucket
+                    out.writeBits((1L << i + 2) - 2, i + 2);
+                    out.writeBits(deltaOfDelta, bits);
+                    return;
+                }
+            }
+            out.writeBits(0b1111, 4);
+            out.writeBits(deltaOfDelta, 64);
+        }
+
+        BitOutput output() {
+            return out;
+        }
+    }
+
+    static final class Decoder {
+
+        private final BitInput in;
+        private long previous;
+        private long previousDelta;
+        private boolean started;
+
+        Decoder(BitInput in) {
+            this.in = in;
+        }
+
+        long next() {
+            if (!started) {
+                started = true;
+                previous = in.readBits(64);
+                return previous;
+            }
+            int bucket = 0;
+            while (bucket < 4 && in.readBit()) {
+                bucket++;
+            }
+            long deltaOfDelta;
+            if (bucket == 0) {
+                deltaOfDelta = 0;
+            } else if (bucket == 4) {
+                deltaOfDelta = in.readBits(64);
+            } else {
+                int bits = BUCKET_BITS[bucket - 1];
+                deltaOfDelta = in.readBits(bits);
+                if (deltaOfDelta > 1L << bits - 1) {
+                    deltaOfDelta -= 1L << bits;
+                }
+            }
+            previousDelta += deltaOfDelta;
+            previous += previousDelta;
+            return previous;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.medical.alerts.archive;
+
+/**
+ * XOR encoding of a double series (Gorilla, VLDB 2015). Each value is XORed with the previous one;
+ * a repeated value costs one bit, and a change costs its meaningful bits, reusing the previous
+ * leading/trailing zero window when it fits:
+ * <pre>
+ *   first value           64 bits
+ *   xor == 0              '0'
+ *   fits previous window  '10' + meaningful bits
+ *   otherwise             '11' + 5 bits leading zeros + 6 bits length - 1 + meaningful bits
+ * </pre>
+ * Missing values are stored as NaN.
+ */
+final class ValueCodec {
+
+    private ValueCodec() {
+    }
+
+    static final class Encoder {
+
+        private final BitOutput out = new BitOutput();
+        private long previous;
+        private int leading = -1;
+        private int trailing;
+        private boolean started;
+
+        void add(double value) {
+            long bits = Double.doubleToLongBits(value);
+            if (!started) {
+                started = true;
+                out.writeBits(bits, 64);
+                previous = bits;
+                return;
+            }
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.writeBit(false);
+                return;
+            }
+            out.writeBit(true);
+            int newLeading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int newTrailing = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && newLeading >= leading && newTrailing >= trailing) {
+                out.writeBit(false);
+                out.writeBits(xor >>> trailing, 64 - leading - trailing);
+                return;
+            }
+            int meaningful = 64 - newLeading - newTrailing;
+            out.writeBit(true);
+            out.writeBits(newLeading, 5);
+            out.writeBits(meaningful - 1, 6);
+            out.writeBits(xor >>> newTrailing, meaningful);
+            leading = newLeading;
+            trailing = newTrailing;
+        }
+
+        BitOutput output() {
+            return out;
+        }
+    }
+
+    static final class Decoder {
+
+        private final BitInput in;
+        private long previous;
+        private int leading;
+        private int trailing;
+        private boolean started;
+
+        Decoder(BitInput in) {
+            this.in = in;
+        }
+
+        double next() {
+            if (!started) {
+                started = true;
+                previous = in.readBits(64);
+            } else if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.readBits(5);
+                    int meaningful = (int) in.readBits(6) + 1;
+                    trailing = 64 - leading - meaningful;
+                }
+                previous ^= in.readBits(64 - leading - trailing) << trailing;
+            }
+            return Double.longBitsToDouble(previous);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.medical.alerts.archive;
+
+import com.medical.alerts.config.ArchiveProperties;
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.Vital;
+import com.medical.alerts.repository.VitalsRollupRepository;
+import com.medical.alerts.repository.VitalsRollupRepository.ReadingHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Cold storage of raw vital signs that are past retention in MySQL. Each day is a directory with
+ * one compressed columnar file per patient (see {@link ArchiveFile}); a day's directory only
+ * appears once all of its files are written, so a day is either fully archived or not at all.
+ * Files are memory-mapped for reading, so archived history is served from the page cache rather
+ * than the database buffer pool.
+ * <p>
+ * Archive days are UTC days, like the daily partitions they are archived from, whatever the time
+ * zone of the JVM; timestamps passed in and out are local date-times of the JVM, as elsewhere.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VitalsArchive {
+
+    private static final String FILE_SUFFIX = ".vca";
+
+    private final ArchiveProperties properties;
+    private final VitalsRollupRepository rollupRepository;
+
+    /** The archive day holding a reading taken at this local time. */
+    public static LocalDate dayOf(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+    }
+
+    /** Local time at which an archive day starts. */
+    public static LocalDateTime startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isArchived(LocalDate day) {
+        return properties.isEnabled() && Files.isDirectory(dayDirectory(day));
+    }
+
+    /**
+     * Archives every reading of a day, replacing what an interrupted earlier run left behind.
+     *
+     * @return the number of readings archived
+     */
+    public long archiveDay(JdbcTemplate session, LocalDate day) throws IOException {
+        Path target = dayDirectory(day);
+        Path staging = properties.getDirectory().resolve("." + day + ".tmp");
+        FileSystemUtils.deleteRecursively(staging);
+        Files.createDirectories(staging);
+
+        DayWriter writer = new DayWriter(staging);
+        try {
+            rollupRepository.streamForArchive(session, startOf(day), startOf(day.plusDays(1)), rs -> {
+                BigDecimal[] vitals = writer.vitals;
+                for (int i = 0; i < Vital.COUNT; i++) {
+                    vitals[i] = rs.getBigDecimal(i + 3);
+                }
+                // The column is nullable; MONITOR is its default
+                String source = rs.getString(Vital.COUNT + 3);
+                writer.add(rs.getString(1), rs.getTimestamp(2).toLocalDateTime(), source == null
+                    ? PatientVitalSigns.DataSource.MONITOR : PatientVitalSigns.DataSource.valueOf(source));
+            });
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Archived {} readings of {} patients for {}", writer.readings, writer.patients, day);
+        return writer.readings;
+    }
+
+    /**
+     * Splits {@code [from, to)} into runs of archived days and runs of days whose readings are in the
+     * database, and passes each run to the matching reader in order. Without an archive the whole
+     * range is one database run.
+     */
+    public void split(LocalDateTime from, LocalDateTime to, BiConsumer<LocalDateTime, LocalDateTime> database,
+                      BiConsumer<LocalDateTime, LocalDateTime> archived) {
+        LocalDateTime next = from;
+        LocalDateTime archivedFrom = null;
+        for (LocalDate day : archivedDays(dayOf(from), dayOf(to))) {
+            LocalDateTime start = max(from, startOf(day));
+            LocalDateTime end = min(to, startOf(day.plusDays(1)));
+            if (!start.isBefore(end)) {
+                continue;
+            }
+            if (next.isBefore(start)) {
+                if (archivedFrom != null) {
+                    archived.accept(archivedFrom, next);
+                    archivedFrom = null;
+                }
+                database.accept(next, start);
+            }
+            if (archivedFrom == null) {
+                archivedFrom = start;
+            }
+            next = end;
+        }
+        if (archivedFrom != null) {
+            archived.accept(archivedFrom, next);
+        }
+        if (next.isBefore(to)) {
+            database.accept(next, to);
+        }
+    }
+
+    /**
+     * Passes the archived readings of a patient in {@code [from, to)} to the handler, oldest first.
+     * The range must lie within archived days.
+     */
+    public void read(String patientId, LocalDateTime from, LocalDateTime to, ReadingHandler handler) {
+        read(patientId, from, to, (timestamp, values, source) -> handler.accept(timestamp, values));
+    }
+
+    /**
+     * Like {@link #read(String, LocalDateTime, LocalDateTime, ReadingHandler)}, also passing the
+     * source of each reading.
+     */
+    public void read(String patientId, LocalDateTime from, LocalDateTime to, SourcedReadingHandler handler) {
+        for (LocalDate day = dayOf(from); startOf(day).isBefore(to); day = day.plusDays(1)) {
+            Path file = dayDirectory(day).resolve(fileName(patientId));
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try {
+                ArchiveFile.read(file, from, to, handler);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading vitals archive " + file, e);
+            }
+        }
+    }
+
+    /** Archived days in {@code [first, last]}, oldest first, from one listing of the archive. */
+    private List<LocalDate> archivedDays(LocalDate first, LocalDate last) {
+        Path directory = properties.getDirectory();
+        if (!properties.isEnabled() || !Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.filter(Files::isDirectory)
+                .map(entry -> parseDay(entry.getFileName().toString()))
+                .filter(day -> day != null && !day.isBefore(first) && !day.isAfter(last))
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error listing vitals archive " + directory, e);
+        }
+    }
+
+    // Staging directories of days being archived are not days
+    private static LocalDate parseDay(String name) {
+        try {
+            return LocalDate.parse(name);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private Path dayDirectory(LocalDate day) {
+        return properties.getDirectory().resolve(day.toString());
+    }
+
+    // Patient IDs are free text; keep file names to a safe character set
+    private static String fileName(String patientId) {
+        return URLEncoder.encode(patientId, StandardCharsets.UTF_8).replace(".", "%2E") + FILE_SUFFIX;
+    }
+
+    /** Encodes the rows of a day, which arrive ordered by patient, one patient file at a time. */
+    private static final class DayWriter {
+
+        private final Path directory;
+        private final BigDecimal[] vitals = new BigDecimal[Vital.COUNT];
+        private String patientId;
+        private ArchiveFile.Writer file;
+        private long readings;
+        private int patients;
+
+        private DayWriter(Path directory) {
+            this.directory = directory;
+        }
+
+        private void add(String patientId, LocalDateTime timestamp, PatientVitalSigns.DataSource source) {
+            if (!patientId.equals(this.patientId)) {
+                finish();
+                this.patientId = patientId;
+                file = new ArchiveFile.Writer();
+            }
+            file.add(timestamp, vitals, source);
+            readings++;
+        }
+
+        private void finish() {
+            if (file == null || file.count() == 0) {
+                return;
+            }
+            Path path = directory.resolve(fileName(patientId));
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+                file.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            patients++;
+            file = null;
+        }
+    }
+
+    /**
+     * Receives archived readings with their source. Values are indexed by {@link Vital#ordinal()},
+     * NaN where not measured; the array is reused for the next reading.
+     */
+    @FunctionalInterface
+    public interface SourcedReadingHandler {
+        void accept(LocalDateTime timestamp, double[] values, PatientVitalSigns.DataSource source);
+    }
+}
@@ -0,0 +1,38 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Priority lanes of alert persistence and publishing, bound from {@code medical.alerts.lanes.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.alerts.lanes")
+public class AlertLaneProperties {
+
+    /** Maximum number of alert transitions written per save by the alert outbox. */
+    private int outboxBatchSize = 200;
+
+    /**
+     * Failed attempts at writing a batch of transitions before they are written one at a time, so
+     * transitions the database keeps rejecting can be dropped instead of stalling every lane.
+     */
+    private int isolateAfterAttempts = 3;
+
+    /**
+     * Backlog fill ratio (fullest patient shard queue or the write-behind buffer) at which INFO
+     * alerts are no longer published by the evaluating shard, but by the outbox once persisted.
+     */
+    private double shedInfoAt = 0.5;
+
+    /** Backlog fill ratio at which WARNING alerts are deferred the same way. */
+    private double shedWarningAt = 0.8;
+
+    /**
+     * Longest time an alert update from the REST API waits for pending transitions of that alert
+     * to be written, before reading it from the database.
+     */
+    private Duration writeWaitTimeout = Duration.ofSeconds(5);
+}
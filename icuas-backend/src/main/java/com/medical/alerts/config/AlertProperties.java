@@ -0,0 +1,18 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Alert lifecycle settings, bound from {@code medical.alerts.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.alerts")
+public class AlertProperties {
+
+    /**
+     * Consecutive normal readings required before an open alert is resolved automatically.
+     * Guards against an alert flapping open and closed around a threshold.
+     */
+    private int clearAfterReadings = 3;
+}
@@ -0,0 +1,23 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Cold archive of raw vital signs past retention, bound from {@code medical.persistence.archive.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.persistence.archive")
+public class ArchiveProperties {
+
+    /** Whether expired daily partitions are archived before they are dropped. */
+    private boolean enabled = true;
+
+    /**
+     * Directory of the per-patient, per-day archive files. Replicas serve archived history from
+     * here, so with more than one replica it must be a shared volume.
+     */
+    private Path directory = Path.of("data", "vitals-archive");
+}
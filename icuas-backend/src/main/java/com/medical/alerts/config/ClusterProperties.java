@@ -0,0 +1,25 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.UUID;
+
+/**
+ * Identity of this replica, bound from {@code medical.cluster.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.cluster")
+public class ClusterProperties {
+
+    /**
+     * Unique per running instance; used for broadcast consumer groups and to recognise messages
+     * this instance published itself. Defaults to the container hostname, or a random ID.
+     */
+    private String instanceId = System.getenv().getOrDefault("HOSTNAME", UUID.randomUUID().toString());
+
+    /** Consumer group that receives every message of a topic on this instance. */
+    public String broadcastGroupId(String name) {
+        return name + "-" + instanceId;
+    }
+}
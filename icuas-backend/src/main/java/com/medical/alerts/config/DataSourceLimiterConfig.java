@@ -0,0 +1,41 @@
+package com.medical.alerts.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application datasource in a {@link BoundedDataSource} when
+ * {@code medical.datasource.limiter.enabled} is set.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "medical.datasource.limiter", name = "enabled", havingValue = "true")
+public class DataSourceLimiterConfig {
+
+    // Static, so the post-processor does not force early initialization of this configuration
+    @Bean
+    static BeanPostProcessor dataSourceLimiterPostProcessor(ObjectProvider<DataSourceLimiterProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BoundedDataSource) {
+                    return bean;
+                }
+                DataSourceLimiterProperties limiter = properties.getObject();
+                int maxConcurrency = limiter.getMaxConcurrency();
+                if (maxConcurrency <= 0) {
+                    maxConcurrency = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                }
+                log.info("Limiting datasource '{}' to {} concurrent connections", beanName, maxConcurrency);
+                return new BoundedDataSource(dataSource, maxConcurrency, limiter.getMaxWaiting(), limiter.getAcquireTimeout());
+            }
+        };
+    }
+}
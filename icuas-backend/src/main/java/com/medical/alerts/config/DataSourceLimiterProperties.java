@@ -0,0 +1,30 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limiter in front of the datasource, bound from {@code medical.datasource.limiter.*}.
+ * Enabled by the {@code virtual-threads} profile, where request and listener concurrency is no
+ * longer capped by a thread pool.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.datasource.limiter")
+public class DataSourceLimiterProperties {
+
+    private boolean enabled = false;
+
+    /** Connections that may be in use at once; 0 uses the Hikari maximum pool size. */
+    private int maxConcurrency = 0;
+
+    /**
+     * Callers queued for a connection before new ones fail fast instead of waiting out
+     * {@link #acquireTimeout}.
+     */
+    private int maxWaiting = 1000;
+
+    /** How long a caller waits for a permit before the connection request fails. */
+    private Duration acquireTimeout = Duration.ofSeconds(10);
+}
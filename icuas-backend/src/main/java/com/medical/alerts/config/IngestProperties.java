@@ -0,0 +1,45 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * REST ingest settings, bound from {@code medical.ingest.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.ingest")
+public class IngestProperties {
+
+    /** How {@code POST /api/vitals/{patientId}} processes readings. */
+    private Mode mode = Mode.SYNC;
+
+    /** Readings waiting for the broker's acknowledgement before new ones are rejected with 503. */
+    private int queueCapacity = 5000;
+
+    /** How long a request waits for the broker to acknowledge its reading before failing with 503. */
+    private Duration acceptTimeout = Duration.ofSeconds(5);
+
+    /** How long shutdown waits for readings in flight to the broker. */
+    private Duration drainTimeout = Duration.ofSeconds(30);
+
+    /**
+     * How long a patient ID that is not in the database is remembered as unknown, so a device
+     * sending a bogus ID does not cost a query per reading. Patient events clear it early.
+     */
+    private Duration unknownPatientTtl = Duration.ofSeconds(30);
+
+    /** Unknown patient IDs remembered at most; when full they are forgotten and looked up again. */
+    private int unknownPatientCacheSize = 10000;
+
+    public enum Mode {
+        /** Persist, publish and evaluate on the request thread (one transaction). */
+        SYNC,
+        /**
+         * Validate and publish to Kafka on the request thread, returning once the broker has the
+         * reading; the consumer owning the patient evaluates and persists it.
+         */
+        PIPELINE
+    }
+}
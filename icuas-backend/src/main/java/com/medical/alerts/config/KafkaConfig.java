@@ -1,17 +1,47 @@
 package com.medical.alerts.config;
 
+import com.medical.alerts.service.PatientShardExecutor;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.annotation.EnableKafkaRetryTopic;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+
+import java.util.Collection;
+import java.util.Map;
 
 @Configuration
+@EnableKafkaRetryTopic
 public class KafkaConfig {
     
+    /** Suffix of the dead letter topic of each topic. */
+    public static final String DLT_SUFFIX = ".DLT";
+    
     @Bean
-    public NewTopic vitalSignsTopic() {
+    public NewTopic vitalSignsTopic(ShardingProperties shardingProperties) {
+        // Patient shards are laid out per partition of this topic
         return TopicBuilder.name("vital-signs-topic")
-            .partitions(3)
+            .partitions(shardingProperties.getPartitions())
             .replicas(1)
             .build();
     }
@@ -31,4 +61,153 @@ public class KafkaConfig {
             .replicas(1)
             .build();
     }
+    
+    @Bean
+    public NewTopic patientEventsTopic() {
+        return TopicBuilder.name("patient-events-topic")
+            .partitions(3)
+            .replicas(1)
+            .build();
+    }
+    
+    /**
+     * Dead letter topics, with the partitions of their topic. Sends that fail after the producer's
+     * retries are published here.
+     */
+    @Bean
+    public KafkaAdmin.NewTopics deadLetterTopics(ShardingProperties shardingProperties) {
+        return new KafkaAdmin.NewTopics(
+            TopicBuilder.name("vital-signs-topic" + DLT_SUFFIX).partitions(shardingProperties.getPartitions()).replicas(1).build(),
+            TopicBuilder.name("medical-alerts-topic" + DLT_SUFFIX).partitions(3).replicas(1).build(),
+            TopicBuilder.name("iot-device-topic" + DLT_SUFFIX).partitions(3).replicas(1).build(),
+            TopicBuilder.name("patient-events-topic" + DLT_SUFFIX).partitions(3).replicas(1).build());
+    }
+    
+    /**
+     * Publishes records that failed processing to {@code <topic>.DLT}, on the partition they came
+     * from. Records that could not be deserialized are published with their original bytes.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer(
+            @Qualifier("alertsKafkaTemplate") KafkaTemplate<String, Object> alertsKafkaTemplate) {
+        return new DeadLetterPublishingRecoverer(alertsKafkaTemplate);
+    }
+    
+    /**
+     * Error handler of the listener containers without retry topics: the failed record is retried
+     * in place with backoff, then dead-lettered, and the partition moves on. Records that cannot be
+     * deserialized are dead-lettered right away. Picked up by Boot's container factory configurer,
+     * so it applies to every listener container factory built with it.
+     */
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(DeadLetterPublishingRecoverer deadLetterPublishingRecoverer,
+                                                 KafkaConsumerProperties consumerProperties) {
+        ExponentialBackOffWithMaxRetries backOff =
+            new ExponentialBackOffWithMaxRetries(consumerProperties.getRetryAttempts() - 1);
+        backOff.setInitialInterval(consumerProperties.getRetryDelay().toMillis());
+        backOff.setMultiplier(consumerProperties.getRetryMultiplier());
+        return new DefaultErrorHandler(deadLetterPublishingRecoverer, backOff);
+    }
+    
+    /**
+     * Producer of the high-rate vital signs topics, tuned for throughput: records wait up to
+     * {@code linger.ms} to fill compressed batches.
+     */
+    @Bean
+    @Primary
+    public ProducerFactory<String, Object> vitalsProducerFactory(KafkaProperties kafkaProperties, SslBundles sslBundles,
+                                                                 KafkaProducerProperties producerProperties,
+                                                                 ObjectProvider<DefaultKafkaProducerFactoryCustomizer> customizers) {
+        return producerFactory(kafkaProperties, sslBundles, producerProperties.getVitals(), "vitals", customizers);
+    }
+    
+    /**
+     * Producer of alerts and patient events. Being a separate producer, an alert never waits in a
+     * batch or send buffer behind routine vitals.
+     */
+    @Bean
+    public ProducerFactory<String, Object> alertsProducerFactory(KafkaProperties kafkaProperties, SslBundles sslBundles,
+                                                                 KafkaProducerProperties producerProperties,
+                                                                 ObjectProvider<DefaultKafkaProducerFactoryCustomizer> customizers) {
+        return producerFactory(kafkaProperties, sslBundles, producerProperties.getAlerts(), "alerts", customizers);
+    }
+    
+    /**
+     * Producer of CRITICAL alert transitions. Its buffer and in-flight requests only ever hold
+     * critical alerts, so a burst of routine alerts or patient events cannot delay one.
+     */
+    @Bean
+    public ProducerFactory<String, Object> criticalProducerFactory(KafkaProperties kafkaProperties, SslBundles sslBundles,
+                                                                   KafkaProducerProperties producerProperties,
+                                                                   ObjectProvider<DefaultKafkaProducerFactoryCustomizer> customizers) {
+        return producerFactory(kafkaProperties, sslBundles, producerProperties.getCritical(), "critical", customizers);
+    }
+    
+    private static ProducerFactory<String, Object> producerFactory(KafkaProperties kafkaProperties, SslBundles sslBundles,
+                                                                   Map<String, String> profile, String name,
+                                                                   ObjectProvider<DefaultKafkaProducerFactoryCustomizer> customizers) {
+        Map<String, Object> configs = kafkaProperties.buildProducerProperties(sslBundles);
+        configs.putAll(profile);
+        // Tells the producers apart in broker quotas, logs and client metrics
+        configs.merge(ProducerConfig.CLIENT_ID_CONFIG, name, (clientId, suffix) -> clientId + "-" + suffix);
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configs);
+        // Boot's customizers, e.g. the one binding the producer's client metrics to Micrometer
+        customizers.orderedStream().forEach(customizer -> customizer.customize(factory));
+        return factory;
+    }
+    
+    @Bean
+    @Primary
+    public KafkaTemplate<String, Object> kafkaTemplate(
+            @Qualifier("vitalsProducerFactory") ProducerFactory<String, Object> vitalsProducerFactory) {
+        return new KafkaTemplate<>(vitalsProducerFactory);
+    }
+    
+    @Bean
+    public KafkaTemplate<String, Object> alertsKafkaTemplate(
+            @Qualifier("alertsProducerFactory") ProducerFactory<String, Object> alertsProducerFactory) {
+        return new KafkaTemplate<>(alertsProducerFactory);
+    }
+    
+    @Bean
+    public KafkaTemplate<String, Object> criticalKafkaTemplate(
+            @Qualifier("criticalProducerFactory") ProducerFactory<String, Object> criticalProducerFactory) {
+        return new KafkaTemplate<>(criticalProducerFactory);
+    }
+    
+    /**
+     * Listener container factory that hands a whole poll to the listener, for high-rate topics
+     * where records are evaluated and persisted together and offsets committed once per batch.
+     * Partition assignments are reported to the {@link PatientShardExecutor}, which tracks the
+     * patients this instance owns. Consumers use the cooperative sticky assignor (see
+     * {@code spring.kafka.consumer.properties}), so only partitions actually moving to another
+     * consumer are revoked and have their per-patient state evicted.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            PatientShardExecutor shardExecutor) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+            
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                shardExecutor.partitionsAssigned(partitions);
+            }
+            
+            @Override
+            public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                shardExecutor.partitionsRevoked(partitions);
+            }
+            
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                shardExecutor.partitionsRevoked(partitions);
+            }
+        });
+        return factory;
+    }
 }
\ No newline at end of file
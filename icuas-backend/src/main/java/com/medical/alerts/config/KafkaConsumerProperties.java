@@ -0,0 +1,30 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Retry and dead letter settings of the Kafka listeners, bound from {@code medical.kafka.consumer.*}.
+ * The retry settings are also read by the {@code @RetryableTopic} of the IoT device listener.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.kafka.consumer")
+public class KafkaConsumerProperties {
+
+    /** Deliveries of a failing record, the first included, before it is dead-lettered. */
+    private int retryAttempts = 3;
+
+    /** Wait before the first retry; given in milliseconds for the retry topic annotation. */
+    private Duration retryDelay = Duration.ofSeconds(1);
+
+    /** Factor applied to the wait before each further retry. */
+    private double retryMultiplier = 2.0;
+
+    /** Maximum number of dead letters returned by one read. */
+    private int deadLetterMaxRecords = 500;
+
+    /** Longest time spent reading dead letters for one request. */
+    private Duration deadLetterReadTimeout = Duration.ofSeconds(10);
+}
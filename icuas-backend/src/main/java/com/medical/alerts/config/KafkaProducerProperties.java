@@ -0,0 +1,26 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka producer profiles, bound from {@code medical.kafka.producer.*}. Each profile is a separate
+ * producer with its own buffer and sender thread; its properties are applied over
+ * {@code spring.kafka.producer.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.kafka.producer")
+public class KafkaProducerProperties {
+
+    /** High-rate vital signs and device data: batched and compressed. */
+    private Map<String, String> vitals = new HashMap<>();
+
+    /** Alert transitions and patient events: sent as soon as they are produced. */
+    private Map<String, String> alerts = new HashMap<>();
+
+    /** CRITICAL alert transitions only, so they never queue behind routine alerts and events. */
+    private Map<String, String> critical = new HashMap<>();
+}
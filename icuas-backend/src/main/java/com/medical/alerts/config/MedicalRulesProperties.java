@@ -0,0 +1,146 @@
+package com.medical.alerts.config;
+
+import com.medical.alerts.strategy.ConditionProfile;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Thresholds bound from {@code medical.rules.*}. Defaults mirror application.yaml so that a
+ * partial override (e.g. through the rules reload endpoint) keeps the remaining values sane.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.rules")
+public class MedicalRulesProperties {
+
+    public static final String PREFIX = "medical.rules";
+
+    private OxygenSaturation oxygenSaturation = new OxygenSaturation();
+    private HeartRate heartRate = new HeartRate();
+    private BloodPressure bloodPressure = new BloodPressure();
+    private Temperature temperature = new Temperature();
+    private RespiratoryRate respiratoryRate = new RespiratoryRate();
+    private Trends trends = new Trends();
+    private EarlyWarning earlyWarning = new EarlyWarning();
+
+    @Data
+    public static class OxygenSaturation {
+        private double critical = 92;
+        private double warning = 94;
+    }
+
+    @Data
+    public static class HeartRate {
+        private Range adultResting = new Range(60, 100);
+        private Range postSurgery = new Range(70, 110);
+        private double criticalHigh = 130;
+        private double criticalLow = 50;
+
+        public Range rangeFor(ConditionProfile profile) {
+            return profile == ConditionProfile.POST_SURGERY ? postSurgery : adultResting;
+        }
+    }
+
+    @Data
+    public static class BloodPressure {
+        private Bands systolic = new Bands(90, 100, 140, 180);
+        private Bands diastolic = new Bands(60, 70, 90, 120);
+    }
+
+    @Data
+    public static class Temperature {
+        private double hypothermia = 35.0;
+        private double fever = 38.0;
+        private double hyperthermia = 39.5;
+    }
+
+    @Data
+    public static class RespiratoryRate {
+        private double normalMin = 12;
+        private double normalMax = 20;
+        private double criticalHigh = 30;
+    }
+
+    @Data
+    public static class Trends {
+        /**
+         * Highest rate of readings per second a patient's windows are sized for, so each holds its
+         * whole window from the start. Windows of faster patients grow to cover their window.
+         */
+        private double maxSampleRate = 2;
+        private Drop oxygenSaturationDrop = new Drop(Duration.ofMinutes(5), 4);
+        private Sustained heartRateSustained = new Sustained(Duration.ofMinutes(2), 110);
+    }
+
+    @Data
+    public static class EarlyWarning {
+        private boolean enabled = true;
+        /** Aggregate score raising a WARNING alert (NEWS2 medium risk). */
+        private int warningScore = 5;
+        /** Aggregate score raising a CRITICAL alert (NEWS2 high risk). */
+        private int criticalScore = 7;
+        /** Score of a single vital raising a WARNING alert on its own (NEWS2 "red score"). */
+        private int singleParameterScore = 3;
+    }
+
+    @Data
+    public static class Drop {
+        private Duration window;
+        private double drop;
+
+        public Drop() {
+        }
+
+        public Drop(Duration window, double drop) {
+            this.window = window;
+            this.drop = drop;
+        }
+    }
+
+    @Data
+    public static class Sustained {
+        private Duration window;
+        private double above;
+
+        public Sustained() {
+        }
+
+        public Sustained(Duration window, double above) {
+            this.window = window;
+            this.above = above;
+        }
+    }
+
+    @Data
+    public static class Range {
+        private double min;
+        private double max;
+
+        public Range() {
+        }
+
+        public Range(double min, double max) {
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    @Data
+    public static class Bands {
+        private double criticalLow;
+        private double warningLow;
+        private double warningHigh;
+        private double criticalHigh;
+
+        public Bands() {
+        }
+
+        public Bands(double criticalLow, double warningLow, double warningHigh, double criticalHigh) {
+            this.criticalLow = criticalLow;
+            this.warningLow = warningLow;
+            this.warningHigh = warningHigh;
+            this.criticalHigh = criticalHigh;
+        }
+    }
+}
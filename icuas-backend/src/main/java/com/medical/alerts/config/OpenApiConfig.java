@@ -38,7 +38,8 @@ public class OpenApiConfig {
                             - **Smart Alerts**: Automated medical rule evaluation
                             - **Multi-level Severity**: CRITICAL, WARNING, INFO alerts
                             - **Kafka Integration**: IoT data stream processing
-                            - **WebSocket Support**: Real-time dashboard updates
+                            - **WebSocket Support**: Real-time dashboard updates over STOMP at `/ws`
+                              (`/topic/alerts`, `/topic/wards/{ward}/...`, `/topic/patients/{patientId}/...`)
                             
                             ### Medical Rules:
                             - Oxygen Saturation: Critical < 92%, Warning < 94%
@@ -0,0 +1,48 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Dashboard push settings, bound from {@code medical.push.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.push")
+public class PushProperties {
+
+    /**
+     * Origins allowed to open the {@code /ws} STOMP endpoint: the dashboard's, by default that of its
+     * development server. Deployments must list their dashboard origins; origin patterns such as
+     * {@code https://*.example.org} are accepted, but not an empty list.
+     */
+    private List<String> allowedOrigins = List.of("http://localhost:3000");
+
+    /**
+     * How often changed vitals snapshots are pushed; faster readings are coalesced.
+     * Also read by {@code @Scheduled}, so use ISO-8601 (e.g. PT0.5S) or milliseconds.
+     */
+    private Duration vitalsInterval = Duration.ofSeconds(1);
+
+    /** Leading characters of the room number that identify the ward (e.g. 301A -> ward 3). */
+    private int wardPrefixLength = 1;
+
+    /** Longest a single send to a client may block before the session is closed. */
+    private Duration sendTimeLimit = Duration.ofSeconds(10);
+
+    /** Data buffered for a slow client before the session is closed. */
+    private DataSize sendBufferSizeLimit = DataSize.ofKilobytes(512);
+
+    /** Client heartbeat interval, so dead dashboards are detected and unsubscribed. */
+    private Duration heartbeat = Duration.ofSeconds(10);
+
+    public String wardOf(String roomNumber) {
+        if (roomNumber == null || roomNumber.isBlank()) {
+            return "unassigned";
+        }
+        return roomNumber.length() <= wardPrefixLength ? roomNumber : roomNumber.substring(0, wardPrefixLength);
+    }
+}
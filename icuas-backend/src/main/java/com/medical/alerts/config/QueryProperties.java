@@ -0,0 +1,24 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits of the patient vitals and alert list endpoints, bound from {@code medical.query.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.query")
+public class QueryProperties {
+
+    /** Page size of the paginated lists when the client asks for none. */
+    private int defaultPageSize = 100;
+
+    /** Largest page size a client may ask for. */
+    private int maxPageSize = 1000;
+
+    /**
+     * Most rows the unpaginated list endpoints return, newest first. Longer histories are read page
+     * by page or exported.
+     */
+    private int maxListSize = 1000;
+}
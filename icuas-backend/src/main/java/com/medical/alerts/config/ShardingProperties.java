@@ -0,0 +1,24 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Per-patient shard settings, bound from {@code medical.sharding.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.sharding")
+public class ShardingProperties {
+
+    /**
+     * Number of single-threaded shards; 0 uses one per available processor. Always rounded up to
+     * a multiple of {@link #partitions}, so each shard only holds patients of one partition.
+     */
+    private int shards = 0;
+
+    /** Partition count of the patient-keyed topics ({@code vital-signs-topic}). */
+    private int partitions = 3;
+
+    /** Tasks queued per shard before submitters block (or are rejected, for the REST pipeline). */
+    private int queueCapacity = 10000;
+}
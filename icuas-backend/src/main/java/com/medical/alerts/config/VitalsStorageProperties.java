@@ -0,0 +1,51 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Partitioning, rollup and retention settings of the vital signs history, bound from
+ * {@code medical.persistence.storage.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.persistence.storage")
+public class VitalsStorageProperties {
+
+    /** Days of raw readings kept; older daily partitions are dropped. */
+    private int rawRetentionDays = 30;
+
+    /** Days of per-minute rollups kept; per-hour rollups are kept indefinitely. */
+    private int minuteRetentionDays = 180;
+
+    /** Daily partitions created ahead of today, so inserts never land in the catch-all partition. */
+    private int partitionsAhead = 3;
+
+    /** How often partitions are created and expired ones dropped. */
+    private Duration maintenanceInterval = Duration.ofHours(1);
+
+    /** How often new readings are rolled up. */
+    private Duration rollupInterval = Duration.ofMinutes(1);
+
+    /** How long after a minute ends before it is rolled up, to let buffered writes land. */
+    private Duration rollupDelay = Duration.ofMinutes(2);
+
+    /** Already rolled-up history that is rolled up again on every run, to pick up late readings. */
+    private Duration rollupLookback = Duration.ofMinutes(3);
+
+    /** Most history a single rollup run processes, so a backlog is worked off in steps. */
+    private Duration rollupMaxCatchUp = Duration.ofHours(1);
+
+    /** History ranges up to this long are read from raw readings. */
+    private Duration rawMaxRange = Duration.ofHours(6);
+
+    /** History ranges up to this long are read from per-minute rollups; longer ones per hour. */
+    private Duration minuteMaxRange = Duration.ofDays(7);
+
+    /** Points a downsampled history is reduced to when only a method is requested. */
+    private int historyDefaultPoints = 500;
+
+    /** Most points a downsampled history may be requested with. */
+    private int historyMaxPoints = 5000;
+}
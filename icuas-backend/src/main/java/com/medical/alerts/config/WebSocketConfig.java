@@ -0,0 +1,69 @@
+package com.medical.alerts.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * STOMP over WebSocket at {@code /ws} for dashboards. Topics:
+ * <ul>
+ *   <li>{@code /topic/alerts} - every alert transition</li>
+ *   <li>{@code /topic/wards/{ward}/alerts}, {@code /topic/wards/{ward}/vitals} - per ward</li>
+ *   <li>{@code /topic/patients/{patientId}/alerts}, {@code /topic/patients/{patientId}/vitals} - per patient</li>
+ * </ul>
+ * Vitals are coalesced to the display rate before sending, so a slow client only ever misses
+ * intermediate snapshots. A client that still cannot keep up within the send time and buffer
+ * limits is disconnected rather than allowed to grow server memory; it re-syncs over REST on
+ * reconnect.
+ */
+@Slf4j
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final PushProperties properties;
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    public WebSocketConfig(PushProperties properties) {
+        this.properties = properties;
+    }
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        if (properties.getAllowedOrigins() == null || properties.getAllowedOrigins().isEmpty()) {
+            throw new IllegalStateException("medical.push.allowed-origins must list the dashboard origins");
+        }
+        if (properties.getAllowedOrigins().contains("*")) {
+            log.warn("medical.push.allowed-origins allows any origin to open /ws");
+        }
+        registry.addEndpoint("/ws")
+            .setAllowedOriginPatterns(properties.getAllowedOrigins().toArray(String[]::new));
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        long heartbeat = properties.getHeartbeat().toMillis();
+        registry.enableSimpleBroker("/topic")
+            .setHeartbeatValue(new long[] {heartbeat, heartbeat})
+            .setTaskScheduler(messageBrokerTaskScheduler);
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) properties.getSendTimeLimit().toMillis())
+            .setSendBufferSizeLimit((int) properties.getSendBufferSizeLimit().toBytes());
+    }
+}
@@ -0,0 +1,40 @@
+package com.medical.alerts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for the asynchronous vital signs persistence buffer, bound from
+ * {@code medical.persistence.write-behind.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "medical.persistence.write-behind")
+public class WriteBehindProperties {
+
+    /** Maximum number of readings held in memory before producers block. */
+    private int capacity = 10000;
+
+    /** Maximum number of readings written per flush. */
+    private int batchSize = 500;
+
+    /**
+     * Failed attempts at writing a batch before its readings are written one at a time, so
+     * readings the database keeps rejecting can be dropped instead of stalling the buffer.
+     */
+    private int isolateAfterAttempts = 3;
+
+    /** Longest time a reading waits in the buffer before it is flushed. */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /** Fill ratio at which the listed Kafka listeners are paused. */
+    private double pauseThreshold = 0.8;
+
+    /** Fill ratio at which paused listeners are resumed. */
+    private double resumeThreshold = 0.5;
+
+    /** Kafka listener IDs to pause while the buffer is above the pause threshold. */
+    private List<String> pauseListeners = List.of("iotDeviceListener");
+}
@@ -1,6 +1,9 @@
 package com.medical.alerts.controller;
 
+import com.medical.alerts.config.QueryProperties;
 import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.dto.CursorPage;
+import com.medical.alerts.service.ExportService;
 import com.medical.alerts.service.MedicalAlertService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,10 +13,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/alerts")
@@ -22,6 +32,8 @@ import java.util.List;
 public class AlertController {
     
     private final MedicalAlertService alertService;
+    private final ExportService exportService;
+    private final QueryProperties queryProperties;
 
     @Operation(
         summary = "Get all alerts",
@@ -51,7 +63,8 @@ public class AlertController {
 
     @Operation(
         summary = "Get patient alerts",
-        description = "Retrieve all alerts for a specific patient"
+        description = "Retrieve the newest alerts of a specific patient, up to medical.query.max-list-size. "
+            + "Use the paginated or export endpoints for the full history."
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Successfully retrieved patient alerts"),
@@ -64,18 +77,92 @@ public class AlertController {
         return ResponseEntity.ok(alertService.getPatientAlerts(patientId));
     }
 
+    @Operation(
+        summary = "Get a page of patient alerts",
+        description = "Alerts of a patient, newest first, one page at a time. Pass the nextCursor of a page "
+            + "to get the next one; it is null on the last page."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the page"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    @GetMapping("/patient/{patientId}/page")
+    public ResponseEntity<CursorPage<MedicalAlert>> getPatientAlertsPage(
+            @Parameter(description = "Patient ID", example = "PT-001", required = true)
+            @PathVariable String patientId,
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size", example = "100")
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = limit != null ? limit : queryProperties.getDefaultPageSize();
+        if (pageSize < 1 || pageSize > queryProperties.getMaxPageSize()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(alertService.getPatientAlertsPage(patientId, cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(
+        summary = "Count patient alerts",
+        description = "Number of alerts ever raised for a patient"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully counted alerts")
+    })
+    @GetMapping("/patient/{patientId}/count")
+    public ResponseEntity<Long> getPatientAlertsCount(
+            @Parameter(description = "Patient ID", example = "PT-001", required = true)
+            @PathVariable String patientId) {
+        return ResponseEntity.ok(alertService.getPatientAlertsCount(patientId));
+    }
+
+    @Operation(
+        summary = "Export patient alerts",
+        description = "Streams the alerts of a patient triggered in a time range, oldest first, as "
+            + "newline-delimited JSON or CSV. Rows are written as they are read, for histories of any length."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Export streamed"),
+        @ApiResponse(responseCode = "400", description = "Invalid time range")
+    })
+    @GetMapping("/patient/{patientId}/export")
+    public ResponseEntity<StreamingResponseBody> exportPatientAlerts(
+            @Parameter(description = "Patient ID", example = "PT-001", required = true)
+            @PathVariable String patientId,
+            @Parameter(description = "Range start (ISO date-time), defaults to the beginning of the history")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (ISO date-time), defaults to now")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Output format")
+            @RequestParam(defaultValue = "NDJSON") ExportService.Format format) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : ExportService.HISTORY_START;
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> exportService.exportAlerts(patientId, start, end, format, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(patientId + "-alerts." + format.getExtension()).build().toString())
+            .body(body);
+    }
+
     @Operation(
         summary = "Acknowledge alert",
         description = "Mark a medical alert as acknowledged by medical staff"
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Alert acknowledged successfully"),
-        @ApiResponse(responseCode = "404", description = "Alert not found")
+        @ApiResponse(responseCode = "404", description = "Alert not found, or raised on another replica moments ago and not yet stored; retry shortly")
     })
     @PutMapping("/{alertId}/acknowledge")
     public ResponseEntity<MedicalAlert> acknowledgeAlert(
-            @Parameter(description = "Alert ID", example = "ALERT-001", required = true)
-            @PathVariable String alertId,
+            @Parameter(description = "Alert ID", example = "0192a3b4-c5d6-7e8f-9a0b-1c2d3e4f5a6b", required = true)
+            @PathVariable UUID alertId,
             @Parameter(description = "Staff member who acknowledged", example = "dr.smith", required = true)
             @RequestParam String acknowledgedBy) {
         try {
@@ -109,8 +196,8 @@ public class AlertController {
     })
     @GetMapping("/{alertId}")
     public ResponseEntity<MedicalAlert> getAlertById(
-            @Parameter(description = "Alert ID", example = "ALERT-001", required = true)
-            @PathVariable String alertId) {
+            @Parameter(description = "Alert ID", example = "0192a3b4-c5d6-7e8f-9a0b-1c2d3e4f5a6b", required = true)
+            @PathVariable UUID alertId) {
         return alertService.getAlertById(alertId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -0,0 +1,94 @@
+package com.medical.alerts.controller;
+
+import com.medical.alerts.config.KafkaConsumerProperties;
+import com.medical.alerts.model.dto.DeadLetterRecord;
+import com.medical.alerts.service.DeadLetterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dead-letters")
+@RequiredArgsConstructor
+@Tag(name = "Dead Letters", description = "Inspect and replay Kafka records that failed processing")
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+    private final KafkaConsumerProperties consumerProperties;
+
+    @Operation(
+        summary = "List dead letter topics",
+        description = "Get every dead letter topic with the number of records it holds"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved dead letter topics"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping
+    public ResponseEntity<Map<String, Long>> getTopics() {
+        return ResponseEntity.ok(deadLetterService.getTopics());
+    }
+
+    @Operation(
+        summary = "Read dead letters",
+        description = "Read the records of a dead letter topic, oldest first, with their origin and failure. "
+            + "Reading does not remove them."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved dead letters"),
+        @ApiResponse(responseCode = "400", description = "Not a dead letter topic, or invalid limit"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{topic}")
+    public ResponseEntity<List<DeadLetterRecord>> getRecords(
+            @Parameter(description = "Dead letter topic", example = "vital-signs-topic.DLT")
+            @PathVariable String topic,
+            @Parameter(description = "Partition to read; all partitions when omitted")
+            @RequestParam(required = false) Integer partition,
+            @Parameter(description = "Offset to start from within the partition; the beginning when omitted")
+            @RequestParam(required = false) Long offset,
+            @Parameter(description = "Maximum number of records; at most medical.kafka.consumer.dead-letter-max-records")
+            @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > consumerProperties.getDeadLetterMaxRecords()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(deadLetterService.getRecords(topic, partition, offset, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(
+        summary = "Replay a dead letter",
+        description = "Publish a dead letter back to the topic it came from, with its original key, value and headers"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully replayed the record"),
+        @ApiResponse(responseCode = "400", description = "Not a dead letter topic"),
+        @ApiResponse(responseCode = "404", description = "No record at this offset"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/{topic}/partitions/{partition}/offsets/{offset}/replay")
+    public ResponseEntity<DeadLetterRecord> replay(
+            @Parameter(description = "Dead letter topic", example = "vital-signs-topic.DLT")
+            @PathVariable String topic,
+            @PathVariable int partition,
+            @PathVariable long offset) {
+        try {
+            return deadLetterService.replay(topic, partition, offset)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
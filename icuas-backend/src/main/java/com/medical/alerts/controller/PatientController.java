@@ -2,6 +2,7 @@ package com.medical.alerts.controller;
 
 import com.medical.alerts.model.Patient;
 import com.medical.alerts.service.PatientService;
+import com.medical.alerts.strategy.EarlyWarningScorer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -22,6 +23,7 @@ import java.util.List;
 public class PatientController {
     
     private final PatientService patientService;
+    private final EarlyWarningScorer earlyWarningScorer;
 
     @Operation(
         summary = "Get all patients",
@@ -71,6 +73,36 @@ public class PatientController {
             .orElse(ResponseEntity.notFound().build());
     }
 
+    @Operation(
+        summary = "Get risk assessments",
+        description = "Current early warning scores of all monitored patients, highest first. "
+            + "Served from memory and updated with every reading."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved risk assessments")
+    })
+    @GetMapping("/risk")
+    public ResponseEntity<List<EarlyWarningScorer.EarlyWarningScore>> getRiskAssessments() {
+        return ResponseEntity.ok(earlyWarningScorer.getScores());
+    }
+
+    @Operation(
+        summary = "Get patient risk assessment",
+        description = "Current early warning score of a patient with the contribution of each vital"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Risk assessment found"),
+        @ApiResponse(responseCode = "404", description = "No readings scored for this patient yet")
+    })
+    @GetMapping("/{id}/risk")
+    public ResponseEntity<EarlyWarningScorer.EarlyWarningScore> getRiskAssessment(
+            @Parameter(description = "Patient ID", example = "PT-001", required = true)
+            @PathVariable String id) {
+        return earlyWarningScorer.getScore(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @Operation(
         summary = "Get patient by Medical Record Number",
         description = "Retrieve a patient using their Medical Record Number (MRN)"
@@ -1,19 +1,26 @@
 package com.medical.alerts.controller;
 
+import com.medical.alerts.config.MedicalRulesProperties;
+import com.medical.alerts.strategy.ConditionProfile;
+import com.medical.alerts.strategy.RuleTable;
+import com.medical.alerts.strategy.RuleTableCompiler;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/system")
+@RequiredArgsConstructor
 @Tag(name = "System", description = "System health and information endpoints")
 public class SystemController {
 
+    private final RuleTableCompiler ruleTableCompiler;
+
     @Operation(
         summary = "Health check",
         description = "Check if the system is running and healthy"
@@ -41,4 +48,34 @@ public class SystemController {
             "timestamp", java.time.Instant.now().toString()
         ));
     }
+
+    @Operation(
+        summary = "Get compiled medical rules",
+        description = "List the compiled threshold table of every condition profile in evaluation order"
+    )
+    @GetMapping("/rules")
+    public ResponseEntity<Map<ConditionProfile, List<RuleTable.RuleDefinition>>> getRules() {
+        return ResponseEntity.ok(ruleTableCompiler.describe());
+    }
+
+    @Operation(
+        summary = "Replace medical rule thresholds",
+        description = "Recompile the rule table from the given thresholds without restarting"
+    )
+    @PutMapping("/rules")
+    public ResponseEntity<Map<ConditionProfile, List<RuleTable.RuleDefinition>>> updateRules(
+            @RequestBody MedicalRulesProperties rules) {
+        ruleTableCompiler.reload(rules);
+        return ResponseEntity.ok(ruleTableCompiler.describe());
+    }
+
+    @Operation(
+        summary = "Reload medical rules",
+        description = "Recompile the rule table from the medical.rules configuration"
+    )
+    @PostMapping("/rules/reload")
+    public ResponseEntity<Map<ConditionProfile, List<RuleTable.RuleDefinition>>> reloadRules() {
+        ruleTableCompiler.reloadFromEnvironment();
+        return ResponseEntity.ok(ruleTableCompiler.describe());
+    }
 }
\ No newline at end of file
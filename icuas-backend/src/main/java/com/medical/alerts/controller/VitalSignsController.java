@@ -1,8 +1,17 @@
 package com.medical.alerts.controller;
 
+import com.medical.alerts.config.IngestProperties;
+import com.medical.alerts.config.QueryProperties;
+import com.medical.alerts.config.VitalsStorageProperties;
 import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.dto.CurrentVitals;
+import com.medical.alerts.model.dto.CursorPage;
 import com.medical.alerts.model.dto.VitalSignsRequest;
+import com.medical.alerts.model.dto.VitalsHistory;
+import com.medical.alerts.service.ExportService;
+import com.medical.alerts.service.LatestVitalsService;
 import com.medical.alerts.service.VitalSignsService;
+import com.medical.alerts.service.VitalsHistoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,10 +20,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/vitals")
@@ -23,15 +40,25 @@ import java.util.List;
 public class VitalSignsController {
     
     private final VitalSignsService vitalSignsService;
+    private final IngestProperties ingestProperties;
+    private final LatestVitalsService latestVitalsService;
+    private final VitalsHistoryService vitalsHistoryService;
+    private final VitalsStorageProperties storageProperties;
+    private final ExportService exportService;
+    private final QueryProperties queryProperties;
 
     @Operation(
         summary = "Submit vital signs",
-        description = "Submit new vital signs data for a patient. This will trigger medical rule evaluation."
+        description = "Submit new vital signs data for a patient. This will trigger medical rule evaluation. "
+            + "In pipeline ingest mode the reading is accepted once Kafka has durably stored it, "
+            + "and is evaluated and persisted asynchronously."
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Vital signs submitted successfully"),
+        @ApiResponse(responseCode = "202", description = "Vital signs durably accepted for processing (pipeline mode)"),
         @ApiResponse(responseCode = "400", description = "Invalid vital signs data"),
-        @ApiResponse(responseCode = "404", description = "Patient not found")
+        @ApiResponse(responseCode = "404", description = "Patient not found"),
+        @ApiResponse(responseCode = "503", description = "Ingest pipeline is full or Kafka did not accept the reading, retry later")
     })
     @PostMapping("/{patientId}")
     public ResponseEntity<PatientVitalSigns> submitVitalSigns(
@@ -44,13 +71,21 @@ public class VitalSignsController {
             )
             @RequestBody VitalSignsRequest vitalSignsRequest) {
         vitalSignsRequest.setPatientId(patientId);
+        if (ingestProperties.getMode() == IngestProperties.Mode.PIPELINE) {
+            try {
+                return ResponseEntity.accepted().body(vitalSignsService.acceptVitalSigns(vitalSignsRequest));
+            } catch (RejectedExecutionException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+        }
         PatientVitalSigns savedVitalSigns = vitalSignsService.submitVitalSigns(vitalSignsRequest);
         return ResponseEntity.ok(savedVitalSigns);
     }
 
     @Operation(
         summary = "Get patient vital signs",
-        description = "Retrieve vital signs history for a specific patient"
+        description = "Retrieve the newest vital signs of a specific patient, up to medical.query.max-list-size. "
+            + "Use the paginated, history or export endpoints for longer histories."
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Successfully retrieved vital signs"),
@@ -65,7 +100,8 @@ public class VitalSignsController {
 
     @Operation(
         summary = "Get recent vital signs",
-        description = "Retrieve recent vital signs for a patient (last 24 hours by default)"
+        description = "Retrieve recent vital signs for a patient (last 24 hours by default), newest first "
+            + "and up to medical.query.max-list-size"
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Successfully retrieved recent vital signs"),
@@ -80,6 +116,154 @@ public class VitalSignsController {
         return ResponseEntity.ok(vitalSignsService.getRecentVitalSigns(patientId, hours));
     }
 
+    @Operation(
+        summary = "Get a page of vital signs",
+        description = "Readings of a patient, newest first, one page at a time. Pass the nextCursor of a page "
+            + "to get the next one; it is null on the last page."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the page"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    @GetMapping("/patient/{patientId}/page")
+    public ResponseEntity<CursorPage<PatientVitalSigns>> getVitalSignsPage(
+            @Parameter(description = "Patient ID", example = "PT-001", required = true)
+            @PathVariable String patientId,
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size", example = "100")
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = limit != null ? limit : queryProperties.getDefaultPageSize();
+        if (pageSize < 1 || pageSize > queryProperties.getMaxPageSize()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(vitalSignsService.getVitalSignsPage(patientId, cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(
+        summary = "Count vital signs",
+        description = "Number of stored readings of a patient"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully counted readings")
+    })
+    @GetMapping("/patient/{patientId}/count")
+    public ResponseEntity<Long> getVitalSignsCount(
+            @Parameter(description = "Patient ID", example = "PT-001", required = true)
+            @PathVariable String patientId) {
+        return ResponseEntity.ok(vitalSignsService.getVitalSignsCount(patientId));
+    }
+
+    @Operation(
+        summary = "Export vital signs",
+        description = "Streams the readings of a patient in a time range, oldest first, as newline-delimited "
+            + "JSON or CSV. Rows are written as they are read, so the export runs in constant memory "
+            + "whatever the length of the range."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Export streamed"),
+        @ApiResponse(responseCode = "400", description = "Invalid time range")
+    })
+    @GetMapping("/patient/{patientId}/export")
+    public ResponseEntity<StreamingResponseBody> exportVitalSigns(
+            @Parameter(description = "Patient ID", example = "PT-001", required = true)
+            @PathVariable String patientId,
+            @Parameter(description = "Range start (ISO date-time), defaults to the beginning of the history")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (ISO date-time), defaults to now")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Output format")
+            @RequestParam(defaultValue = "NDJSON") ExportService.Format format) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : ExportService.HISTORY_START;
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> exportService.exportVitals(patientId, start, end, format, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(patientId + "-vitals." + format.getExtension()).build().toString())
+            .body(body);
+    }
+
+    @Operation(
+        summary = "Get vital signs history",
+        description = "Vitals of a patient over a time range (last 24 hours by default). Short recent ranges "
+            + "return raw readings; longer ranges return per-minute or per-hour min/max/avg buckets. "
+            + "With points or method the history is downsampled on the server to about that many points, "
+            + "as equal-width min/max/avg buckets (BUCKET) or one LTTB-selected series per vital (LTTB)."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved vital signs history"),
+        @ApiResponse(responseCode = "400", description = "Invalid time range or number of points")
+    })
+    @GetMapping("/patient/{patientId}/history")
+    public ResponseEntity<VitalsHistory> getVitalSignsHistory(
+            @Parameter(description = "Patient ID", example = "PT-001", required = true)
+            @PathVariable String patientId,
+            @Parameter(description = "Range start (ISO date-time), defaults to 24 hours before the end")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (ISO date-time), defaults to now")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Resolution to read at; chosen from the range when omitted")
+            @RequestParam(required = false) VitalsHistory.Resolution resolution,
+            @Parameter(description = "Number of points to downsample to", example = "500")
+            @RequestParam(required = false) Integer points,
+            @Parameter(description = "Downsampling method, BUCKET when only points is given")
+            @RequestParam(required = false) VitalsHistory.Downsampling method) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(24);
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (points == null && method == null) {
+            return ResponseEntity.ok(vitalsHistoryService.getHistory(patientId, start, end, resolution));
+        }
+        int target = points != null ? points : storageProperties.getHistoryDefaultPoints();
+        VitalsHistory.Downsampling downsampling = method != null ? method : VitalsHistory.Downsampling.BUCKET;
+        int minimum = downsampling == VitalsHistory.Downsampling.LTTB ? 3 : 1;
+        if (target < minimum || target > storageProperties.getHistoryMaxPoints()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(vitalsHistoryService.getDownsampledHistory(
+            patientId, start, end, resolution, target, downsampling));
+    }
+
+    @Operation(
+        summary = "Get current vitals of all patients",
+        description = "Latest vitals of every active patient, ordered by room. Served from memory; "
+            + "does not query the vital signs history."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved current vitals")
+    })
+    @GetMapping("/current")
+    public ResponseEntity<List<CurrentVitals>> getCurrentVitals() {
+        return ResponseEntity.ok(latestVitalsService.getWardOverview());
+    }
+
+    @Operation(
+        summary = "Get current vitals of a patient",
+        description = "Latest known value of each vital of a patient, served from memory"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved current vitals"),
+        @ApiResponse(responseCode = "404", description = "No readings received for this patient")
+    })
+    @GetMapping("/current/{patientId}")
+    public ResponseEntity<CurrentVitals> getPatientCurrentVitals(
+            @Parameter(description = "Patient ID", example = "PT-001", required = true)
+            @PathVariable String patientId) {
+        return latestVitalsService.getCurrentVitals(patientId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @Operation(
         summary = "Simulate IoT device data",
         description = "Simulate IoT device sending vital signs data (for testing)"
@@ -0,0 +1,55 @@
+package com.medical.alerts.kafka;
+
+import com.medical.alerts.service.PipelineMetrics;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Value deserializer of the vital signs topics: messages starting with the
+ * {@link VitalSignsWireFormat} magic byte are decoded from binary, anything else is read as JSON
+ * with the consumer's {@code spring.json.*} settings, so producers that still send JSON keep
+ * working. Time spent is recorded as the deserialize stage of {@link PipelineMetrics}.
+ */
+public class VitalSignsDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+    // Created by the Kafka client rather than Spring; Boot adds its registry to the global one
+    private final Timer timer = PipelineMetrics.stageTimer(Metrics.globalRegistry, "deserialize", "vitals");
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        long start = System.nanoTime();
+        try {
+            return VitalSignsWireFormat.isBinary(data) ? VitalSignsWireFormat.decode(data) : json.deserialize(topic, data);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        long start = System.nanoTime();
+        try {
+            return VitalSignsWireFormat.isBinary(data) ? VitalSignsWireFormat.decode(data)
+                : json.deserialize(topic, headers, data);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
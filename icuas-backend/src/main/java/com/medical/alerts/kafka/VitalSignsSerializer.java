@@ -0,0 +1,85 @@
+package com.medical.alerts.kafka;
+
+import com.medical.alerts.model.Vital;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Value serializer writing vital signs in the {@link VitalSignsWireFormat} and every other
+ * message as JSON. Byte arrays are sent as they are, for dead letters and replays of records that
+ * keep their original encoding. Encoding goes through a per-thread scratch buffer, so a message costs one
+ * allocation of its exact size.
+ * <p>
+ * {@value #WIRE_FORMAT_CONFIG} set to {@code json} sends vital signs as JSON too, for rolling
+ * upgrades while consumers that only read JSON are still running.
+ */
+public class VitalSignsSerializer implements Serializer<Object> {
+
+    /** Producer property choosing the vital signs encoding: {@code binary} (default) or {@code json}. */
+    public static final String WIRE_FORMAT_CONFIG = "medical.vitals.wire-format";
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+    private boolean binary = true;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+        Object format = configs.get(WIRE_FORMAT_CONFIG);
+        binary = format == null || !"json".equalsIgnoreCase(format.toString().trim());
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (binary && VitalSignsWireFormat.supports(data)) {
+            return encode(data);
+        }
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (binary && VitalSignsWireFormat.supports(data)) {
+            return encode(data);
+        }
+        return json.serialize(topic, headers, data);
+    }
+
+    private static byte[] encode(Object data) {
+        Scratch scratch = SCRATCH.get();
+        while (true) {
+            ByteBuffer buffer = scratch.buffer.clear();
+            try {
+                VitalSignsWireFormat.encode(data, scratch.vitals, buffer);
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            } catch (BufferOverflowException e) {
+                // Only a long patient ID gets here
+                scratch.buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    private static final class Scratch {
+        private ByteBuffer buffer = ByteBuffer.allocate(256);
+        private final BigDecimal[] vitals = new BigDecimal[Vital.COUNT];
+    }
+}
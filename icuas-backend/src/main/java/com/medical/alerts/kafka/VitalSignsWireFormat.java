@@ -0,0 +1,218 @@
+package com.medical.alerts.kafka;
+
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.Vital;
+import com.medical.alerts.model.dto.VitalSignsRequest;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of vital signs messages on {@code vital-signs-topic} and
+ * {@code iot-device-topic}:
+ * <pre>
+ *   magic 0xB5, version, kind (1 reading, 2 device data)              3 bytes
+ *   flags: bit i vital i present ({@link Vital} order), bit 6 ID, bit 7 timestamp
+ *   source ordinal                                                    2 bytes
+ *   ID                   (readings only)                             16 bytes
+ *   timestamp            epoch millis, UTC (readings only)            6 bytes
+ *   present vitals       value * 100, signed, in {@link Vital} order  3 bytes each
+ *   patient ID           length (unsigned short), UTF-8
+ * </pre>
+ * A reading of six vitals takes about 50 bytes against 290 or more as JSON. The magic byte can never start a JSON
+ * document, so a consumer tells the two apart by the first byte and still reads messages of
+ * producers that send JSON. Timestamps are kept to the millisecond and vitals to two decimals, the
+ * precision they are stored with; {@code createdAt} is not sent.
+ */
+public final class VitalSignsWireFormat {
+
+    public static final byte MAGIC = (byte) 0xB5;
+    public static final byte VERSION = 1;
+
+    private static final byte KIND_READING = 1;
+    private static final byte KIND_DEVICE_DATA = 2;
+    private static final int FLAG_ID = 1 << 6;
+    private static final int FLAG_TIMESTAMP = 1 << 7;
+    private static final int VITAL_MIN = -(1 << 23);
+    private static final int VITAL_MAX = (1 << 23) - 1;
+    private static final PatientVitalSigns.DataSource[] SOURCES = PatientVitalSigns.DataSource.values();
+
+    private VitalSignsWireFormat() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    /** Whether messages of this type have a binary encoding. */
+    public static boolean supports(Object value) {
+        return value instanceof PatientVitalSigns || value instanceof VitalSignsRequest;
+    }
+
+    /**
+     * Encodes a {@link PatientVitalSigns} or {@link VitalSignsRequest} into the buffer.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public static void encode(Object value, BigDecimal[] vitals, ByteBuffer out) {
+        if (value instanceof PatientVitalSigns reading) {
+            vitals[Vital.HEART_RATE.ordinal()] = reading.getHeartRate();
+            vitals[Vital.OXYGEN_SATURATION.ordinal()] = reading.getOxygenSaturation();
+            vitals[Vital.SYSTOLIC_BP.ordinal()] = reading.getSystolicBP();
+            vitals[Vital.DIASTOLIC_BP.ordinal()] = reading.getDiastolicBP();
+            vitals[Vital.TEMPERATURE.ordinal()] = reading.getTemperature();
+            vitals[Vital.RESPIRATORY_RATE.ordinal()] = reading.getRespiratoryRate();
+            encode(KIND_READING, reading.getPatientId(), reading.getSource(), reading.getId(), reading.getTimestamp(),
+                vitals, out);
+        } else if (value instanceof VitalSignsRequest request) {
+            vitals[Vital.HEART_RATE.ordinal()] = request.getHeartRate();
+            vitals[Vital.OXYGEN_SATURATION.ordinal()] = request.getOxygenSaturation();
+            vitals[Vital.SYSTOLIC_BP.ordinal()] = request.getSystolicBP();
+            vitals[Vital.DIASTOLIC_BP.ordinal()] = request.getDiastolicBP();
+            vitals[Vital.TEMPERATURE.ordinal()] = request.getTemperature();
+            vitals[Vital.RESPIRATORY_RATE.ordinal()] = request.getRespiratoryRate();
+            encode(KIND_DEVICE_DATA, request.getPatientId(), request.getSource(), null, null, vitals, out);
+        } else {
+            throw new SerializationException("No binary encoding for " + value.getClass().getName());
+        }
+    }
+
+    private static void encode(byte kind, String patientId, PatientVitalSigns.DataSource source, UUID id,
+                               LocalDateTime timestamp, BigDecimal[] vitals, ByteBuffer out) {
+        int flags = 0;
+        for (int i = 0; i < Vital.COUNT; i++) {
+            if (vitals[i] != null) {
+                flags |= 1 << i;
+            }
+        }
+        if (id != null) {
+            flags |= FLAG_ID;
+        }
+        if (timestamp != null) {
+            flags |= FLAG_TIMESTAMP;
+        }
+        out.put(MAGIC).put(VERSION).put(kind).put((byte) flags)
+            .put((byte) (source == null ? PatientVitalSigns.DataSource.MONITOR : source).ordinal());
+        if (id != null) {
+            out.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        }
+        if (timestamp != null) {
+            long millis = timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+            out.putShort((short) (millis >> 32)).putInt((int) millis);
+        }
+        for (BigDecimal vital : vitals) {
+            if (vital != null) {
+                int scaled = scaled(vital);
+                out.put((byte) (scaled >> 16)).putShort((short) scaled);
+            }
+        }
+        byte[] patient = patientId == null ? new byte[0] : patientId.getBytes(StandardCharsets.UTF_8);
+        if (patient.length > 0xFFFF) {
+            throw new SerializationException("Patient ID too long: " + patient.length + " bytes");
+        }
+        out.putShort((short) patient.length).put(patient);
+    }
+
+    private static int scaled(BigDecimal value) {
+        try {
+            int scaled = value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+            if (scaled >= VITAL_MIN && scaled <= VITAL_MAX) {
+                return scaled;
+            }
+        } catch (ArithmeticException e) {
+            // Falls through to the range error
+        }
+        throw new SerializationException("Vital sign out of range: " + value);
+    }
+
+    /**
+     * Decodes a message written by {@link #encode}: a {@link PatientVitalSigns} for a reading, a
+     * {@link VitalSignsRequest} for device data.
+     */
+    public static Object decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            if (in.get() != MAGIC) {
+                throw new SerializationException("Not a binary vital signs message");
+            }
+            byte version = in.get();
+            if (version != VERSION) {
+                throw new SerializationException("Unsupported vital signs wire format version " + version);
+            }
+            byte kind = in.get();
+            int flags = in.get() & 0xFF;
+            int source = in.get();
+            if (source < 0 || source >= SOURCES.length) {
+                throw new SerializationException("Unknown data source " + source);
+            }
+            return switch (kind) {
+                case KIND_READING -> decodeReading(in, flags, SOURCES[source]);
+                case KIND_DEVICE_DATA -> decodeDeviceData(in, flags, SOURCES[source]);
+                default -> throw new SerializationException("Unknown vital signs message kind " + kind);
+            };
+        } catch (BufferUnderflowException e) {
+            throw new SerializationException("Truncated vital signs message of " + data.length + " bytes", e);
+        }
+    }
+
+    private static PatientVitalSigns decodeReading(ByteBuffer in, int flags, PatientVitalSigns.DataSource source) {
+        PatientVitalSigns reading = new PatientVitalSigns();
+        reading.setId((flags & FLAG_ID) != 0 ? new UUID(in.getLong(), in.getLong()) : null);
+        if ((flags & FLAG_TIMESTAMP) != 0) {
+            long millis = ((long) in.getShort() << 32) | (in.getInt() & 0xFFFFFFFFL);
+            reading.setTimestamp(LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC));
+        }
+        reading.setHeartRate(vital(in, flags, Vital.HEART_RATE));
+        reading.setOxygenSaturation(vital(in, flags, Vital.OXYGEN_SATURATION));
+        reading.setSystolicBP(vital(in, flags, Vital.SYSTOLIC_BP));
+        reading.setDiastolicBP(vital(in, flags, Vital.DIASTOLIC_BP));
+        reading.setTemperature(vital(in, flags, Vital.TEMPERATURE));
+        reading.setRespiratoryRate(vital(in, flags, Vital.RESPIRATORY_RATE));
+        reading.setSource(source);
+        reading.setPatientId(patientId(in));
+        return reading;
+    }
+
+    private static VitalSignsRequest decodeDeviceData(ByteBuffer in, int flags, PatientVitalSigns.DataSource source) {
+        VitalSignsRequest request = new VitalSignsRequest();
+        request.setHeartRate(vital(in, flags, Vital.HEART_RATE));
+        request.setOxygenSaturation(vital(in, flags, Vital.OXYGEN_SATURATION));
+        request.setSystolicBP(vital(in, flags, Vital.SYSTOLIC_BP));
+        request.setDiastolicBP(vital(in, flags, Vital.DIASTOLIC_BP));
+        request.setTemperature(vital(in, flags, Vital.TEMPERATURE));
+        request.setRespiratoryRate(vital(in, flags, Vital.RESPIRATORY_RATE));
+        request.setSource(source);
+        request.setPatientId(patientId(in));
+        return request;
+    }
+
+    // Present vitals follow in Vital order, so they must be read in that order
+    private static BigDecimal vital(ByteBuffer in, int flags, Vital vital) {
+        if ((flags & (1 << vital.ordinal())) == 0) {
+            return null;
+        }
+        int scaled = (in.get() << 16) | (in.getShort() & 0xFFFF);
+        return BigDecimal.valueOf(scaled, 2);
+    }
+
+    private static String patientId(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        if (length == 0) {
+            return null;
+        }
+        if (in.remaining() < length) {
+            throw new BufferUnderflowException();
+        }
+        String patientId = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return patientId;
+    }
+}
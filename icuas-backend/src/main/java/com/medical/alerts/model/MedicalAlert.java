@@ -1,17 +1,26 @@
 package com.medical.alerts.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.medical.alerts.util.UuidV7;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
 @Entity
 @Table(name = "medical_alerts")
-public class MedicalAlert {
+public class MedicalAlert implements Persistable<UUID> {
     
+    // Time-ordered UUIDv7 stored as BINARY(16), so inserts append to the clustered index
     @Id
-    private String id = UUID.randomUUID().toString();
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private UUID id = UuidV7.next();
     
     @Column(name = "patient_id", nullable = false)
     private String patientId;
@@ -48,6 +57,47 @@ public class MedicalAlert {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    // IDs are assigned up front, so tell Spring Data when to persist instead of merge;
+    // merging would issue a SELECT per alert and defeat JDBC insert batching
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private boolean newEntity = true;
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
+    /**
+     * A copy of the current state, for persisting and publishing away from the patient's shard
+     * while the shard goes on changing this alert.
+     */
+    public MedicalAlert snapshot() {
+        MedicalAlert copy = new MedicalAlert();
+        copy.id = id;
+        copy.patientId = patientId;
+        copy.severity = severity;
+        copy.alertType = alertType;
+        copy.messageKey = messageKey;
+        copy.triggeredAt = triggeredAt;
+        copy.acknowledgedAt = acknowledgedAt;
+        copy.acknowledgedBy = acknowledgedBy;
+        copy.status = status;
+        copy.requiresAcknowledgment = requiresAcknowledgment;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.newEntity = newEntity;
+        return copy;
+    }
+    
     public enum AlertSeverity {
         CRITICAL, WARNING, INFO
     }
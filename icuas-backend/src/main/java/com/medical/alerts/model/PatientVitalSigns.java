@@ -1,7 +1,13 @@
 package com.medical.alerts.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.medical.alerts.util.UuidV7;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -9,10 +15,13 @@ import java.util.UUID;
 @Data
 @Entity
 @Table(name = "patient_vital_signs")
-public class PatientVitalSigns {
+public class PatientVitalSigns implements Persistable<UUID> {
     
+    // Time-ordered UUIDv7 stored as BINARY(16), so inserts append to the clustered index
     @Id
-    private String id = UUID.randomUUID().toString();
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private UUID id = UuidV7.next();
     
     @Column(name = "patient_id", nullable = false)
     private String patientId;
@@ -45,6 +54,24 @@ public class PatientVitalSigns {
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
     
+    // Assigned IDs: persist rather than merge so batched inserts are not preceded by SELECTs
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private boolean newEntity = true;
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+    
     public enum DataSource {
         MANUAL, MONITOR, IOT_DEVICE
     }
@@ -0,0 +1,23 @@
+package com.medical.alerts.model;
+
+public enum Vital {
+    HEART_RATE("heart_rate"),
+    OXYGEN_SATURATION("oxygen_saturation"),
+    SYSTOLIC_BP("systolic_bp"),
+    DIASTOLIC_BP("diastolic_bp"),
+    TEMPERATURE("temperature"),
+    RESPIRATORY_RATE("respiratory_rate");
+
+    public static final int COUNT = values().length;
+
+    private final String column;
+
+    Vital(String column) {
+        this.column = column;
+    }
+
+    /** Column of this vital in {@code patient_vital_signs}, and the prefix of its rollup columns. */
+    public String getColumn() {
+        return column;
+    }
+}
@@ -3,10 +3,11 @@ package com.medical.alerts.model.dto;
 import com.medical.alerts.model.MedicalAlert;
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 public class AlertResponse {
-    private String id;
+    private UUID id;
     private String patientId;
     private MedicalAlert.AlertSeverity severity;
     private String alertType;
@@ -0,0 +1,26 @@
+package com.medical.alerts.model.dto;
+
+import com.medical.alerts.model.PatientVitalSigns;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Latest known value of each vital of a patient. Values may come from different readings when
+ * devices report partial readings; {@code timestamp} is the time of the newest one.
+ */
+@Data
+public class CurrentVitals {
+    private String patientId;
+    private String roomNumber;
+    private String conditionType;
+    private BigDecimal heartRate;
+    private BigDecimal oxygenSaturation;
+    private BigDecimal systolicBP;
+    private BigDecimal diastolicBP;
+    private BigDecimal temperature;
+    private BigDecimal respiratoryRate;
+    private PatientVitalSigns.DataSource source;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,30 @@
+package com.medical.alerts.model.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A record of a dead letter topic, with where it came from and why it failed.
+ * {@code value} is the decoded message when it could be read, and the raw bytes as Base64
+ * otherwise; {@code valueFormat} says which.
+ */
+@Data
+public class DeadLetterRecord {
+    private String topic;
+    private int partition;
+    private long offset;
+    private LocalDateTime timestamp;
+    private String key;
+    private String originalTopic;
+    private Integer originalPartition;
+    private Long originalOffset;
+    private String exceptionClass;
+    private String exceptionMessage;
+    private ValueFormat valueFormat;
+    private Object value;
+
+    public enum ValueFormat {
+        JSON, VITALS_BINARY, TEXT, BASE64
+    }
+}
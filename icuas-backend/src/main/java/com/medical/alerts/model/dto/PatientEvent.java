@@ -0,0 +1,29 @@
+package com.medical.alerts.model.dto;
+
+import com.medical.alerts.model.Patient;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class PatientEvent {
+    private EventType eventType;
+    private String patientId;
+    private String conditionType;
+    private String roomNumber;
+    private Patient.PatientStatus status;
+    private LocalDateTime timestamp = LocalDateTime.now();
+    
+    public static PatientEvent of(EventType eventType, Patient patient) {
+        PatientEvent event = new PatientEvent();
+        event.setEventType(eventType);
+        event.setPatientId(patient.getId());
+        event.setConditionType(patient.getConditionType());
+        event.setRoomNumber(patient.getRoomNumber());
+        event.setStatus(patient.getStatus());
+        return event;
+    }
+    
+    public enum EventType {
+        ADMITTED, UPDATED, DISCHARGED, TRANSFERRED, DELETED
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.medical.alerts.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One point of a downsampled vital series: a raw value, or the average of a rollup bucket.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalSample {
+    private LocalDateTime timestamp;
+    private double value;
+}
@@ -0,0 +1,17 @@
+package com.medical.alerts.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregate of one vital over a history bucket. For raw readings min, max and avg are the value.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalStats {
+    private Double min;
+    private Double max;
+    private Double avg;
+}
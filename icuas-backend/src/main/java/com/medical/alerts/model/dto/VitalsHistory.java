@@ -0,0 +1,41 @@
+package com.medical.alerts.model.dto;
+
+import com.medical.alerts.model.Vital;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vitals of a patient over a time range, at the resolution the range was read at. Downsampled
+ * histories have either {@code points} of {@code bucketSeconds} each ({@link Downsampling#BUCKET})
+ * or one {@code series} per vital ({@link Downsampling#LTTB}).
+ */
+@Data
+public class VitalsHistory {
+    private String patientId;
+    private Resolution resolution;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Downsampling downsampling;
+    private Long bucketSeconds;
+    private List<VitalsHistoryPoint> points;
+    private Map<Vital, List<VitalSample>> series;
+
+    public enum Resolution {
+        /** Individual readings from {@code patient_vital_signs}. */
+        RAW,
+        /** Per-minute rollups from {@code patient_vital_signs_1m}. */
+        MINUTE,
+        /** Per-hour rollups from {@code patient_vital_signs_1h}. */
+        HOUR
+    }
+
+    public enum Downsampling {
+        /** Equal-width time buckets with min, max and average of each vital. */
+        BUCKET,
+        /** Largest-Triangle-Three-Buckets: per vital, the samples that best keep the shape of the line. */
+        LTTB
+    }
+}
@@ -0,0 +1,21 @@
+package com.medical.alerts.model.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One point of a vitals history: a raw reading, or a per-minute, per-hour or downsampled bucket
+ * starting at {@code timestamp}. Vitals without samples in the bucket are {@code null}.
+ */
+@Data
+public class VitalsHistoryPoint {
+    private LocalDateTime timestamp;
+    private int sampleCount;
+    private VitalStats heartRate;
+    private VitalStats oxygenSaturation;
+    private VitalStats systolicBP;
+    private VitalStats diastolicBP;
+    private VitalStats temperature;
+    private VitalStats respiratoryRate;
+}
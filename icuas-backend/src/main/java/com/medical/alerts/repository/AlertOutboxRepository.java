@@ -0,0 +1,62 @@
+package com.medical.alerts.repository;
+
+import com.medical.alerts.model.MedicalAlert;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes alert transitions for the alert outbox as upserts: the row is inserted with the state of
+ * the transition, or updated to it if it exists. Writing a transition twice, or after another
+ * writer (a retried partial batch, the previous owner of the patient, an acknowledgment) has
+ * written the alert, therefore never fails on the primary key, and the outbox does not need to
+ * know whether the alert was written before.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AlertOutboxRepository {
+
+    // The identity of an alert (patient, type, trigger time, creation) never changes
+    private static final String UPSERT = "INSERT INTO medical_alerts (id, patient_id, severity, alert_type, "
+        + "message_key, triggered_at, acknowledged_at, acknowledged_by, status, requires_acknowledgment, "
+        + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+        + "severity = VALUES(severity), message_key = VALUES(message_key), "
+        + "acknowledged_at = VALUES(acknowledged_at), acknowledged_by = VALUES(acknowledged_by), "
+        + "status = VALUES(status), requires_acknowledgment = VALUES(requires_acknowledgment), "
+        + "updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Writes the alerts in one JDBC batch; rows written before a failure stay written. */
+    public void upsertAll(List<MedicalAlert> alerts) {
+        jdbcTemplate.batchUpdate(UPSERT, alerts, alerts.size(), (statement, alert) -> {
+            statement.setBytes(1, toBytes(alert.getId()));
+            statement.setString(2, alert.getPatientId());
+            statement.setString(3, alert.getSeverity() == null ? null : alert.getSeverity().name());
+            statement.setString(4, alert.getAlertType());
+            statement.setString(5, alert.getMessageKey());
+            statement.setTimestamp(6, toTimestamp(alert.getTriggeredAt()));
+            statement.setTimestamp(7, toTimestamp(alert.getAcknowledgedAt()));
+            statement.setString(8, alert.getAcknowledgedBy());
+            statement.setString(9, alert.getStatus() == null ? null : alert.getStatus().name());
+            statement.setBoolean(10, alert.isRequiresAcknowledgment());
+            statement.setTimestamp(11, toTimestamp(alert.getCreatedAt()));
+            statement.setTimestamp(12, toTimestamp(alert.getUpdatedAt()));
+        });
+    }
+
+    // Same layout as the BINARY(16) IDs Hibernate writes
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time == null ? null : Timestamp.valueOf(time);
+    }
+}
@@ -0,0 +1,52 @@
+package com.medical.alerts.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Forward-only cursors over the vitals and alert history of a patient, for exports that may cover
+ * years of readings. Rows are handed to the callback one at a time as the driver streams them, so
+ * memory use does not depend on the size of the result. Column labels are the field names of the
+ * REST entities. Only readings still in the database are streamed; archived days are read from the
+ * {@link com.medical.alerts.archive.VitalsArchive}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExportRepository {
+
+    private static final String VITALS = "SELECT BIN_TO_UUID(id) AS id, patient_id AS patientId, "
+        + "heart_rate AS heartRate, oxygen_saturation AS oxygenSaturation, systolic_bp AS systolicBP, "
+        + "diastolic_bp AS diastolicBP, temperature, respiratory_rate AS respiratoryRate, source, timestamp "
+        + "FROM patient_vital_signs WHERE patient_id = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp";
+
+    /** Column labels of the rows of {@link #streamVitals}, in order. */
+    public static final String[] VITALS_LABELS = {"id", "patientId", "heartRate", "oxygenSaturation",
+        "systolicBP", "diastolicBP", "temperature", "respiratoryRate", "source", "timestamp"};
+
+    private static final String ALERTS = "SELECT BIN_TO_UUID(id) AS id, patient_id AS patientId, severity, "
+        + "alert_type AS alertType, message_key AS messageKey, status, triggered_at AS triggeredAt, "
+        + "acknowledged_at AS acknowledgedAt, acknowledged_by AS acknowledgedBy, "
+        + "requires_acknowledgment AS requiresAcknowledgment, updated_at AS updatedAt "
+        + "FROM medical_alerts WHERE patient_id = ? AND triggered_at >= ? AND triggered_at < ? ORDER BY triggered_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Streams the readings of a patient in {@code [from, to)}, oldest first. */
+    public void streamVitals(String patientId, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        stream(VITALS, patientId, from, to, handler);
+    }
+
+    /** Streams the alerts of a patient triggered in {@code [from, to)}, oldest first. */
+    public void streamAlerts(String patientId, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        stream(ALERTS, patientId, from, to, handler);
+    }
+
+    private void stream(String sql, String patientId, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        jdbcTemplate.query(StreamingQuery.of(sql, patientId, Timestamp.valueOf(from), Timestamp.valueOf(to)), handler);
+    }
+}
@@ -1,18 +1,37 @@
 package com.medical.alerts.repository;
 
 import com.medical.alerts.model.MedicalAlert;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @Repository
-public interface MedicalAlertRepository extends JpaRepository<MedicalAlert, String> {
+public interface MedicalAlertRepository extends JpaRepository<MedicalAlert, UUID> {
     
-    List<MedicalAlert> findByPatientId(String patientId);
+    List<MedicalAlert> findByPatientIdOrderByTriggeredAtDesc(String patientId, Pageable pageable);
+    
+    long countByPatientId(String patientId);
+    
+    // Keyset pagination, newest first; the ID breaks ties between alerts triggered at the same time
+    @Query("SELECT a FROM MedicalAlert a WHERE a.patientId = :patientId ORDER BY a.triggeredAt DESC, a.id DESC")
+    List<MedicalAlert> findFirstPage(@Param("patientId") String patientId, Pageable pageable);
+    
+    @Query("SELECT a FROM MedicalAlert a WHERE a.patientId = :patientId"
+        + " AND (a.triggeredAt < :triggeredAt OR (a.triggeredAt = :triggeredAt AND a.id < :id))"
+        + " ORDER BY a.triggeredAt DESC, a.id DESC")
+    List<MedicalAlert> findPageAfter(@Param("patientId") String patientId, @Param("triggeredAt") LocalDateTime triggeredAt,
+                                     @Param("id") UUID id, Pageable pageable);
     
     List<MedicalAlert> findByStatus(MedicalAlert.AlertStatus status);
     
+    List<MedicalAlert> findByStatusIn(Collection<MedicalAlert.AlertStatus> statuses);
+    
     @Query("SELECT a FROM MedicalAlert a WHERE a.status = 'ACTIVE' ORDER BY a.triggeredAt DESC")
     List<MedicalAlert> findActiveAlerts();
     
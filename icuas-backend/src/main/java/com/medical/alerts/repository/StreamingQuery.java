@@ -0,0 +1,28 @@
+package com.medical.alerts.repository;
+
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Statements whose rows are streamed from the server as the callback consumes them, rather than
+ * read into memory first, for queries over histories of any length.
+ */
+final class StreamingQuery {
+
+    private StreamingQuery() {
+    }
+
+    static PreparedStatementCreator of(String sql, Object... args) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams rows one at a time for a forward-only statement with this fetch size
+            statement.setFetchSize(Integer.MIN_VALUE);
+            new ArgumentPreparedStatementSetter(args).setValues(statement);
+            return statement;
+        };
+    }
+}
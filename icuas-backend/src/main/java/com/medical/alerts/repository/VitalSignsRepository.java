@@ -9,15 +9,27 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @Repository
-public interface VitalSignsRepository extends JpaRepository<PatientVitalSigns, String> {
+public interface VitalSignsRepository extends JpaRepository<PatientVitalSigns, UUID> {
     
-    List<PatientVitalSigns> findByPatientIdOrderByTimestampDesc(String patientId);
+    long countByPatientId(String patientId);
     
     @Query("SELECT v FROM PatientVitalSigns v WHERE v.patientId = :patientId AND v.timestamp >= :since ORDER BY v.timestamp DESC")
-    List<PatientVitalSigns> findRecentVitalSigns(String patientId, LocalDateTime since);
+    List<PatientVitalSigns> findRecentVitalSigns(@Param("patientId") String patientId, @Param("since") LocalDateTime since,
+                                                 Pageable pageable);
     
     @Query("SELECT v FROM PatientVitalSigns v WHERE v.patientId = :patientId ORDER BY v.timestamp DESC")
     List<PatientVitalSigns> findLatestVitalSigns(@Param("patientId") String patientId, Pageable pageable);
+    
+    // Keyset pagination, newest first; the ID breaks ties between readings with the same timestamp
+    @Query("SELECT v FROM PatientVitalSigns v WHERE v.patientId = :patientId ORDER BY v.timestamp DESC, v.id DESC")
+    List<PatientVitalSigns> findFirstPage(@Param("patientId") String patientId, Pageable pageable);
+    
+    @Query("SELECT v FROM PatientVitalSigns v WHERE v.patientId = :patientId"
+        + " AND (v.timestamp < :timestamp OR (v.timestamp = :timestamp AND v.id < :id))"
+        + " ORDER BY v.timestamp DESC, v.id DESC")
+    List<PatientVitalSigns> findPageAfter(@Param("patientId") String patientId, @Param("timestamp") LocalDateTime timestamp,
+                                          @Param("id") UUID id, Pageable pageable);
 }
\ No newline at end of file
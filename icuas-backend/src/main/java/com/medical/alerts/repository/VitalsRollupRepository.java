@@ -0,0 +1,358 @@
+package com.medical.alerts.repository;
+
+import com.medical.alerts.model.Vital;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Native access to the time-partitioned vitals storage: the per-minute and per-hour rollup tables,
+ * their watermarks and the partitions of the partitioned tables. Rollup rows keep min, max, sum and
+ * count per vital, so coarser buckets and averages combine exactly.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VitalsRollupRepository {
+
+    public static final String RAW_TABLE = "patient_vital_signs";
+    public static final String MINUTE_TABLE = "patient_vital_signs_1m";
+    public static final String HOUR_TABLE = "patient_vital_signs_1h";
+
+    private static final String AGGREGATE_RAW = aggregate(RAW_TABLE, "timestamp", 60, false);
+    private static final String AGGREGATE_MINUTES = aggregate(MINUTE_TABLE, "bucket_start", 3600, true);
+    private static final String ROLL_UP_MINUTES = upsert(MINUTE_TABLE, AGGREGATE_RAW);
+    private static final String ROLL_UP_HOURS = upsert(HOUR_TABLE, AGGREGATE_MINUTES);
+    private static final String STREAM_READINGS = readings();
+    private static final String STREAM_ARCHIVE = archive();
+    private static final RowMapper<Bucket> BUCKET_MAPPER = (rs, rowNum) -> Bucket.map(rs);
+    private static final Vital[] VITALS = Vital.values();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Runs the work on one connection while holding a MySQL named lock, so only one replica
+     * maintains the storage at a time. Statements auto-commit with READ COMMITTED, so rolling up
+     * reads the raw table without locking rows that are being inserted.
+     *
+     * @return the result of the work, or empty if another session holds the lock
+     */
+    public <T> Optional<T> withLock(String lockName, Function<JdbcTemplate, T> work) {
+        return jdbcTemplate.execute((ConnectionCallback<Optional<T>>) connection -> {
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            Integer locked = session.queryForObject("SELECT GET_LOCK(?, 0)", Integer.class, lockName);
+            if (locked == null || locked != 1) {
+                return Optional.empty();
+            }
+            int isolation = connection.getTransactionIsolation();
+            try {
+                connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                return Optional.ofNullable(work.apply(session));
+            } finally {
+                connection.setTransactionIsolation(isolation);
+                session.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, lockName);
+            }
+        });
+    }
+
+    /** Rolls raw readings in {@code [from, to)} up into per-minute buckets, replacing existing ones. */
+    public int rollUpMinutes(JdbcTemplate session, LocalDateTime from, LocalDateTime to) {
+        return session.update(ROLL_UP_MINUTES, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /** Rolls per-minute buckets in {@code [from, to)} up into per-hour buckets, replacing existing ones. */
+    public int rollUpHours(JdbcTemplate session, LocalDateTime from, LocalDateTime to) {
+        return session.update(ROLL_UP_HOURS, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Time up to which the table's buckets are complete.
+     */
+    public Optional<LocalDateTime> getWatermark(String table) {
+        return jdbcTemplate.query("SELECT rolled_up_to FROM vitals_rollup_watermarks WHERE table_name = ?",
+            (rs, rowNum) -> rs.getTimestamp(1).toLocalDateTime(), table).stream().findFirst();
+    }
+
+    public void setWatermark(JdbcTemplate session, String table, LocalDateTime rolledUpTo) {
+        session.update("INSERT INTO vitals_rollup_watermarks (table_name, rolled_up_to) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE rolled_up_to = VALUES(rolled_up_to)", table, Timestamp.valueOf(rolledUpTo));
+    }
+
+    /** Oldest bucket or reading time of the table, where rolling up starts from scratch. */
+    public Optional<LocalDateTime> findEarliest(JdbcTemplate session, String table) {
+        String column = RAW_TABLE.equals(table) ? "timestamp" : "bucket_start";
+        Timestamp earliest = session.queryForObject("SELECT MIN(" + column + ") FROM " + table, Timestamp.class);
+        return Optional.ofNullable(earliest).map(Timestamp::toLocalDateTime);
+    }
+
+    /** Passes the stored buckets of a rollup table in {@code [from, to)} to the sink, oldest first. */
+    public void findBuckets(String table, String patientId, LocalDateTime from, LocalDateTime to,
+                            Consumer<Bucket> sink) {
+        jdbcTemplate.query("SELECT bucket_start AS bucket, " + columns("") + " FROM " + table
+                + " WHERE patient_id = ? AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start",
+            (RowCallbackHandler) rs -> sink.accept(Bucket.map(rs)),
+            patientId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Passes per-minute buckets of the raw readings in {@code [from, to)} that are not rolled up yet
+     * to the sink, oldest first.
+     */
+    public void aggregateRawMinutes(String patientId, LocalDateTime from, LocalDateTime to, Consumer<Bucket> sink) {
+        jdbcTemplate.query(forPatient(AGGREGATE_RAW), (RowCallbackHandler) rs -> sink.accept(Bucket.map(rs)),
+            Timestamp.valueOf(from), Timestamp.valueOf(to), patientId);
+    }
+
+    /** Per-hour buckets of per-minute rollups in {@code [from, to)} that are not rolled up yet. */
+    public List<Bucket> aggregateMinuteHours(String patientId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(forPatient(AGGREGATE_MINUTES), BUCKET_MAPPER,
+            Timestamp.valueOf(from), Timestamp.valueOf(to), patientId);
+    }
+
+    /**
+     * Streams the raw readings of a patient in {@code [from, to)} to the handler, oldest first,
+     * without materializing them as entities or buffering the result set.
+     */
+    public void streamReadings(String patientId, LocalDateTime from, LocalDateTime to, ReadingHandler handler) {
+        double[] values = new double[Vital.COUNT];
+        jdbcTemplate.query(StreamingQuery.of(STREAM_READINGS, patientId, Timestamp.valueOf(from), Timestamp.valueOf(to)),
+            (RowCallbackHandler) rs -> {
+                for (int i = 0; i < VITALS.length; i++) {
+                    double value = rs.getDouble(i + 2);
+                    values[i] = rs.wasNull() ? Double.NaN : value;
+                }
+                handler.accept(rs.getTimestamp(1).toLocalDateTime(), values);
+            });
+    }
+
+    /**
+     * Streams the raw readings of all patients in {@code [from, to)} ordered by patient and time, for
+     * archiving. Columns: patient_id, timestamp, the vitals in {@link Vital} order, source.
+     */
+    public void streamForArchive(JdbcTemplate session, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        session.query(StreamingQuery.of(STREAM_ARCHIVE, Timestamp.valueOf(from), Timestamp.valueOf(to)), handler);
+    }
+
+    /**
+     * Partitions of a table in order, or an empty list if the table is not partitioned.
+     */
+    public List<Partition> findPartitions(JdbcTemplate session, String table) {
+        return session.query("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                + "ORDER BY PARTITION_ORDINAL_POSITION",
+            (rs, rowNum) -> {
+                String description = rs.getString(2);
+                long upperBound = "MAXVALUE".equals(description) ? Long.MAX_VALUE : Long.parseLong(description);
+                return new Partition(rs.getString(1), upperBound);
+            }, table);
+    }
+
+    /**
+     * Adds partitions below the catch-all {@code MAXVALUE} partition, which must still be empty
+     * for this to be cheap.
+     */
+    public void addPartitions(JdbcTemplate session, String table, String catchAll, List<Partition> partitions) {
+        StringBuilder sql = new StringBuilder("ALTER TABLE ").append(table)
+            .append(" REORGANIZE PARTITION ").append(catchAll).append(" INTO (");
+        for (Partition partition : partitions) {
+            sql.append("PARTITION ").append(partition.name())
+                .append(" VALUES LESS THAN (").append(partition.upperBound()).append("), ");
+        }
+        sql.append("PARTITION ").append(catchAll).append(" VALUES LESS THAN MAXVALUE)");
+        session.execute(sql.toString());
+    }
+
+    public void dropPartitions(JdbcTemplate session, String table, List<String> partitionNames) {
+        session.execute("ALTER TABLE " + table + " DROP PARTITION " + String.join(", ", partitionNames));
+    }
+
+    private static String aggregate(String table, String timeColumn, int bucketSeconds, boolean fromRollup) {
+        StringBuilder sql = new StringBuilder("SELECT patient_id, FROM_UNIXTIME(UNIX_TIMESTAMP(").append(timeColumn)
+            .append(") DIV ").append(bucketSeconds).append(" * ").append(bucketSeconds).append(") AS bucket, ")
+            .append(fromRollup ? "SUM(sample_count)" : "COUNT(*)").append(" AS sample_count");
+        for (Vital vital : Vital.values()) {
+            String column = vital.getColumn();
+            if (fromRollup) {
+                sql.append(", MIN(").append(column).append("_min) AS ").append(column).append("_min")
+                    .append(", MAX(").append(column).append("_max) AS ").append(column).append("_max")
+                    .append(", SUM(").append(column).append("_sum) AS ").append(column).append("_sum")
+                    .append(", SUM(").append(column).append("_count) AS ").append(column).append("_count");
+            } else {
+                sql.append(", MIN(").append(column).append(") AS ").append(column).append("_min")
+                    .append(", MAX(").append(column).append(") AS ").append(column).append("_max")
+                    .append(", SUM(").append(column).append(") AS ").append(column).append("_sum")
+                    .append(", COUNT(").append(column).append(") AS ").append(column).append("_count");
+            }
+        }
+        return sql.append(" FROM ").append(table)
+            .append(" WHERE ").append(timeColumn).append(" >= ? AND ").append(timeColumn).append(" < ?")
+            .append(" GROUP BY patient_id, bucket")
+            .toString();
+    }
+
+    private static String archive() {
+        StringBuilder sql = new StringBuilder("SELECT patient_id, timestamp");
+        for (Vital vital : Vital.values()) {
+            sql.append(", ").append(vital.getColumn());
+        }
+        return sql.append(", source FROM ").append(RAW_TABLE)
+            .append(" WHERE timestamp >= ? AND timestamp < ? ORDER BY patient_id, timestamp")
+            .toString();
+    }
+
+    private static String readings() {
+        StringBuilder sql = new StringBuilder("SELECT timestamp");
+        for (Vital vital : Vital.values()) {
+            sql.append(", ").append(vital.getColumn());
+        }
+        return sql.append(" FROM ").append(RAW_TABLE)
+            .append(" WHERE patient_id = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp")
+            .toString();
+    }
+
+    private static String forPatient(String aggregate) {
+        return aggregate.replace(" GROUP BY", " AND patient_id = ? GROUP BY") + " ORDER BY bucket";
+    }
+
+    // Derived table, as ON DUPLICATE KEY UPDATE cannot refer to a grouped SELECT directly
+    private static String upsert(String table, String aggregate) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+            .append(" (patient_id, bucket_start, ").append(columns("")).append(") SELECT patient_id, bucket, ")
+            .append(columns("r.")).append(" FROM (").append(aggregate).append(") AS r ON DUPLICATE KEY UPDATE ")
+            .append("sample_count = r.sample_count");
+        for (Vital vital : Vital.values()) {
+            for (String suffix : List.of("_min", "_max", "_sum", "_count")) {
+                String column = vital.getColumn() + suffix;
+                sql.append(", ").append(column).append(" = r.").append(column);
+            }
+        }
+        return sql.toString();
+    }
+
+    private static String columns(String qualifier) {
+        StringBuilder columns = new StringBuilder(qualifier).append("sample_count");
+        for (Vital vital : Vital.values()) {
+            for (String suffix : List.of("_min", "_max", "_sum", "_count")) {
+                columns.append(", ").append(qualifier).append(vital.getColumn()).append(suffix);
+            }
+        }
+        return columns.toString();
+    }
+
+    public record Partition(String name, long upperBound) {
+    }
+
+    /**
+     * Receives raw readings. Values are indexed by {@link Vital#ordinal()}, NaN where not measured;
+     * the array is reused for the next reading.
+     */
+    @FunctionalInterface
+    public interface ReadingHandler {
+        void accept(LocalDateTime timestamp, double[] values);
+    }
+
+    /**
+     * Aggregated vitals of one bucket. Array slots are indexed by {@link Vital#ordinal()}; a vital
+     * without samples has a count of zero and NaN min, max and sum.
+     */
+    public static final class Bucket {
+
+        private final LocalDateTime start;
+        private int sampleCount;
+        private final double[] min = new double[Vital.COUNT];
+        private final double[] max = new double[Vital.COUNT];
+        private final double[] sum = new double[Vital.COUNT];
+        private final long[] count = new long[Vital.COUNT];
+
+        public Bucket(LocalDateTime start) {
+            this.start = start;
+            Arrays.fill(min, Double.NaN);
+            Arrays.fill(max, Double.NaN);
+            Arrays.fill(sum, Double.NaN);
+        }
+
+        private static Bucket map(ResultSet rs) throws SQLException {
+            Bucket bucket = new Bucket(rs.getTimestamp("bucket").toLocalDateTime());
+            bucket.sampleCount = rs.getInt("sample_count");
+            for (Vital vital : Vital.values()) {
+                int i = vital.ordinal();
+                bucket.count[i] = rs.getLong(vital.getColumn() + "_count");
+                if (bucket.count[i] > 0) {
+                    bucket.min[i] = rs.getDouble(vital.getColumn() + "_min");
+                    bucket.max[i] = rs.getDouble(vital.getColumn() + "_max");
+                    bucket.sum[i] = rs.getDouble(vital.getColumn() + "_sum");
+                }
+            }
+            return bucket;
+        }
+
+        /** Adds one raw value of a vital; NaN (not measured) is ignored. */
+        public void add(Vital vital, double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            int i = vital.ordinal();
+            min[i] = count[i] == 0 ? value : Math.min(min[i], value);
+            max[i] = count[i] == 0 ? value : Math.max(max[i], value);
+            sum[i] = count[i] == 0 ? value : sum[i] + value;
+            count[i]++;
+        }
+
+        public void addSample() {
+            sampleCount++;
+        }
+
+        /** Combines another bucket of the same time into this one. */
+        public void merge(Bucket other) {
+            sampleCount += other.sampleCount;
+            for (int i = 0; i < Vital.COUNT; i++) {
+                if (other.count[i] == 0) {
+                    continue;
+                }
+                min[i] = count[i] == 0 ? other.min[i] : Math.min(min[i], other.min[i]);
+                max[i] = count[i] == 0 ? other.max[i] : Math.max(max[i], other.max[i]);
+                sum[i] = count[i] == 0 ? other.sum[i] : sum[i] + other.sum[i];
+                count[i] += other.count[i];
+            }
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public int getSampleCount() {
+            return sampleCount;
+        }
+
+        public long count(Vital vital) {
+            return count[vital.ordinal()];
+        }
+
+        public double min(Vital vital) {
+            return min[vital.ordinal()];
+        }
+
+        public double max(Vital vital) {
+            return max[vital.ordinal()];
+        }
+
+        public double mean(Vital vital) {
+            int i = vital.ordinal();
+            return count[i] == 0 ? Double.NaN : sum[i] / count[i];
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.repository.MedicalAlertRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This instance's view of all open (active or acknowledged) alerts across the cluster. Loaded
+ * from the database at startup, then kept current from local alert transitions and the
+ * {@code medical-alerts-topic} broadcast consumer, so active alert reads never query MySQL and
+ * every replica serves the same alerts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActiveAlertView {
+
+    private final MedicalAlertRepository alertRepository;
+
+    private final Map<UUID, MedicalAlert> openAlerts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void load() {
+        alertRepository.findByStatusIn(List.of(MedicalAlert.AlertStatus.ACTIVE, MedicalAlert.AlertStatus.ACKNOWLEDGED))
+            .forEach(this::apply);
+        log.info("Loaded {} open alerts into the active alert view", openAlerts.size());
+    }
+
+    /**
+     * Applies an alert transition; updates older than the current state of the alert are ignored.
+     */
+    public void apply(MedicalAlert alert) {
+        if (alert.getStatus() == MedicalAlert.AlertStatus.RESOLVED) {
+            openAlerts.remove(alert.getId());
+            return;
+        }
+        openAlerts.merge(alert.getId(), alert, (current, update) ->
+            update.getUpdatedAt() != null && current.getUpdatedAt() != null
+                && update.getUpdatedAt().isBefore(current.getUpdatedAt()) ? current : update);
+    }
+
+    /** Alerts with status ACTIVE, newest first. */
+    public List<MedicalAlert> getActiveAlerts() {
+        return openAlerts.values().stream()
+            .filter(alert -> alert.getStatus() == MedicalAlert.AlertStatus.ACTIVE)
+            .sorted(Comparator.comparing(MedicalAlert::getTriggeredAt).reversed())
+            .toList();
+    }
+
+    public long countActiveCritical() {
+        return openAlerts.values().stream()
+            .filter(alert -> alert.getStatus() == MedicalAlert.AlertStatus.ACTIVE
+                && alert.getSeverity() == MedicalAlert.AlertSeverity.CRITICAL)
+            .count();
+    }
+}
@@ -0,0 +1,68 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.config.AlertLaneProperties;
+import com.medical.alerts.model.MedicalAlert;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Decides which alerts the evaluating shard publishes itself and which it leaves to the
+ * {@link AlertOutbox}, based on how far processing is behind: the fill ratio of the fullest patient
+ * shard queue or of the vital signs write-behind buffer, whichever is higher. Past
+ * {@code shed-info-at} INFO alerts are deferred, past {@code shed-warning-at} WARNING alerts too;
+ * CRITICAL alerts never are. Deferred alerts are published once persisted, after every pending
+ * critical alert, and only in their latest state, so the shards spend their time on evaluation.
+ * <p>
+ * The ratio is exported as {@code medical.alerts.saturation} and deferrals are counted in
+ * {@code medical.alerts.deferred} per severity.
+ */
+@Component
+public class AlertLoadShedder {
+
+    private final PatientShardExecutor shardExecutor;
+    private final VitalSignsWriteBehindBuffer writeBehindBuffer;
+    private final AlertLaneProperties properties;
+    private final Map<MedicalAlert.AlertSeverity, Counter> deferred = new EnumMap<>(MedicalAlert.AlertSeverity.class);
+
+    public AlertLoadShedder(PatientShardExecutor shardExecutor, VitalSignsWriteBehindBuffer writeBehindBuffer,
+                            AlertLaneProperties properties, MeterRegistry meterRegistry) {
+        this.shardExecutor = shardExecutor;
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.properties = properties;
+        for (MedicalAlert.AlertSeverity severity : MedicalAlert.AlertSeverity.values()) {
+            deferred.put(severity, Counter.builder("medical.alerts.deferred")
+                .description("Alert transitions published after persistence because processing was behind")
+                .tag("severity", severity.name())
+                .register(meterRegistry));
+        }
+        Gauge.builder("medical.alerts.saturation", this, AlertLoadShedder::saturation)
+            .description("Fill ratio of the fullest patient shard queue or the write-behind buffer")
+            .register(meterRegistry);
+    }
+
+    public double saturation() {
+        double writeBehind = (double) writeBehindBuffer.getPendingCount() / writeBehindBuffer.getCapacity();
+        return Math.max(shardExecutor.getBacklogRatio(), writeBehind);
+    }
+
+    /**
+     * Whether a transition of this severity should be left to the outbox to publish, given the
+     * current saturation. Counts the deferral.
+     */
+    public boolean defers(MedicalAlert.AlertSeverity severity, double saturation) {
+        boolean defer = switch (severity) {
+            case CRITICAL -> false;
+            case WARNING -> saturation >= properties.getShedWarningAt();
+            case INFO -> saturation >= properties.getShedInfoAt();
+        };
+        if (defer) {
+            deferred.get(severity).increment();
+        }
+        return defer;
+    }
+}
@@ -0,0 +1,265 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.config.AlertLaneProperties;
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.repository.AlertOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists alert transitions after they were published, so a new alert reaches dashboards and
+ * other replicas without waiting for the database. Transitions are queued as snapshots of the
+ * alert and written by a single background thread with batched saves, from one lane per severity
+ * drained most severe first: a CRITICAL transition is never written behind a backlog of routine
+ * ones.
+ * <p>
+ * A lane keeps only the latest state of each alert, so a burst of transitions of one alert costs
+ * a single write and the lanes are bounded by the number of alerts rather than of readings.
+ * Transitions whose publication the {@link AlertLoadShedder} deferred are published here once
+ * written, unless a newer transition of the alert has been queued meanwhile.
+ * <p>
+ * Transitions are written as upserts, so a transition written twice or after another writer still
+ * succeeds. Failed saves are retried and rows the database keeps rejecting are dropped, like in
+ * the vitals write-behind buffer (see {@link BatchWriter}); a dropped deferred transition is still
+ * published. Pending transitions are exported as {@code medical.alerts.outbox.pending} per severity.
+ */
+@Slf4j
+@Service
+public class AlertOutbox implements SmartLifecycle {
+
+    private final AlertOutboxRepository outboxRepository;
+    private final ActiveAlertView activeAlertView;
+    private final DashboardPushService dashboardPushService;
+    private final KafkaProducerService kafkaProducerService;
+    private final PipelineMetrics pipelineMetrics;
+    private final AlertLaneProperties properties;
+    private final BatchWriter<Pending> batchWriter;
+
+    // All guarded by this. Lanes iterate most severe first, each in queueing order.
+    private final Map<MedicalAlert.AlertSeverity, Map<UUID, Pending>> lanes = new EnumMap<>(MedicalAlert.AlertSeverity.class);
+    private final Set<UUID> inFlight = new HashSet<>();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AlertOutbox(AlertOutboxRepository outboxRepository, ActiveAlertView activeAlertView,
+                       DashboardPushService dashboardPushService, KafkaProducerService kafkaProducerService,
+                       PipelineMetrics pipelineMetrics, AlertLaneProperties properties, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.activeAlertView = activeAlertView;
+        this.dashboardPushService = dashboardPushService;
+        this.kafkaProducerService = kafkaProducerService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.properties = properties;
+        this.batchWriter = new BatchWriter<>("alert transitions", this::save, properties.getIsolateAfterAttempts(),
+            () -> running);
+        for (MedicalAlert.AlertSeverity severity : MedicalAlert.AlertSeverity.values()) {
+            Map<UUID, Pending> lane = new LinkedHashMap<>();
+            lanes.put(severity, lane);
+            Gauge.builder("medical.alerts.outbox.pending", this, outbox -> outbox.pendingCount(lane))
+                .description("Alert transitions published or deferred but not yet persisted")
+                .tag("severity", severity.name())
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Queues a transition for persistence, replacing any transition of the same alert still waiting.
+     *
+     * @param snapshot copy of the alert taken on the patient's shard (see {@link MedicalAlert#snapshot()})
+     * @param publish  whether to publish the alert once written, as the shard deferred it
+     */
+    public synchronized void add(MedicalAlert snapshot, boolean publish) {
+        // The severity may have been raised since the last transition was queued
+        for (Map<UUID, Pending> lane : lanes.values()) {
+            lane.remove(snapshot.getId());
+        }
+        lanes.get(snapshot.getSeverity()).put(snapshot.getId(), new Pending(snapshot, publish));
+        notifyAll();
+    }
+
+    /**
+     * Waits until no transition of the alert is waiting to be written, so the database holds its
+     * latest state.
+     *
+     * @return {@code false} if transitions were still pending after {@code write-wait-timeout}
+     */
+    public synchronized boolean awaitWritten(UUID alertId) {
+        long deadline = System.nanoTime() + properties.getWriteWaitTimeout().toNanos();
+        try {
+            while (isPending(alertId)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean isPending(UUID alertId) {
+        if (inFlight.contains(alertId)) {
+            return true;
+        }
+        for (Map<UUID, Pending> lane : lanes.values()) {
+            if (lane.containsKey(alertId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized int pendingCount(Map<UUID, Pending> lane) {
+        return lane.size();
+    }
+
+    private int pendingCount() {
+        int count = 0;
+        for (Map<UUID, Pending> lane : lanes.values()) {
+            count += lane.size();
+        }
+        return count;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "alert-outbox");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Alert outbox started (batch size {})", properties.getOutboxBatchSize());
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            if (pendingCount() > 0) {
+                log.error("Alert outbox stopped with {} unwritten alert transitions", pendingCount());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before and stop after the patient shards that queue transitions
+        return Integer.MAX_VALUE - 200;
+    }
+
+    private void runWriter() {
+        try {
+            List<Pending> batch;
+            while (!(batch = take(properties.getOutboxBatchSize())).isEmpty()) {
+                write(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes up to {@code max} transitions, most severe first, waiting while there are none.
+     * Returns an empty batch once stopped and drained.
+     */
+    private synchronized List<Pending> take(int max) throws InterruptedException {
+        while (running && pendingCount() == 0) {
+            wait();
+        }
+        List<Pending> batch = new ArrayList<>(Math.min(max, pendingCount()));
+        for (Map<UUID, Pending> lane : lanes.values()) {
+            Iterator<Pending> iterator = lane.values().iterator();
+            while (batch.size() < max && iterator.hasNext()) {
+                Pending pending = iterator.next();
+                iterator.remove();
+                inFlight.add(pending.snapshot().getId());
+                batch.add(pending);
+            }
+        }
+        return batch;
+    }
+
+    private void write(List<Pending> batch) throws InterruptedException {
+        batchWriter.write(batch, this::publishDeferred,
+            (pending, failure) -> {
+                log.error("Dropping alert transition the database rejected: {}", pending.snapshot(), failure);
+                pipelineMetrics.recordRejectedAlerts();
+                publishDeferred(List.of(pending));
+            },
+            this::release);
+        log.debug("Persisted {} alert transitions", batch.size());
+    }
+
+    private void save(List<Pending> batch) {
+        List<MedicalAlert> alerts = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            alerts.add(pending.snapshot());
+        }
+        long start = System.nanoTime();
+        outboxRepository.upsertAll(alerts);
+        pipelineMetrics.recordPersistAlerts(start);
+    }
+
+    private void publishDeferred(List<Pending> written) {
+        List<MedicalAlert> deferred = release(written);
+        if (!deferred.isEmpty()) {
+            long start = System.nanoTime();
+            deferred.forEach(activeAlertView::apply);
+            dashboardPushService.publishAlerts(deferred);
+            deferred.forEach(kafkaProducerService::sendMedicalAlert);
+            pipelineMetrics.recordPublishAlerts(start);
+        }
+    }
+
+    /**
+     * Marks transitions as no longer in flight and returns those deferred that are still the
+     * latest state of their alert.
+     */
+    private synchronized List<MedicalAlert> release(List<Pending> batch) {
+        List<MedicalAlert> deferred = new ArrayList<>();
+        for (Pending pending : batch) {
+            UUID id = pending.snapshot().getId();
+            inFlight.remove(id);
+            if (pending.publish() && !isPending(id)) {
+                deferred.add(pending.snapshot());
+            }
+        }
+        notifyAll();
+        return deferred;
+    }
+
+    private record Pending(MedicalAlert snapshot, boolean publish) {
+    }
+}
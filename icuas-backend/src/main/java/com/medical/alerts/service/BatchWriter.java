@@ -0,0 +1,133 @@
+package com.medical.alerts.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Writes a batch with retries for the background writers, without letting one bad row hold up
+ * the rest. A failed batch is retried with exponential backoff. When the database rejects its
+ * data, or after {@code isolateAfterAttempts} failed attempts, the rows are written one at a
+ * time. Then:
+ * <ul>
+ *   <li>a row failing with a data integrity violation (out of range value, missing column, ...)
+ *       is rejected right away;</li>
+ *   <li>a row that fails {@code isolateAfterAttempts} times while other rows of the batch are
+ *       written is rejected;</li>
+ *   <li>if no row can be written, the database is taken to be unavailable, and the batch is
+ *       retried as a whole.</li>
+ * </ul>
+ * While stopping, a batch is given up after a few attempts instead.
+ */
+@Slf4j
+final class BatchWriter<T> {
+
+    private static final long INITIAL_BACKOFF_MS = 500;
+    private static final long MAX_RETRY_BACKOFF_MS = 30000;
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    private final String description;
+    private final Consumer<List<T>> save;
+    private final int isolateAfterAttempts;
+    private final BooleanSupplier running;
+
+    /**
+     * @param description what the rows are, for log messages (e.g. "vital signs")
+     * @param save        writes rows in one transaction, throwing if any of them fails
+     */
+    BatchWriter(String description, Consumer<List<T>> save, int isolateAfterAttempts, BooleanSupplier running) {
+        this.description = description;
+        this.save = save;
+        this.isolateAfterAttempts = Math.max(1, isolateAfterAttempts);
+        this.running = running;
+    }
+
+    /**
+     * Writes the rows, blocking until each is written or rejected, or the writer stops.
+     *
+     * @param written   receives rows once written, the whole batch or one row at a time
+     * @param rejected  receives each row the database does not accept, with the failure
+     * @param abandoned receives the rows given up on while stopping
+     */
+    void write(List<T> rows, Consumer<List<T>> written, BiConsumer<T, Exception> rejected,
+               Consumer<List<T>> abandoned) throws InterruptedException {
+        List<T> remaining = rows;
+        Map<T, Integer> rowFailures = new IdentityHashMap<>();
+        long backoff = INITIAL_BACKOFF_MS;
+        int attempts = 0;
+        while (true) {
+            Exception failure = trySave(remaining);
+            if (failure == null) {
+                written.accept(remaining);
+                return;
+            }
+            attempts++;
+            if (failure instanceof DataIntegrityViolationException || attempts >= isolateAfterAttempts) {
+                remaining = writeEach(remaining, rowFailures, written, rejected);
+                if (remaining.isEmpty()) {
+                    return;
+                }
+            }
+            if (!running.getAsBoolean() && attempts >= SHUTDOWN_ATTEMPTS) {
+                log.error("Giving up on {} {} during shutdown", remaining.size(), description, failure);
+                abandoned.accept(remaining);
+                return;
+            }
+            log.error("Failed to persist {} {} (attempt {}), retrying in {} ms",
+                remaining.size(), description, attempts, backoff, failure);
+            Thread.sleep(backoff);
+            backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+        }
+    }
+
+    /** Writes rows one at a time and returns those to retry. */
+    private List<T> writeEach(List<T> rows, Map<T, Integer> rowFailures, Consumer<List<T>> written,
+                              BiConsumer<T, Exception> rejected) {
+        List<T> failed = new ArrayList<>();
+        List<Exception> failures = new ArrayList<>();
+        boolean anyWritten = false;
+        for (T row : rows) {
+            List<T> single = List.of(row);
+            Exception failure = trySave(single);
+            if (failure == null) {
+                written.accept(single);
+                anyWritten = true;
+            } else if (failure instanceof DataIntegrityViolationException) {
+                rejected.accept(row, failure);
+            } else {
+                failed.add(row);
+                failures.add(failure);
+            }
+        }
+        if (!anyWritten) {
+            return failed;
+        }
+        // The database is up, so rows that keep failing are the problem
+        List<T> retry = new ArrayList<>(failed.size());
+        for (int i = 0; i < failed.size(); i++) {
+            T row = failed.get(i);
+            if (rowFailures.merge(row, 1, Integer::sum) >= isolateAfterAttempts) {
+                rejected.accept(row, failures.get(i));
+            } else {
+                retry.add(row);
+            }
+        }
+        return retry;
+    }
+
+    private Exception trySave(List<T> rows) {
+        try {
+            save.accept(rows);
+            return null;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.config.PushProperties;
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.dto.AlertResponse;
+import com.medical.alerts.model.dto.CurrentVitals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes alert transitions and vitals snapshots to dashboards over STOMP (see
+ * {@link com.medical.alerts.config.WebSocketConfig}). Alerts are sent as soon as they are
+ * persisted; vitals are coalesced and sent once per {@code medical.push.vitals-interval} with
+ * the latest snapshot of each patient that changed, however many readings arrived meanwhile.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardPushService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final LatestVitalsService latestVitalsService;
+    private final PatientRegistry patientRegistry;
+    private final PushProperties properties;
+
+    // Only touched by the scheduled flush; patients dropped from the latest vitals are pruned there
+    private final Map<String, LocalDateTime> lastPushedVitals = new HashMap<>();
+
+    public void publishAlerts(List<MedicalAlert> alerts) {
+        alerts.forEach(this::publishAlert);
+    }
+
+    public void publishAlert(MedicalAlert alert) {
+        try {
+            AlertResponse payload = AlertResponse.fromEntity(alert);
+            String ward = properties.wardOf(patientRegistry.find(alert.getPatientId())
+                .map(PatientRegistry.Entry::roomNumber).orElse(null));
+            messagingTemplate.convertAndSend("/topic/alerts", payload);
+            messagingTemplate.convertAndSend("/topic/wards/" + ward + "/alerts", payload);
+            messagingTemplate.convertAndSend("/topic/patients/" + alert.getPatientId() + "/alerts", payload);
+        } catch (Exception e) {
+            // Dashboards re-sync over REST; never fail alert processing because of a push
+            log.warn("Failed to push alert {} to dashboards: {}", alert.getId(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${medical.push.vitals-interval:PT1S}")
+    public void pushChangedVitals() {
+        List<CurrentVitals> changed = latestVitalsService.collectChanged(lastPushedVitals);
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<CurrentVitals>> byWard = new HashMap<>();
+        for (CurrentVitals vitals : changed) {
+            messagingTemplate.convertAndSend("/topic/patients/" + vitals.getPatientId() + "/vitals", vitals);
+            byWard.computeIfAbsent(properties.wardOf(vitals.getRoomNumber()), ward -> new ArrayList<>()).add(vitals);
+        }
+        byWard.forEach((ward, vitals) -> messagingTemplate.convertAndSend("/topic/wards/" + ward + "/vitals", vitals));
+        log.debug("Pushed vitals of {} patients to {} wards", changed.size(), byWard.size());
+    }
+}
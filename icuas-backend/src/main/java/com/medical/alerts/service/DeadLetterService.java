@@ -0,0 +1,269 @@
+package com.medical.alerts.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medical.alerts.config.KafkaConfig;
+import com.medical.alerts.config.KafkaConsumerProperties;
+import com.medical.alerts.kafka.VitalSignsWireFormat;
+import com.medical.alerts.model.dto.DeadLetterRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reads and replays the dead letter topics ({@code <topic>.DLT}). Each call uses a short-lived
+ * consumer that is assigned the partitions directly, so it joins no consumer group and commits
+ * nothing; reading dead letters leaves them in place.
+ */
+@Slf4j
+@Service
+public class DeadLetterService {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final KafkaTemplate<String, Object> alertsKafkaTemplate;
+    private final KafkaConsumerProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public DeadLetterService(ConsumerFactory<Object, Object> consumerFactory,
+                             @Qualifier("alertsKafkaTemplate") KafkaTemplate<String, Object> alertsKafkaTemplate,
+                             KafkaConsumerProperties properties, ObjectMapper objectMapper) {
+        this.consumerFactory = consumerFactory;
+        this.alertsKafkaTemplate = alertsKafkaTemplate;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    /** The dead letter topics and the number of records each holds. */
+    public Map<String, Long> getTopics() {
+        try (Consumer<byte[], byte[]> consumer = createConsumer()) {
+            Map<String, Long> counts = new TreeMap<>();
+            consumer.listTopics(properties.getDeadLetterReadTimeout()).forEach((topic, partitions) -> {
+                if (topic.endsWith(KafkaConfig.DLT_SUFFIX)) {
+                    List<TopicPartition> assigned = topicPartitions(partitions);
+                    Map<TopicPartition, Long> beginning = consumer.beginningOffsets(assigned);
+                    Map<TopicPartition, Long> end = consumer.endOffsets(assigned);
+                    counts.put(topic, assigned.stream().mapToLong(tp -> end.get(tp) - beginning.get(tp)).sum());
+                }
+            });
+            return counts;
+        }
+    }
+
+    /**
+     * Reads up to {@code limit} records of a dead letter topic, from {@code offset} of one partition
+     * or from the beginning of all of them.
+     *
+     * @throws IllegalArgumentException if the topic is not a dead letter topic or does not exist
+     */
+    public List<DeadLetterRecord> getRecords(String topic, Integer partition, Long offset, int limit) {
+        checkDeadLetterTopic(topic);
+        int max = Math.min(limit, properties.getDeadLetterMaxRecords());
+        try (Consumer<byte[], byte[]> consumer = createConsumer()) {
+            List<TopicPartition> assigned = topicPartitions(consumer.partitionsFor(topic, properties.getDeadLetterReadTimeout()))
+                .stream()
+                .filter(topicPartition -> partition == null || topicPartition.partition() == partition)
+                .toList();
+            if (assigned.isEmpty()) {
+                throw new IllegalArgumentException("Unknown dead letter topic or partition: " + topic + "-" + partition);
+            }
+            consumer.assign(assigned);
+            if (offset == null || partition == null) {
+                consumer.seekToBeginning(assigned);
+            } else {
+                consumer.seek(assigned.get(0), offset);
+            }
+
+            Map<TopicPartition, Long> end = consumer.endOffsets(assigned);
+            long deadline = System.nanoTime() + properties.getDeadLetterReadTimeout().toNanos();
+            List<DeadLetterRecord> records = new ArrayList<>();
+            while (records.size() < max && !atEnd(consumer, end) && System.nanoTime() < deadline) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (records.size() < max) {
+                        records.add(toDeadLetterRecord(record));
+                    }
+                }
+            }
+            return records;
+        }
+    }
+
+    /**
+     * Publishes a dead letter back to the topic it came from, with its original key, value and
+     * headers. The dead letter itself stays in place.
+     *
+     * @return the replayed record, or empty if there is no record at this offset
+     * @throws IllegalArgumentException if the topic is not a dead letter topic
+     */
+    public Optional<DeadLetterRecord> replay(String topic, int partition, long offset) {
+        checkDeadLetterTopic(topic);
+        Optional<ConsumerRecord<byte[], byte[]>> found = read(new TopicPartition(topic, partition), offset);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        ConsumerRecord<byte[], byte[]> record = found.get();
+        DeadLetterRecord deadLetter = toDeadLetterRecord(record);
+
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(KafkaHeaders.PREFIX + "dlt-")
+                    && !header.key().startsWith(SerializationUtils.DESERIALIZER_EXCEPTION_HEADER_PREFIX)) {
+                headers.add(header);
+            }
+        }
+        ProducerRecord<String, Object> replayed = new ProducerRecord<>(deadLetter.getOriginalTopic(), null,
+            deadLetter.getKey(), record.value(), headers);
+        try {
+            alertsKafkaTemplate.send(replayed).get(properties.getDeadLetterReadTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying " + topic + "-" + partition + "@" + offset, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to replay " + topic + "-" + partition + "@" + offset, e);
+        }
+        log.info("Replayed dead letter {}-{}@{} to {}", topic, partition, offset, deadLetter.getOriginalTopic());
+        return Optional.of(deadLetter);
+    }
+
+    private Optional<ConsumerRecord<byte[], byte[]>> read(TopicPartition topicPartition, long offset) {
+        try (Consumer<byte[], byte[]> consumer = createConsumer()) {
+            consumer.assign(List.of(topicPartition));
+            consumer.seek(topicPartition, offset);
+            Map<TopicPartition, Long> end = consumer.endOffsets(List.of(topicPartition));
+            long deadline = System.nanoTime() + properties.getDeadLetterReadTimeout().toNanos();
+            while (!atEnd(consumer, end) && System.nanoTime() < deadline) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (record.offset() == offset) {
+                        return Optional.of(record);
+                    }
+                    if (record.offset() > offset) {
+                        return Optional.empty();
+                    }
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<byte[], byte[]> createConsumer() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(properties.getDeadLetterMaxRecords()));
+        return (Consumer<byte[], byte[]>) (Consumer<?, ?>) consumerFactory.createConsumer(null, "dead-letters", null, overrides);
+    }
+
+    private static void checkDeadLetterTopic(String topic) {
+        if (!topic.endsWith(KafkaConfig.DLT_SUFFIX)) {
+            throw new IllegalArgumentException("Not a dead letter topic: " + topic);
+        }
+    }
+
+    private static List<TopicPartition> topicPartitions(Collection<PartitionInfo> partitions) {
+        return partitions.stream().map(info -> new TopicPartition(info.topic(), info.partition())).toList();
+    }
+
+    private static boolean atEnd(Consumer<?, ?> consumer, Map<TopicPartition, Long> end) {
+        return end.entrySet().stream().allMatch(entry -> consumer.position(entry.getKey()) >= entry.getValue());
+    }
+
+    private DeadLetterRecord toDeadLetterRecord(ConsumerRecord<byte[], byte[]> record) {
+        DeadLetterRecord deadLetter = new DeadLetterRecord();
+        deadLetter.setTopic(record.topic());
+        deadLetter.setPartition(record.partition());
+        deadLetter.setOffset(record.offset());
+        deadLetter.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneId.systemDefault()));
+        deadLetter.setKey(record.key() == null ? null : new String(record.key(), StandardCharsets.UTF_8));
+
+        String originalTopic = header(record, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        deadLetter.setOriginalTopic(originalTopic != null ? originalTopic
+            : record.topic().substring(0, record.topic().length() - KafkaConfig.DLT_SUFFIX.length()));
+        Header partition = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_PARTITION);
+        deadLetter.setOriginalPartition(partition == null ? null : ByteBuffer.wrap(partition.value()).getInt());
+        Header offset = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET);
+        deadLetter.setOriginalOffset(offset == null ? null : ByteBuffer.wrap(offset.value()).getLong());
+        deadLetter.setExceptionClass(header(record, KafkaHeaders.DLT_EXCEPTION_FQCN));
+        deadLetter.setExceptionMessage(header(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+        setValue(deadLetter, record.value());
+        return deadLetter;
+    }
+
+    private void setValue(DeadLetterRecord deadLetter, byte[] value) {
+        if (value == null) {
+            return;
+        }
+        if (VitalSignsWireFormat.isBinary(value)) {
+            try {
+                deadLetter.setValue(VitalSignsWireFormat.decode(value));
+                deadLetter.setValueFormat(DeadLetterRecord.ValueFormat.VITALS_BINARY);
+                return;
+            } catch (RuntimeException e) {
+                // Corrupt binary message; shown as raw bytes
+            }
+        } else {
+            String text = utf8(value);
+            if (text != null) {
+                try {
+                    deadLetter.setValue(objectMapper.readTree(text));
+                    deadLetter.setValueFormat(DeadLetterRecord.ValueFormat.JSON);
+                } catch (JsonProcessingException e) {
+                    deadLetter.setValue(text);
+                    deadLetter.setValueFormat(DeadLetterRecord.ValueFormat.TEXT);
+                }
+                return;
+            }
+        }
+        deadLetter.setValue(Base64.getEncoder().encodeToString(value));
+        deadLetter.setValueFormat(DeadLetterRecord.ValueFormat.BASE64);
+    }
+
+    private static String utf8(byte[] value) {
+        try {
+            CharBuffer chars = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(value));
+            return chars.toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,269 @@
+package com.medical.alerts.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medical.alerts.archive.VitalsArchive;
+import com.medical.alerts.archive.VitalsArchive.SourcedReadingHandler;
+import com.medical.alerts.model.Vital;
+import com.medical.alerts.repository.ExportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Writes the vitals or alert history of a patient as newline-delimited JSON or CSV while the rows
+ * are streamed from the database. Nothing is buffered beyond the writer's buffer, so an export of a
+ * year of 1 Hz readings runs in the same memory as one of an hour.
+ * <p>
+ * Readings of archived days are read from the {@link VitalsArchive}, like the vitals history, and
+ * written in the same columns; the archive does not keep reading IDs, so those are empty.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    /** Start of an export range when none is given: before any stored row. */
+    public static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ExportRepository exportRepository;
+    private final VitalsArchive archive;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public void exportVitals(String patientId, LocalDateTime from, LocalDateTime to, Format format,
+                             OutputStream out) throws IOException {
+        log.info("Exporting vital signs of patient {} from {} to {} as {}", patientId, from, to, format);
+        export(format, out, rows -> archive.split(from, to,
+            (start, end) -> exportRepository.streamVitals(patientId, start, end, rows::write),
+            (start, end) -> archive.read(patientId, start, end, archivedVitals(patientId, rows))));
+    }
+
+    /**
+     * Writes archived readings in the columns of {@link ExportRepository#VITALS_LABELS}: ID, patient,
+     * the vitals in {@link Vital} order, source and timestamp.
+     */
+    private static SourcedReadingHandler archivedVitals(String patientId, RowWriter rows) {
+        Object[] row = new Object[ExportRepository.VITALS_LABELS.length];
+        row[1] = patientId;
+        return (timestamp, values, source) -> {
+            for (int i = 0; i < Vital.COUNT; i++) {
+                // Two decimals, as the database columns are written
+                row[i + 2] = Double.isNaN(values[i]) ? null : BigDecimal.valueOf(values[i]).setScale(2, RoundingMode.HALF_UP);
+            }
+            row[row.length - 2] = source.name();
+            row[row.length - 1] = timestamp.toString();
+            rows.write(ExportRepository.VITALS_LABELS, row);
+        };
+    }
+
+    public void exportAlerts(String patientId, LocalDateTime from, LocalDateTime to, Format format,
+                             OutputStream out) throws IOException {
+        log.info("Exporting alerts of patient {} from {} to {} as {}", patientId, from, to, format);
+        export(format, out, rows -> exportRepository.streamAlerts(patientId, from, to, rows::write));
+    }
+
+    private void export(Format format, OutputStream out, Consumer<RowWriter> query) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new JsonRowWriter(writer);
+        try {
+            query.accept(rowWriter);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rowWriter.finish();
+        writer.flush();
+        log.info("Exported {} rows", rowWriter.rows);
+    }
+
+    /**
+     * Writes rows from a result set or from values given with their labels. A failed write (the
+     * client went away) is thrown as {@link UncheckedIOException}; abandoning a database cursor
+     * closes its statement.
+     */
+    private abstract static class RowWriter {
+
+        protected String[] labels;
+        private boolean[] timestamps;
+        private Object[] values;
+        private long rows;
+
+        void write(ResultSet rs) throws SQLException {
+            // Archived rows may have come first and set the labels, but not the column types
+            if (values == null) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                String[] columnLabels = new String[metaData.getColumnCount()];
+                timestamps = new boolean[columnLabels.length];
+                for (int i = 0; i < columnLabels.length; i++) {
+                    columnLabels[i] = metaData.getColumnLabel(i + 1);
+                    int type = metaData.getColumnType(i + 1);
+                    timestamps[i] = type == Types.TIMESTAMP || type == Types.TIMESTAMP_WITH_TIMEZONE;
+                }
+                values = new Object[columnLabels.length];
+                if (labels == null) {
+                    start(columnLabels);
+                }
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = value(rs, i);
+            }
+            write(labels, values);
+        }
+
+        /**
+         * @param row values in the order of the labels, timestamps as ISO local date-times
+         */
+        void write(String[] columnLabels, Object[] row) {
+            try {
+                if (labels == null) {
+                    start(columnLabels);
+                }
+                writeRow(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows++;
+        }
+
+        private void start(String[] columnLabels) {
+            labels = columnLabels;
+            try {
+                header();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /** The column value, with timestamps as ISO local date-times like the REST entities. */
+        private Object value(ResultSet rs, int column) throws SQLException {
+            if (timestamps[column]) {
+                Timestamp timestamp = rs.getTimestamp(column + 1);
+                return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+            }
+            return rs.getObject(column + 1);
+        }
+
+        protected void header() throws IOException {
+        }
+
+        protected abstract void writeRow(Object[] row) throws IOException;
+
+        void finish() throws IOException {
+        }
+    }
+
+    private final class JsonRowWriter extends RowWriter {
+
+        private final JsonGenerator generator;
+
+        private JsonRowWriter(Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        protected void writeRow(Object[] row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < labels.length; i++) {
+                Object value = row[i];
+                generator.writeFieldName(labels[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Number) {
+                    generator.writeNumber(value.toString());
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (labels != null) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        protected void header() throws IOException {
+            for (int i = 0; i < labels.length; i++) {
+                writeField(i, labels[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        protected void writeRow(Object[] row) throws IOException {
+            for (int i = 0; i < labels.length; i++) {
+                Object value = row[i];
+                writeField(i, value == null ? "" : value.toString());
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180: fields with separators, quotes or line breaks are quoted, quotes doubled
+        private void writeField(int column, String field) throws IOException {
+            if (column > 0) {
+                writer.write(',');
+            }
+            if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+                writer.write(field);
+                return;
+            }
+            writer.write('"');
+            writer.write(field.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
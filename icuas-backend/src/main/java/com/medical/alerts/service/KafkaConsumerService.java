@@ -1,124 +1,307 @@
 package com.medical.alerts.service;
 
+import com.medical.alerts.config.ClusterProperties;
+import com.medical.alerts.config.KafkaConfig;
+import com.medical.alerts.model.MedicalAlert;
 import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.dto.PatientEvent;
 import com.medical.alerts.model.dto.VitalSignsRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.record.TimestampType;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Kafka listeners. A record that fails is never swallowed:
+ * <ul>
+ *   <li>IoT device data is retried through retry topics with backoff, so the partition keeps
+ *       moving, then dead-lettered</li>
+ *   <li>vital signs, consumed in batches, are already stored when they arrive; a shard group whose
+ *       evaluation fails is dead-lettered to be replayed, and the rest of the batch goes on</li>
+ *   <li>alerts and patient events are broadcast to every replica under a group of its own, which
+ *       retry topics would mix up, so they are retried in place by the container's error handler
+ *       (see {@link KafkaConfig}) and then dead-lettered</li>
+ * </ul>
+ * Records that cannot be deserialized go to the dead letter topic without retries.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class KafkaConsumerService {
     
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(KafkaConsumerService.class);
+    
     private final VitalSignsService vitalSignsService;
     private final MedicalAlertService medicalAlertService;
+    private final PatientRegistry patientRegistry;
+    private final VitalSignsWriteBehindBuffer writeBehindBuffer;
+    private final LatestVitalsService latestVitalsService;
+    private final ClusterProperties clusterProperties;
+    private final PatientShardExecutor shardExecutor;
+    private final DeadLetterPublishingRecoverer deadLetterPublishingRecoverer;
+    
+    // Per consumer thread, the last vitals poll whose readings are still being written
+    private final ThreadLocal<CountdownAcknowledgment> pendingPoll = new ThreadLocal<>();
+    
+    /** Group ID unique to this instance, so broadcast topics reach every replica. Used via SpEL. */
+    public String getAlertsBroadcastGroupId() {
+        return clusterProperties.broadcastGroupId("medical-alerts-broadcast");
+    }
+    
+    public String getPatientEventsBroadcastGroupId() {
+        return clusterProperties.broadcastGroupId("patient-events-broadcast");
+    }
 
     @KafkaListener(
         topics = "${kafka.topics.vital-signs:vital-signs-topic}",
         groupId = "${spring.kafka.consumer.group-id:medical-alerts-group}",
-        concurrency = "3"
+        concurrency = "3",
+        containerFactory = "batchKafkaListenerContainerFactory",
+        properties = {
+            // Binary wire format, with JSON of older producers read as this type
+            "spring.deserializer.value.delegate.class=com.medical.alerts.kafka.VitalSignsDeserializer",
+            "spring.json.value.default.type=com.medical.alerts.model.PatientVitalSigns"
+        }
     )
-    public void consumeVitalSigns(ConsumerRecord<String, PatientVitalSigns> record, Acknowledgment ack) {
-        try {
+    public void consumeVitalSigns(List<ConsumerRecord<String, PatientVitalSigns>> records, Acknowledgment ack) {
+        log.debug("Received batch of {} vital signs from Kafka", records.size());
+        
+        // Evaluate the readings, with all resulting alerts emitted once per shard. Most are already
+        // saved to the database; those accepted in pipeline ingest mode are persisted from here.
+        // Readings this instance published were evaluated before they were sent.
+        List<ConsumerRecord<String, PatientVitalSigns>> batch = new ArrayList<>(records.size());
+        List<PatientVitalSigns> readings = new ArrayList<>(records.size());
+        List<PatientVitalSigns> toPersist = new ArrayList<>();
+        for (ConsumerRecord<String, PatientVitalSigns> record : records) {
+            if (record.value() == null) {
+                deadLetterIfUndeserializable(record);
+                continue;
+            }
+            if (publishedByThisInstance(record)) {
+                continue;
+            }
             PatientVitalSigns vitalSigns = record.value();
-            String patientId = record.key();
-            
-            log.debug("Received vital signs from Kafka for patient: {}", patientId);
-            
-            // Process the vital signs - in this case, they're already saved to database
-            // but we might want to do additional processing
-            String patientCondition = "ADULT_RESTING"; // Get from patient service
-            medicalAlertService.evaluateVitalSigns(vitalSigns, patientCondition);
-            
-            // Acknowledge the message
+            if (vitalSigns.getPatientId() == null) {
+                vitalSigns.setPatientId(record.key());
+            }
+            batch.add(record);
+            readings.add(vitalSigns);
+            if (record.headers().lastHeader(KafkaProducerService.PERSIST_HEADER) != null) {
+                // Not written by the producer; the buffer inserts it
+                toPersist.add(vitalSigns);
+            }
+        }
+        latestVitalsService.updateAll(readings);
+        shardExecutor.runGrouped(batch, record -> record.value().getPatientId(), this::evaluateVitalSigns).join();
+        
+        // The poll is committed once its accepted readings are written, so a crash redelivers
+        // them; as committing a poll commits earlier ones too, it also waits for those
+        CountdownAcknowledgment previous = pendingPoll.get();
+        boolean afterPrevious = previous != null && !previous.isDone();
+        if (toPersist.isEmpty() && !afterPrevious) {
+            // Acknowledge the whole poll at once
+            pendingPoll.remove();
             ack.acknowledge();
-            log.debug("Successfully processed vital signs for patient: {}", patientId);
-            
-        } catch (Exception e) {
-            log.error("Error processing vital signs from Kafka: {}", e.getMessage(), e);
-            // In production, you might want to send to a dead letter topic
+        } else {
+            CountdownAcknowledgment poll = new CountdownAcknowledgment(toPersist.size() + (afterPrevious ? 1 : 0), ack);
+            pendingPoll.set(poll);
+            toPersist.forEach(vitalSigns -> writeBehindBuffer.enqueue(vitalSigns, poll));
+            if (afterPrevious) {
+                previous.then(poll);
+            }
+        }
+        log.debug("Successfully processed batch of {} vital signs", records.size());
+    }
+    
+    private void evaluateVitalSigns(List<ConsumerRecord<String, PatientVitalSigns>> records) {
+        try {
+            medicalAlertService.evaluateVitalSignsBatch(records.stream().map(ConsumerRecord::value).toList());
+        } catch (RuntimeException e) {
+            // Retrying the whole poll would evaluate the other shards' readings twice
+            log.error("Error evaluating {} vital signs, sending them to the dead letter topic: {}",
+                records.size(), e.getMessage(), e);
+            records.forEach(record -> deadLetterPublishingRecoverer.accept(record, e));
+        }
+    }
+    
+    // A batch listener gets records that failed deserialization with a null value
+    private void deadLetterIfUndeserializable(ConsumerRecord<String, ?> record) {
+        DeserializationException exception = SerializationUtils.getExceptionFromHeader(record,
+            SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+        if (exception != null) {
+            log.warn("Sending undeserializable record {}-{}@{} to the dead letter topic: {}",
+                record.topic(), record.partition(), record.offset(), exception.getMessage());
+            deadLetterPublishingRecoverer.accept(record, exception);
         }
     }
 
+    @RetryableTopic(
+        attempts = "${medical.kafka.consumer.retry-attempts:3}",
+        backoff = @Backoff(
+            delayExpression = "${medical.kafka.consumer.retry-delay:1000}",
+            multiplierExpression = "${medical.kafka.consumer.retry-multiplier:2}"),
+        kafkaTemplate = "alertsKafkaTemplate",
+        numPartitions = "3",
+        retryTopicSuffix = ".retry",
+        dltTopicSuffix = KafkaConfig.DLT_SUFFIX,
+        // Invalid readings fail the same way every time; dead-letter them right away
+        exclude = IllegalArgumentException.class
+    )
     @KafkaListener(
+        id = "iotDeviceListener",
         topics = "${kafka.topics.iot-device-data:iot-device-topic}",
-        groupId = "${spring.kafka.consumer.group-id:medical-alerts-group}"
+        groupId = "${spring.kafka.consumer.group-id:medical-alerts-group}",
+        properties = {
+            // Binary wire format, with JSON of older producers read as this type
+            "spring.deserializer.value.delegate.class=com.medical.alerts.kafka.VitalSignsDeserializer",
+            "spring.json.value.default.type=com.medical.alerts.model.dto.VitalSignsRequest"
+        }
     )
     public void consumeIotDeviceData(ConsumerRecord<String, VitalSignsRequest> record, Acknowledgment ack) {
-        try {
-            VitalSignsRequest iotData = record.value();
-            String patientId = record.key();
-            
-            log.info("Received IoT device data from Kafka for patient: {}", patientId);
-            
-            // Process IoT data - convert to vital signs and save
-            PatientVitalSigns vitalSigns = iotData.toEntity();
-            vitalSigns.setPatientId(patientId);
-            
-            // Save to database
-            // Note: In a real scenario, you might use a different service method for IoT data
-            String patientCondition = "ADULT_RESTING";
-            medicalAlertService.evaluateVitalSigns(vitalSigns, patientCondition);
-            
-            // Acknowledge the message
-            ack.acknowledge();
-            log.info("Successfully processed IoT device data for patient: {}", patientId);
-            
-        } catch (Exception e) {
-            log.error("Error processing IoT device data from Kafka: {}", e.getMessage(), e);
+        VitalSignsRequest iotData = record.value();
+        String patientId = record.key();
+        
+        log.info("Received IoT device data from Kafka for patient: {}", patientId);
+        
+        // Validate like the REST paths before anything reaches the write-behind buffer
+        iotData.setPatientId(patientId);
+        vitalSignsService.validateVitalSigns(iotData);
+        
+        // Process IoT data - convert to vital signs and save
+        PatientVitalSigns vitalSigns = iotData.toEntity();
+        vitalSigns.setSource(PatientVitalSigns.DataSource.IOT_DEVICE);
+        // Device data carries no timestamp; the record's is when the device sent it, and stays
+        // right when the record arrives late through a retry topic
+        if (record.timestampType() == TimestampType.CREATE_TIME) {
+            vitalSigns.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneId.systemDefault()));
         }
+        
+        latestVitalsService.update(vitalSigns);
+        shardExecutor.submit(patientId,
+            () -> medicalAlertService.evaluateVitalSigns(vitalSigns, patientRegistry.profileFor(patientId))).join();
+        
+        // Save to database through the write-behind buffer; the record is acknowledged
+        // once the batch containing it has been written
+        writeBehindBuffer.enqueue(vitalSigns, ack);
+        log.info("Successfully processed IoT device data for patient: {}", patientId);
     }
 
     @KafkaListener(
         topics = "${kafka.topics.medical-alerts:medical-alerts-topic}",
-        groupId = "${spring.kafka.consumer.group-id:medical-alerts-group}"
+        groupId = "#{__listener.alertsBroadcastGroupId}",
+        properties = {
+            "spring.json.value.default.type=com.medical.alerts.model.MedicalAlert",
+            // Open alerts are loaded from the database at startup, only newer transitions are needed
+            "auto.offset.reset=latest"
+        }
     )
-    public void consumeMedicalAlerts(ConsumerRecord<String, Object> record, Acknowledgment ack) {
-        try {
-            Object alertData = record.value();
-            String patientId = record.key();
-            
-            log.info("Received medical alert from Kafka for patient: {}", patientId);
-            
-            // Process medical alert - you might want to send notifications, 
-            // update dashboards, or trigger other actions
-            
-            // For now, just log it
-            log.info("Medical alert processed for patient {}: {}", patientId, alertData);
-            
-            // Acknowledge the message
-            ack.acknowledge();
-            
-        } catch (Exception e) {
-            log.error("Error processing medical alert from Kafka: {}", e.getMessage(), e);
+    public void consumeMedicalAlerts(ConsumerRecord<String, MedicalAlert> record, Acknowledgment ack) {
+        MedicalAlert alert = record.value();
+        
+        // Transitions published by this instance were already applied locally
+        if (!publishedByThisInstance(record)) {
+            log.debug("Received alert {} ({}) from another replica for patient: {}",
+                alert.getId(), alert.getStatus(), record.key());
+            medicalAlertService.applyRemoteAlert(alert);
         }
+        
+        // Acknowledge the message
+        ack.acknowledge();
     }
 
     @KafkaListener(
         topics = "${kafka.topics.patient-events:patient-events-topic}",
-        groupId = "${spring.kafka.consumer.group-id:medical-alerts-group}"
+        groupId = "#{__listener.patientEventsBroadcastGroupId}",
+        properties = {
+            "spring.json.value.default.type=com.medical.alerts.model.dto.PatientEvent",
+            // Every replica keeps its own registry, loaded from the database at startup
+            "auto.offset.reset=latest"
+        }
     )
-    public void consumePatientEvents(ConsumerRecord<String, Object> record, Acknowledgment ack) {
-        try {
-            Object patientEvent = record.value();
-            String patientId = record.key();
-            
-            log.debug("Received patient event from Kafka for patient: {}", patientId);
-            
-            // Process patient events (admission, discharge, transfer, etc.)
-            // This could trigger various system actions
-            
-            log.debug("Patient event processed for patient {}: {}", patientId, patientEvent);
-            
-            // Acknowledge the message
-            ack.acknowledge();
-            
-        } catch (Exception e) {
-            log.error("Error processing patient event from Kafka: {}", e.getMessage(), e);
+    public void consumePatientEvents(ConsumerRecord<String, PatientEvent> record, Acknowledgment ack) {
+        PatientEvent patientEvent = record.value();
+        String patientId = record.key();
+        
+        log.debug("Received patient event from Kafka for patient: {}", patientId);
+        
+        // Keep the in-memory patient registry in sync with admissions, transfers and discharges
+        patientRegistry.apply(patientEvent);
+        
+        log.debug("Patient event processed for patient {}: {}", patientId, patientEvent);
+        
+        // Acknowledge the message
+        ack.acknowledge();
+    }
+
+    private boolean publishedByThisInstance(ConsumerRecord<?, ?> record) {
+        Header origin = record.headers().lastHeader(KafkaProducerService.ORIGIN_INSTANCE_HEADER);
+        return origin != null
+            && clusterProperties.getInstanceId().equals(new String(origin.value(), StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Acknowledges a poll once it was acknowledged {@code count} times: once per reading by the
+     * write-behind buffer, and once by the previous poll if that was still pending.
+     */
+    private static final class CountdownAcknowledgment implements Acknowledgment {
+        
+        private final AtomicInteger remaining;
+        private final Acknowledgment poll;
+        private Acknowledgment next;
+        private boolean done;
+        
+        private CountdownAcknowledgment(int count, Acknowledgment poll) {
+            this.remaining = new AtomicInteger(count);
+            this.poll = poll;
+        }
+        
+        @Override
+        public void acknowledge() {
+            if (remaining.decrementAndGet() != 0) {
+                return;
+            }
+            poll.acknowledge();
+            Acknowledgment following;
+            synchronized (this) {
+                done = true;
+                following = next;
+            }
+            if (following != null) {
+                following.acknowledge();
+            }
+        }
+        
+        boolean isDone() {
+            return remaining.get() <= 0;
+        }
+        
+        /** Acknowledges the next poll once this one is acknowledged, or right away if it is. */
+        void then(Acknowledgment following) {
+            synchronized (this) {
+                if (!done) {
+                    next = following;
+                    return;
+                }
+            }
+            following.acknowledge();
         }
     }
 }
\ No newline at end of file
@@ -1,48 +1,182 @@
 package com.medical.alerts.service;
 
+import com.medical.alerts.config.ClusterProperties;
+import com.medical.alerts.config.KafkaConfig;
 import com.medical.alerts.model.MedicalAlert;
 import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.dto.PatientEvent;
 import com.medical.alerts.model.dto.VitalSignsRequest;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.KafkaProducerException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes to Kafka without blocking the caller. Vital signs go through the batching, compressed
+ * producer, alerts and patient events through the low-latency one, and CRITICAL alerts through a
+ * low-latency producer of their own (see {@link KafkaConfig}).
+ * <p>
+ * Transient failures are retried by the producer itself, which is idempotent, so retries keep the
+ * order of each partition. A send that still fails is published to the topic's dead letter topic
+ * from the completion callback. Send latency, from the call until the broker acknowledged the
+ * record, is recorded in the {@code medical.kafka.send} timer per topic and result.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class KafkaProducerService {
-    
+
+    /** Header carrying the instance that published a broadcast message. */
+    public static final String ORIGIN_INSTANCE_HEADER = "origin-instance";
+
+    /** Header of readings accepted but not yet persisted; the consumer that evaluates them persists them. */
+    public static final String PERSIST_HEADER = "persist-on-consume";
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
-    
+    private final KafkaTemplate<String, Object> alertsKafkaTemplate;
+    private final KafkaTemplate<String, Object> criticalKafkaTemplate;
+    private final ClusterProperties clusterProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> successTimers = new ConcurrentHashMap<>();
+
     private static final String VITAL_SIGNS_TOPIC = "vital-signs-topic";
     private static final String MEDICAL_ALERTS_TOPIC = "medical-alerts-topic";
     private static final String IOT_DEVICE_TOPIC = "iot-device-topic";
-    
+    private static final String PATIENT_EVENTS_TOPIC = "patient-events-topic";
+
+    public KafkaProducerService(KafkaTemplate<String, Object> kafkaTemplate,
+                                @Qualifier("alertsKafkaTemplate") KafkaTemplate<String, Object> alertsKafkaTemplate,
+                                @Qualifier("criticalKafkaTemplate") KafkaTemplate<String, Object> criticalKafkaTemplate,
+                                ClusterProperties clusterProperties, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.alertsKafkaTemplate = alertsKafkaTemplate;
+        this.criticalKafkaTemplate = criticalKafkaTemplate;
+        this.clusterProperties = clusterProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
     public void sendVitalSigns(PatientVitalSigns vitalSigns) {
+        sendVitalSigns(vitalSigns, false);
+    }
+
+    /**
+     * Publishes a reading. A reading already evaluated on this instance carries the origin header,
+     * so the consumer on this instance does not evaluate it a second time.
+     */
+    public void sendVitalSigns(PatientVitalSigns vitalSigns, boolean evaluatedLocally) {
         try {
-            kafkaTemplate.send(VITAL_SIGNS_TOPIC, vitalSigns.getPatientId(), vitalSigns);
+            ProducerRecord<String, Object> record = new ProducerRecord<>(VITAL_SIGNS_TOPIC, vitalSigns.getPatientId(), vitalSigns);
+            if (evaluatedLocally) {
+                record.headers().add(ORIGIN_INSTANCE_HEADER, clusterProperties.getInstanceId().getBytes(StandardCharsets.UTF_8));
+            }
+            send(kafkaTemplate, record);
             log.debug("Sent vital signs to Kafka for patient: {}", vitalSigns.getPatientId());
         } catch (Exception e) {
             log.error("Failed to send vital signs to Kafka for patient: {}", vitalSigns.getPatientId(), e);
         }
     }
-    
+
+    /**
+     * Publishes a reading that is not persisted yet, for the consumer owning its patient to
+     * evaluate and persist. Unlike the other sends, a failure is not dead-lettered but reported
+     * to the caller, which has not acknowledged the reading to its client.
+     *
+     * @return completes once the broker acknowledged the record
+     */
+    public CompletableFuture<SendResult<String, Object>> sendVitalSignsForPersistence(PatientVitalSigns vitalSigns) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(VITAL_SIGNS_TOPIC, vitalSigns.getPatientId(), vitalSigns);
+        record.headers().add(PERSIST_HEADER, new byte[0]);
+        long start = System.nanoTime();
+        return kafkaTemplate.send(record).whenComplete((result, failure) ->
+            timer(record.topic(), failure == null ? "success" : "failure")
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
     public void sendMedicalAlert(MedicalAlert alert) {
         try {
-            kafkaTemplate.send(MEDICAL_ALERTS_TOPIC, alert.getPatientId(), alert);
+            ProducerRecord<String, Object> record = new ProducerRecord<>(MEDICAL_ALERTS_TOPIC, alert.getPatientId(), alert);
+            record.headers().add(ORIGIN_INSTANCE_HEADER, clusterProperties.getInstanceId().getBytes(StandardCharsets.UTF_8));
+            send(alert.getSeverity() == MedicalAlert.AlertSeverity.CRITICAL ? criticalKafkaTemplate : alertsKafkaTemplate,
+                record);
             log.info("Sent medical alert to Kafka: {} for patient: {}", alert.getAlertType(), alert.getPatientId());
         } catch (Exception e) {
             log.error("Failed to send medical alert to Kafka: {}", alert.getId(), e);
         }
     }
-    
+
     public void sendIotDeviceData(VitalSignsRequest iotData) {
         try {
-            kafkaTemplate.send(IOT_DEVICE_TOPIC, iotData.getPatientId(), iotData);
+            send(kafkaTemplate, new ProducerRecord<>(IOT_DEVICE_TOPIC, iotData.getPatientId(), iotData));
             log.debug("Sent IoT device data to Kafka for patient: {}", iotData.getPatientId());
         } catch (Exception e) {
             log.error("Failed to send IoT device data to Kafka for patient: {}", iotData.getPatientId(), e);
         }
     }
-}
\ No newline at end of file
+
+    public void sendPatientEvent(PatientEvent event) {
+        try {
+            send(alertsKafkaTemplate, new ProducerRecord<>(PATIENT_EVENTS_TOPIC, event.getPatientId(), event));
+            log.debug("Sent patient event {} to Kafka for patient: {}", event.getEventType(), event.getPatientId());
+        } catch (Exception e) {
+            log.error("Failed to send patient event to Kafka for patient: {}", event.getPatientId(), e);
+        }
+    }
+
+    private void send(KafkaTemplate<String, Object> template, ProducerRecord<String, Object> record) {
+        long start = System.nanoTime();
+        template.send(record).whenComplete((result, failure) -> {
+            long elapsed = System.nanoTime() - start;
+            if (failure == null) {
+                successTimers.computeIfAbsent(record.topic(), topic -> timer(topic, "success"))
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+                return;
+            }
+            timer(record.topic(), "failure").record(elapsed, TimeUnit.NANOSECONDS);
+            // Runs on the producer's I/O thread, so the dead letter is only handed to the producer
+            deadLetter(template, record, failure instanceof KafkaProducerException ? failure.getCause() : failure);
+        });
+    }
+
+    private void deadLetter(KafkaTemplate<String, Object> template, ProducerRecord<String, Object> record,
+                            Throwable failure) {
+        if (record.topic().endsWith(KafkaConfig.DLT_SUFFIX)) {
+            log.error("Failed to send to dead letter topic {} for key {}; record dropped", record.topic(), record.key(), failure);
+            return;
+        }
+        log.warn("Failed to send to {} for key {}, publishing to its dead letter topic: {}",
+            record.topic(), record.key(), failure.toString());
+        // Same headers as DeadLetterPublishingRecoverer, so both kinds of dead letters read alike
+        RecordHeaders headers = new RecordHeaders(record.headers().toArray());
+        headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, record.topic().getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaHeaders.DLT_EXCEPTION_FQCN, failure.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaHeaders.DLT_EXCEPTION_MESSAGE,
+            String.valueOf(failure.getMessage()).getBytes(StandardCharsets.UTF_8));
+        ProducerRecord<String, Object> deadLetter = new ProducerRecord<>(record.topic() + KafkaConfig.DLT_SUFFIX,
+            null, record.key(), record.value(), headers);
+        try {
+            send(template, deadLetter);
+        } catch (Exception e) {
+            log.error("Failed to send to dead letter topic {} for key {}; record dropped", deadLetter.topic(), record.key(), e);
+        }
+    }
+
+    private Timer timer(String topic, String result) {
+        return Timer.builder("medical.kafka.send")
+            .description("Time from sending a record until the broker acknowledged it")
+            .tag("topic", topic)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,167 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.model.Patient;
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.dto.CurrentVitals;
+import com.medical.alerts.repository.VitalSignsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest vitals of every patient, updated on each ingest path and served from memory, so ward
+ * overviews never query {@code patient_vital_signs}. Replaces the correlated
+ * {@code ORDER BY timestamp DESC LIMIT 1} subqueries of {@code v_patient_vital_summary}.
+ * <p>
+ * Each vital keeps its latest value, so a partial reading only replaces the vitals it carries.
+ * Readings older than the current snapshot are ignored. Snapshots of patients who are deleted,
+ * discharged or transferred are dropped, as only active patients are loaded at startup.
+ */
+@Slf4j
+@Service
+public class LatestVitalsService {
+
+    private final VitalSignsRepository vitalSignsRepository;
+    private final PatientRegistry patientRegistry;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public LatestVitalsService(VitalSignsRepository vitalSignsRepository, PatientRegistry patientRegistry) {
+        this.vitalSignsRepository = vitalSignsRepository;
+        this.patientRegistry = patientRegistry;
+        patientRegistry.onDeparture(snapshots::remove);
+    }
+
+    /**
+     * Seeds the snapshot of each active patient from their latest stored reading, using the
+     * (patient_id, timestamp) index once per patient.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        PageRequest latest = PageRequest.of(0, 1);
+        int loaded = 0;
+        for (PatientRegistry.Entry patient : patientRegistry.getAll()) {
+            if (patient.status() != Patient.PatientStatus.ACTIVE) {
+                continue;
+            }
+            List<PatientVitalSigns> readings = vitalSignsRepository.findLatestVitalSigns(patient.id(), latest);
+            if (!readings.isEmpty()) {
+                update(readings.get(0));
+                loaded++;
+            }
+        }
+        log.info("Warmed latest vitals snapshot for {} patients", loaded);
+    }
+
+    public void update(PatientVitalSigns vitalSigns) {
+        if (vitalSigns.getPatientId() == null) {
+            return;
+        }
+        snapshots.compute(vitalSigns.getPatientId(), (id, current) -> Snapshot.merge(current, vitalSigns));
+    }
+
+    public void updateAll(List<PatientVitalSigns> batch) {
+        batch.forEach(this::update);
+    }
+
+    public Optional<CurrentVitals> getCurrentVitals(String patientId) {
+        Snapshot snapshot = snapshots.get(patientId);
+        return snapshot == null ? Optional.empty()
+            : Optional.of(snapshot.toCurrentVitals(patientRegistry.find(patientId).orElse(null)));
+    }
+
+    /**
+     * Snapshots whose timestamp differs from the one recorded in {@code lastSeen}, recording the
+     * new timestamps and forgetting patients whose snapshot was dropped. Lets a periodic consumer
+     * pick up only what changed since its last pass.
+     */
+    public List<CurrentVitals> collectChanged(Map<String, LocalDateTime> lastSeen) {
+        lastSeen.keySet().removeIf(patientId -> !snapshots.containsKey(patientId));
+        List<CurrentVitals> changed = new ArrayList<>();
+        snapshots.forEach((patientId, snapshot) -> {
+            if (!snapshot.timestamp().equals(lastSeen.get(patientId))) {
+                lastSeen.put(patientId, snapshot.timestamp());
+                changed.add(snapshot.toCurrentVitals(patientRegistry.find(patientId).orElse(null)));
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * Current vitals of all active patients, ordered by room.
+     */
+    public List<CurrentVitals> getWardOverview() {
+        List<CurrentVitals> overview = new ArrayList<>();
+        for (PatientRegistry.Entry patient : patientRegistry.getAll()) {
+            if (patient.status() != Patient.PatientStatus.ACTIVE) {
+                continue;
+            }
+            Snapshot snapshot = snapshots.get(patient.id());
+            if (snapshot != null) {
+                overview.add(snapshot.toCurrentVitals(patient));
+            }
+        }
+        overview.sort(Comparator.comparing(CurrentVitals::getRoomNumber, Comparator.nullsLast(Comparator.naturalOrder())));
+        return overview;
+    }
+
+    private record Snapshot(String patientId, BigDecimal heartRate, BigDecimal oxygenSaturation,
+                            BigDecimal systolicBP, BigDecimal diastolicBP, BigDecimal temperature,
+                            BigDecimal respiratoryRate, PatientVitalSigns.DataSource source,
+                            LocalDateTime timestamp) {
+
+        static Snapshot merge(Snapshot current, PatientVitalSigns reading) {
+            LocalDateTime timestamp = reading.getTimestamp() != null ? reading.getTimestamp() : LocalDateTime.now();
+            if (current == null) {
+                return new Snapshot(reading.getPatientId(), reading.getHeartRate(), reading.getOxygenSaturation(),
+                    reading.getSystolicBP(), reading.getDiastolicBP(), reading.getTemperature(),
+                    reading.getRespiratoryRate(), reading.getSource(), timestamp);
+            }
+            if (timestamp.isBefore(current.timestamp)) {
+                return current;
+            }
+            return new Snapshot(current.patientId,
+                latest(reading.getHeartRate(), current.heartRate),
+                latest(reading.getOxygenSaturation(), current.oxygenSaturation),
+                latest(reading.getSystolicBP(), current.systolicBP),
+                latest(reading.getDiastolicBP(), current.diastolicBP),
+                latest(reading.getTemperature(), current.temperature),
+                latest(reading.getRespiratoryRate(), current.respiratoryRate),
+                reading.getSource() != null ? reading.getSource() : current.source,
+                timestamp);
+        }
+
+        private static BigDecimal latest(BigDecimal value, BigDecimal previous) {
+            return value != null ? value : previous;
+        }
+
+        CurrentVitals toCurrentVitals(PatientRegistry.Entry patient) {
+            CurrentVitals vitals = new CurrentVitals();
+            vitals.setPatientId(patientId);
+            if (patient != null) {
+                vitals.setRoomNumber(patient.roomNumber());
+                vitals.setConditionType(patient.conditionType());
+            }
+            vitals.setHeartRate(heartRate);
+            vitals.setOxygenSaturation(oxygenSaturation);
+            vitals.setSystolicBP(systolicBP);
+            vitals.setDiastolicBP(diastolicBP);
+            vitals.setTemperature(temperature);
+            vitals.setRespiratoryRate(respiratoryRate);
+            vitals.setSource(source);
+            vitals.setTimestamp(timestamp);
+            return vitals;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.model.dto.VitalSample;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of one series, in a single pass over samples that
+ * arrive oldest first. The first and last samples are kept; in between, the range is split into
+ * equal-width time buckets and each keeps the sample forming the largest triangle with the sample
+ * kept before it and the average of the next bucket. Only the samples of two buckets are held at
+ * a time.
+ */
+final class LttbSeries {
+
+    private final LocalDateTime origin;
+    private final double bucketMillis;
+    private final List<VitalSample> selected;
+
+    private Buffer current = new Buffer();
+    private Buffer next = new Buffer();
+    private boolean started;
+    private double keptTime;
+    private double keptValue;
+
+    /**
+     * @param points the number of samples to keep, at least 3
+     */
+    LttbSeries(LocalDateTime from, LocalDateTime to, int points) {
+        this.origin = from;
+        this.bucketMillis = (double) ChronoUnit.MILLIS.between(from, to) / (points - 2);
+        this.selected = new ArrayList<>(points);
+    }
+
+    void add(LocalDateTime timestamp, double value) {
+        double time = ChronoUnit.MILLIS.between(origin, timestamp);
+        if (!started) {
+            started = true;
+            keep(time, value);
+            return;
+        }
+        int bucket = (int) (time / bucketMillis);
+        if (current.isEmpty() || current.bucket == bucket) {
+            current.add(bucket, time, value);
+        } else if (next.isEmpty() || next.bucket == bucket) {
+            next.add(bucket, time, value);
+        } else {
+            selectFrom(current, next.averageTime(), next.averageValue());
+            Buffer drained = current;
+            current = next;
+            next = drained.clear();
+            next.add(bucket, time, value);
+        }
+    }
+
+    /** The kept samples, oldest first. */
+    List<VitalSample> finish() {
+        if (!next.isEmpty()) {
+            selectFrom(current, next.averageTime(), next.averageValue());
+            Buffer drained = current;
+            current = next;
+            next = drained.clear();
+        }
+        if (!current.isEmpty()) {
+            // The last sample is kept as is and anchors the selection from the last bucket
+            double lastTime = current.times[current.size - 1];
+            double lastValue = current.values[current.size - 1];
+            current.size--;
+            if (!current.isEmpty()) {
+                selectFrom(current, lastTime, lastValue);
+            }
+            keep(lastTime, lastValue);
+            current.clear();
+        }
+        return selected;
+    }
+
+    private void selectFrom(Buffer bucket, double nextTime, double nextValue) {
+        int best = 0;
+        double bestArea = -1;
+        for (int i = 0; i < bucket.size; i++) {
+            // Twice the triangle area; the factor does not change which sample is largest
+            double area = Math.abs((keptTime - nextTime) * (bucket.values[i] - keptValue)
+                - (keptTime - bucket.times[i]) * (nextValue - keptValue));
+            if (area > bestArea) {
+                bestArea = area;
+                best = i;
+            }
+        }
+        keep(bucket.times[best], bucket.values[best]);
+    }
+
+    private void keep(double time, double value) {
+        keptTime = time;
+        keptValue = value;
+        selected.add(new VitalSample(origin.plus((long) time, ChronoUnit.MILLIS), value));
+    }
+
+    private static final class Buffer {
+        private int bucket;
+        private int size;
+        private double[] times = new double[16];
+        private double[] values = new double[16];
+        private double timeSum;
+        private double valueSum;
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void add(int bucket, double time, double value) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            this.bucket = bucket;
+            times[size] = time;
+            values[size] = value;
+            size++;
+            timeSum += time;
+            valueSum += value;
+        }
+
+        private double averageTime() {
+            return timeSum / size;
+        }
+
+        private double averageValue() {
+            return valueSum / size;
+        }
+
+        private Buffer clear() {
+            size = 0;
+            timeSum = 0;
+            valueSum = 0;
+            return this;
+        }
+    }
+}
@@ -1,77 +1,296 @@
 package com.medical.alerts.service;
 
+import com.medical.alerts.config.AlertProperties;
+import com.medical.alerts.config.QueryProperties;
 import com.medical.alerts.model.MedicalAlert;
 import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.dto.CursorPage;
 import com.medical.alerts.repository.MedicalAlertRepository;
-import com.medical.alerts.strategy.MedicalRuleStrategy;
+import com.medical.alerts.strategy.ConditionProfile;
+import com.medical.alerts.strategy.EarlyWarningScorer;
+import com.medical.alerts.strategy.RuleResultSink;
+import com.medical.alerts.strategy.RuleTable;
+import com.medical.alerts.strategy.RuleTableCompiler;
+import com.medical.alerts.strategy.TrendRuleEngine;
+import com.medical.alerts.strategy.VitalReading;
+import com.medical.alerts.util.KeysetCursor;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MedicalAlertService {
     
+    // Per-thread scratch state so that evaluating a normal reading allocates nothing
+    private static final ThreadLocal<VitalReading> READING = ThreadLocal.withInitial(VitalReading::new);
+    private static final ThreadLocal<RuleResultSink> SINK = ThreadLocal.withInitial(RuleResultSink::new);
+    
     private final MedicalAlertRepository alertRepository;
-    private final List<MedicalRuleStrategy> ruleStrategies;
+    private final RuleTableCompiler ruleTableCompiler;
+    private final TrendRuleEngine trendRuleEngine;
+    private final EarlyWarningScorer earlyWarningScorer;
     private final KafkaProducerService kafkaProducerService;
+    private final PatientRegistry patientRegistry;
+    private final AlertProperties alertProperties;
+    private final DashboardPushService dashboardPushService;
+    private final ActiveAlertView activeAlertView;
+    private final PatientShardExecutor shardExecutor;
+    private final QueryProperties queryProperties;
+    private final PipelineMetrics pipelineMetrics;
+    private final AlertOutbox alertOutbox;
+    private final AlertLoadShedder alertLoadShedder;
+    
+    // Each entry is only touched from its patient's shard thread (see PatientShardExecutor)
+    private final Map<String, PatientAlertState> alertStates = new ConcurrentHashMap<>();
+    
+    /**
+     * Rebuilds the open alert state from the database, so a restart does not reopen alerts
+     * for conditions that are already being tracked. Runs before the shards start.
+     */
+    @PostConstruct
+    void loadOpenAlerts() {
+        List<MedicalAlert> openAlerts = alertRepository.findByStatusIn(
+            List.of(MedicalAlert.AlertStatus.ACTIVE, MedicalAlert.AlertStatus.ACKNOWLEDGED));
+        openAlerts.forEach(this::track);
+        log.info("Loaded {} open alerts for {} patients", openAlerts.size(), alertStates.size());
+        
+        // Trend windows and scores of patients now owned by another instance are rebuilt there;
+        // alert state stays, as it is kept consistent across replicas by the alert broadcast
+        shardExecutor.onEviction(trendRuleEngine::evictIf);
+        shardExecutor.onEviction(earlyWarningScorer::evictIf);
+    }
+    
+    private void track(MedicalAlert alert) {
+        alertStates.computeIfAbsent(alert.getPatientId(), PatientAlertState::new).track(alert);
+    }
     
-    @Transactional
-    public List<MedicalAlert> evaluateVitalSigns(PatientVitalSigns vitalSigns, String patientCondition) {
+    /**
+     * Evaluates a reading against the open alerts of its patient. Only alerts that were opened,
+     * escalated or resolved by this reading are published, queued for persistence and returned.
+     * Must run on the patient's shard.
+     */
+    public List<MedicalAlert> evaluateVitalSigns(PatientVitalSigns vitalSigns, ConditionProfile patientCondition) {
         log.debug("Evaluating vital signs for patient: {}", vitalSigns.getPatientId());
         
-        List<MedicalAlert> newAlerts = ruleStrategies.stream()
-            .map(strategy -> strategy.evaluate(vitalSigns, patientCondition))
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .toList();
+        long start = System.nanoTime();
+        List<MedicalAlert> changedAlerts = evaluate(vitalSigns, patientCondition, null);
+        pipelineMetrics.recordEvaluate(start);
+        if (changedAlerts == null) {
+            return List.of();
+        }
+        List<MedicalAlert> emittedAlerts = publishAndPersist(changedAlerts);
+        pipelineMetrics.recordAlertLatency(vitalSigns.getTimestamp());
+        return emittedAlerts;
+    }
+    
+    /**
+     * Evaluates a batch of readings (e.g. one Kafka poll) and emits every alert transition once
+     * the whole batch is evaluated, critical alerts first.
+     * Must run on the shard of the patients in the batch.
+     */
+    public List<MedicalAlert> evaluateVitalSignsBatch(List<PatientVitalSigns> batch) {
+        log.debug("Evaluating batch of {} vital signs", batch.size());
+        
+        long start = System.nanoTime();
+        List<MedicalAlert> changedAlerts = null;
+        // Timestamps of the readings that changed an alert, for the alert latency
+        List<LocalDateTime> alertingReadings = null;
+        for (PatientVitalSigns vitalSigns : batch) {
+            int changedBefore = changedAlerts == null ? 0 : changedAlerts.size();
+            changedAlerts = evaluate(vitalSigns, patientRegistry.profileFor(vitalSigns.getPatientId()), changedAlerts);
+            if (changedAlerts != null && changedAlerts.size() > changedBefore) {
+                if (alertingReadings == null) {
+                    alertingReadings = new ArrayList<>();
+                }
+                alertingReadings.add(vitalSigns.getTimestamp());
+            }
+        }
+        pipelineMetrics.recordEvaluate(start);
+        if (changedAlerts == null) {
+            return List.of();
+        }
+        
+        List<MedicalAlert> emittedAlerts = publishAndPersist(changedAlerts);
+        if (alertingReadings != null) {
+            alertingReadings.forEach(pipelineMetrics::recordAlertLatency);
+        }
+        return emittedAlerts;
+    }
+    
+    private List<MedicalAlert> evaluate(PatientVitalSigns vitalSigns, ConditionProfile patientCondition,
+                                        List<MedicalAlert> changedAlerts) {
+        VitalReading reading = READING.get().load(vitalSigns);
+        RuleResultSink sink = SINK.get();
+        sink.clear();
+        RuleTable table = ruleTableCompiler.getTable(patientCondition);
+        table.evaluate(reading, sink);
+        trendRuleEngine.evaluate(reading, sink);
+        earlyWarningScorer.evaluate(reading, sink);
         
-        if (!newAlerts.isEmpty()) {
-            List<MedicalAlert> savedAlerts = alertRepository.saveAll(newAlerts);
-            log.info("Generated {} new alerts for patient: {}", savedAlerts.size(), vitalSigns.getPatientId());
-            
-            // Send alerts to Kafka for real-time processing
-            savedAlerts.forEach(kafkaProducerService::sendMedicalAlert);
-            
-            return savedAlerts;
+        // Normal readings for patients without open alerts never touch the state map
+        PatientAlertState state = sink.isEmpty()
+            ? alertStates.get(vitalSigns.getPatientId())
+            : alertStates.computeIfAbsent(vitalSigns.getPatientId(), PatientAlertState::new);
+        if (state != null) {
+            changedAlerts = state.apply(reading, table, sink, alertProperties.getClearAfterReadings(), changedAlerts);
+        }
+        sink.clear();
+        return changedAlerts;
+    }
+    
+    /**
+     * Publishes snapshots of the changed alerts, then queues them on the {@link AlertOutbox}, which
+     * persists critical alerts ahead of routine ones. Critical alerts are always published here,
+     * first; routine alerts are left for the outbox to publish while the {@link AlertLoadShedder}
+     * finds processing behind.
+     */
+    private List<MedicalAlert> publishAndPersist(List<MedicalAlert> changedAlerts) {
+        long start = System.nanoTime();
+        double saturation = alertLoadShedder.saturation();
+        // Severity enum is declared most severe first; the sort is stable within a severity
+        changedAlerts.sort(Comparator.comparing(MedicalAlert::getSeverity));
+        List<MedicalAlert> emittedAlerts = new ArrayList<>(changedAlerts.size());
+        int deferredCount = 0;
+        for (MedicalAlert alert : changedAlerts) {
+            MedicalAlert snapshot = alert.snapshot();
+            // From here on the outbox writes this alert; it is no longer new to anyone else
+            alert.setNewEntity(false);
+            boolean deferred = alertLoadShedder.defers(snapshot.getSeverity(), saturation);
+            if (deferred) {
+                deferredCount++;
+            } else {
+                // Update local dashboards right away; other replicas follow from the Kafka broadcast
+                activeAlertView.apply(snapshot);
+                dashboardPushService.publishAlert(snapshot);
+                kafkaProducerService.sendMedicalAlert(snapshot);
+            }
+            alertOutbox.add(snapshot, deferred);
+            emittedAlerts.add(snapshot);
         }
+        pipelineMetrics.recordPublishAlerts(start);
+        log.info("Emitted {} alert transitions ({} deferred at saturation {})",
+            emittedAlerts.size(), deferredCount, String.format("%.2f", saturation));
         
-        return List.of();
+        return emittedAlerts;
+    }
+    
+    /**
+     * Applies an alert transition published by another replica.
+     * <p>
+     * Transitions are published before the publishing replica's outbox writes them, so for a short
+     * window (normally one outbox batch) a new alert is shown here but not yet in the database, and
+     * acknowledging it through this replica answers not found. Outbox writes are upserts, so a later
+     * transition written here, e.g. after taking over the patient, does not conflict with the
+     * publisher's write whichever lands first.
+     */
+    public void applyRemoteAlert(MedicalAlert alert) {
+        // Queued for writing by the publishing replica, like a local alert once its first snapshot is
+        alert.setNewEntity(false);
+        // The shard keeps its own copy and mutates it; the view and pushes share the received one
+        MedicalAlert tracked = alert.snapshot();
+        shardExecutor.run(alert.getPatientId(), () -> track(tracked));
+        activeAlertView.apply(alert);
+        dashboardPushService.publishAlert(alert);
     }
     
     public List<MedicalAlert> getActiveAlerts() {
-        return alertRepository.findActiveAlerts();
+        return activeAlertView.getActiveAlerts();
     }
     
+    /**
+     * The newest alerts of a patient, at most {@code medical.query.max-list-size} of them.
+     */
     public List<MedicalAlert> getPatientAlerts(String patientId) {
-        return alertRepository.findByPatientId(patientId);
+        return alertRepository.findByPatientIdOrderByTriggeredAtDesc(patientId,
+            PageRequest.of(0, queryProperties.getMaxListSize()));
+    }
+    
+    /**
+     * One page of the alerts of a patient, newest first.
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public CursorPage<MedicalAlert> getPatientAlertsPage(String patientId, String cursor, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<MedicalAlert> alerts;
+        if (cursor == null) {
+            alerts = alertRepository.findFirstPage(patientId, page);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            alerts = alertRepository.findPageAfter(patientId, position.timestamp(), position.id(), page);
+        }
+        MedicalAlert last = alerts.size() < limit ? null : alerts.get(alerts.size() - 1);
+        return new CursorPage<>(alerts, last == null ? null : new KeysetCursor(last.getTriggeredAt(), last.getId()).encode());
+    }
+    
+    public long getPatientAlertsCount(String patientId) {
+        return alertRepository.countByPatientId(patientId);
     }
     
-    @Transactional
-    public MedicalAlert acknowledgeAlert(String alertId, String acknowledgedBy) {
-        return alertRepository.findById(alertId)
-            .map(alert -> {
-                alert.setStatus(MedicalAlert.AlertStatus.ACKNOWLEDGED);
-                alert.setAcknowledgedAt(LocalDateTime.now());
-                alert.setAcknowledgedBy(acknowledgedBy);
-                alert.setUpdatedAt(LocalDateTime.now());
-                MedicalAlert updatedAlert = alertRepository.save(alert);
-                log.info("Alert {} acknowledged by {}", alertId, acknowledgedBy);
-                return updatedAlert;
-            })
+    /**
+     * Acknowledges an alert on its patient's shard, which owns the alert's state, and returns once
+     * the acknowledgement is written. Not transactional: waiting for the shard and the outbox holds
+     * no connection.
+     */
+    public MedicalAlert acknowledgeAlert(UUID alertId, String acknowledgedBy) {
+        // A new alert is published before it is written; read it once the outbox has caught up
+        if (!alertOutbox.awaitWritten(alertId)) {
+            log.warn("Alert {} still has unwritten transitions, acknowledging its stored state", alertId);
+        }
+        MedicalAlert stored = alertRepository.findById(alertId)
             .orElseThrow(() -> new RuntimeException("Alert not found with id: " + alertId));
+        MedicalAlert acknowledged = shardExecutor.submit(stored.getPatientId(),
+            () -> acknowledge(stored.snapshot(), acknowledgedBy)).join();
+        if (!alertOutbox.awaitWritten(alertId)) {
+            log.warn("Acknowledgement of alert {} is not written yet", alertId);
+        }
+        activeAlertView.apply(acknowledged);
+        dashboardPushService.publishAlert(acknowledged);
+        kafkaProducerService.sendMedicalAlert(acknowledged);
+        log.info("Alert {} acknowledged by {}", alertId, acknowledgedBy);
+        return acknowledged;
+    }
+
+    /**
+     * Acknowledges the alert as the shard holds it, falling back to the stored state if it is not
+     * open here, and queues the result on the outbox. Transitions the shard emits afterwards carry
+     * the acknowledgement, and the outbox writes them after it. Must run on the patient's shard.
+     */
+    private MedicalAlert acknowledge(MedicalAlert stored, String acknowledgedBy) {
+        PatientAlertState state = alertStates.computeIfAbsent(stored.getPatientId(), PatientAlertState::new);
+        MedicalAlert alert = state.find(stored.getAlertType(), stored.getId());
+        if (alert == null) {
+            alert = stored;
+            state.track(alert);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        alert.setStatus(MedicalAlert.AlertStatus.ACKNOWLEDGED);
+        alert.setAcknowledgedAt(now);
+        alert.setAcknowledgedBy(acknowledgedBy);
+        alert.setUpdatedAt(now);
+        MedicalAlert snapshot = alert.snapshot();
+        alertOutbox.add(snapshot, false);
+        return snapshot;
     }
     
     public long getActiveCriticalAlertsCount() {
-        return alertRepository.countActiveCriticalAlerts();
+        return activeAlertView.countActiveCritical();
     }
     
-    public Optional<MedicalAlert> getAlertById(String alertId) {
+    public Optional<MedicalAlert> getAlertById(UUID alertId) {
         return alertRepository.findById(alertId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.strategy.RuleResultSink;
+import com.medical.alerts.strategy.RuleTable;
+import com.medical.alerts.strategy.VitalReading;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Open alerts of one patient, at most one per alert type. Each evaluated reading moves the
+ * per-type state machine:
+ * <ul>
+ *   <li>no open alert and the rule fires: a new alert is opened</li>
+ *   <li>open alert and the rule fires: the alert stays open, and is escalated (and re-activated
+ *       if it was acknowledged) when the new severity is higher</li>
+ *   <li>open alert and the reading is normal for that type: after the configured number of
+ *       consecutive normal readings the alert is resolved</li>
+ * </ul>
+ * Only transitions produce alerts to persist and publish; a condition that persists for minutes
+ * produces a single row. Not thread-safe: only used from the patient's shard thread.
+ */
+final class PatientAlertState {
+
+    private final String patientId;
+    private final Map<String, OpenAlert> openAlerts = new HashMap<>(4);
+
+    PatientAlertState(String patientId) {
+        this.patientId = patientId;
+    }
+
+    /**
+     * Applies the matches of one reading and appends every alert that changed to {@code changed},
+     * allocating the list on first use.
+     *
+     * @return the list of changed alerts, or {@code null} if nothing changed and none was given
+     */
+    List<MedicalAlert> apply(VitalReading reading, RuleTable table, RuleResultSink sink,
+                             int clearAfterReadings, List<MedicalAlert> changed) {
+        for (int i = 0; i < sink.size(); i++) {
+            String alertType = sink.alertType(i);
+            MedicalAlert.AlertSeverity severity = sink.severity(i);
+            OpenAlert open = openAlerts.get(alertType);
+            if (open == null) {
+                MedicalAlert alert = new MedicalAlert();
+                alert.setPatientId(patientId);
+                alert.setAlertType(alertType);
+                alert.setSeverity(severity);
+                alert.setMessageKey(sink.messageKey(i));
+                alert.setRequiresAcknowledgment(severity == MedicalAlert.AlertSeverity.CRITICAL);
+                openAlerts.put(alertType, new OpenAlert(alert));
+                changed = add(changed, alert);
+                continue;
+            }
+            open.normalStreak = 0;
+            MedicalAlert alert = open.alert;
+            // Severity enum is declared most severe first
+            if (severity.compareTo(alert.getSeverity()) < 0) {
+                alert.setSeverity(severity);
+                alert.setMessageKey(sink.messageKey(i));
+                alert.setRequiresAcknowledgment(severity == MedicalAlert.AlertSeverity.CRITICAL);
+                alert.setStatus(MedicalAlert.AlertStatus.ACTIVE);
+                alert.setUpdatedAt(LocalDateTime.now());
+                changed = add(changed, alert);
+            }
+        }
+
+        if (!openAlerts.isEmpty()) {
+            Iterator<OpenAlert> iterator = openAlerts.values().iterator();
+            while (iterator.hasNext()) {
+                OpenAlert open = iterator.next();
+                String alertType = open.alert.getAlertType();
+                if (fired(sink, alertType) || !table.observes(alertType, reading)) {
+                    continue;
+                }
+                if (++open.normalStreak >= clearAfterReadings) {
+                    open.alert.setStatus(MedicalAlert.AlertStatus.RESOLVED);
+                    open.alert.setUpdatedAt(LocalDateTime.now());
+                    changed = add(changed, open.alert);
+                    iterator.remove();
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * The open alert of this type, as this state holds it, if it is the given alert.
+     */
+    MedicalAlert find(String alertType, UUID alertId) {
+        OpenAlert open = openAlerts.get(alertType);
+        return open != null && open.alert.getId().equals(alertId) ? open.alert : null;
+    }
+
+    /**
+     * Adopts an alert loaded from the database or updated elsewhere (e.g. acknowledged).
+     * Resolved alerts are dropped from the open set.
+     */
+    void track(MedicalAlert alert) {
+        if (alert.getStatus() == MedicalAlert.AlertStatus.RESOLVED) {
+            openAlerts.computeIfPresent(alert.getAlertType(),
+                (type, open) -> open.alert.getId().equals(alert.getId()) ? null : open);
+            return;
+        }
+        OpenAlert open = openAlerts.get(alert.getAlertType());
+        if (open == null) {
+            openAlerts.put(alert.getAlertType(), new OpenAlert(alert));
+        } else if (open.alert.getId().equals(alert.getId())
+                || alert.getTriggeredAt().isAfter(open.alert.getTriggeredAt())) {
+            open.alert = alert;
+        }
+    }
+
+    private static boolean fired(RuleResultSink sink, String alertType) {
+        for (int i = 0; i < sink.size(); i++) {
+            if (sink.alertType(i).equals(alertType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<MedicalAlert> add(List<MedicalAlert> changed, MedicalAlert alert) {
+        if (changed == null) {
+            changed = new ArrayList<>();
+        }
+        // The same alert may change twice within one batch
+        for (MedicalAlert existing : changed) {
+            if (existing == alert) {
+                return changed;
+            }
+        }
+        changed.add(alert);
+        return changed;
+    }
+
+    private static final class OpenAlert {
+        private MedicalAlert alert;
+        private int normalStreak;
+
+        private OpenAlert(MedicalAlert alert) {
+            this.alert = alert;
+        }
+    }
+}
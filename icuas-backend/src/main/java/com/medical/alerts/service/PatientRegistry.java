@@ -0,0 +1,152 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.config.IngestProperties;
+import com.medical.alerts.model.Patient;
+import com.medical.alerts.model.dto.PatientEvent;
+import com.medical.alerts.repository.PatientRepository;
+import com.medical.alerts.strategy.ConditionProfile;
+import com.medical.alerts.strategy.EarlyWarningScorer;
+import com.medical.alerts.strategy.TrendRuleEngine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-memory view of the patients known to this instance, used on the ingest path for existence
+ * checks and condition profile lookup instead of querying {@code patients} per reading.
+ * Active patients are loaded at startup; everything else is loaded lazily on first lookup.
+ * IDs not found in the database are remembered for {@code medical.ingest.unknown-patient-ttl}.
+ * Kept current by {@link PatientService} and the {@code patient-events-topic} consumer.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PatientRegistry {
+
+    private final PatientRepository patientRepository;
+    private final TrendRuleEngine trendRuleEngine;
+    private final EarlyWarningScorer earlyWarningScorer;
+    private final PatientShardExecutor shardExecutor;
+    private final IngestProperties ingestProperties;
+
+    private final Map<String, Entry> patients = new ConcurrentHashMap<>();
+    // Patient ID -> System.nanoTime() until which it is known not to exist
+    private final Map<String, Long> unknownUntil = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> departureHandlers = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    void loadActivePatients() {
+        patientRepository.findActivePatients().forEach(this::register);
+        log.info("Loaded {} active patients into the patient registry", patients.size());
+    }
+
+    public boolean contains(String patientId) {
+        return find(patientId).isPresent();
+    }
+
+    public Optional<Entry> find(String patientId) {
+        if (patientId == null) {
+            return Optional.empty();
+        }
+        Entry entry = patients.get(patientId);
+        if (entry != null) {
+            return Optional.of(entry);
+        }
+        Long until = unknownUntil.get(patientId);
+        if (until != null && System.nanoTime() - until < 0) {
+            return Optional.empty();
+        }
+        // Fall back to the database for patients not loaded at startup (e.g. discharged ones)
+        Optional<Entry> found = patientRepository.findById(patientId).map(this::register);
+        if (found.isEmpty()) {
+            rememberUnknown(patientId);
+        }
+        return found;
+    }
+
+    private void rememberUnknown(String patientId) {
+        if (unknownUntil.size() >= ingestProperties.getUnknownPatientCacheSize()) {
+            long now = System.nanoTime();
+            unknownUntil.values().removeIf(until -> now - until >= 0);
+            if (unknownUntil.size() >= ingestProperties.getUnknownPatientCacheSize()) {
+                // A flood of distinct bogus IDs; start over rather than grow without bound
+                unknownUntil.clear();
+            }
+        }
+        unknownUntil.put(patientId, System.nanoTime() + ingestProperties.getUnknownPatientTtl().toNanos());
+    }
+
+    public ConditionProfile profileFor(String patientId) {
+        return find(patientId).map(Entry::profile).orElse(ConditionProfile.ADULT_RESTING);
+    }
+
+    public Collection<Entry> getAll() {
+        return patients.values();
+    }
+
+    /**
+     * Registers a handler called with the ID of a patient who was deleted, or discharged or
+     * transferred while active, to drop per-patient state that is only kept for active patients.
+     */
+    public void onDeparture(Consumer<String> handler) {
+        departureHandlers.add(handler);
+    }
+
+    public Entry register(Patient patient) {
+        Entry entry = new Entry(patient.getId(), patient.getConditionType(),
+            ConditionProfile.of(patient.getConditionType()), patient.getRoomNumber(), patient.getStatus());
+        Entry previous = patients.put(entry.id(), entry);
+        unknownUntil.remove(entry.id());
+        departedIfInactive(previous, entry);
+        return entry;
+    }
+
+    public void remove(String patientId) {
+        patients.remove(patientId);
+        // Trend windows and scores are only touched on the patient's shard
+        shardExecutor.run(patientId, () -> {
+            trendRuleEngine.evict(patientId);
+            earlyWarningScorer.evict(patientId);
+        });
+        departureHandlers.forEach(handler -> handler.accept(patientId));
+    }
+
+    public void apply(PatientEvent event) {
+        if (event.getEventType() == PatientEvent.EventType.DELETED) {
+            remove(event.getPatientId());
+            return;
+        }
+        unknownUntil.remove(event.getPatientId());
+        Entry previous = patients.get(event.getPatientId());
+        Entry entry = patients.compute(event.getPatientId(), (id, current) -> {
+            String conditionType = event.getConditionType() != null ? event.getConditionType()
+                : current != null ? current.conditionType() : null;
+            String roomNumber = event.getRoomNumber() != null ? event.getRoomNumber()
+                : current != null ? current.roomNumber() : null;
+            Patient.PatientStatus status = event.getStatus() != null ? event.getStatus()
+                : current != null ? current.status() : Patient.PatientStatus.ACTIVE;
+            return new Entry(id, conditionType, ConditionProfile.of(conditionType), roomNumber, status);
+        });
+        departedIfInactive(previous, entry);
+    }
+
+    private void departedIfInactive(Entry previous, Entry current) {
+        if (previous != null && previous.status() == Patient.PatientStatus.ACTIVE
+                && current.status() != Patient.PatientStatus.ACTIVE) {
+            departureHandlers.forEach(handler -> handler.accept(current.id()));
+        }
+    }
+
+    public record Entry(String id, String conditionType, ConditionProfile profile,
+                        String roomNumber, Patient.PatientStatus status) {
+    }
+}
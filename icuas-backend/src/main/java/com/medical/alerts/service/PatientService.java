@@ -1,6 +1,7 @@
 package com.medical.alerts.service;
 
 import com.medical.alerts.model.Patient;
+import com.medical.alerts.model.dto.PatientEvent;
 import com.medical.alerts.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +16,8 @@ import java.util.Optional;
 public class PatientService {
     
     private final PatientRepository patientRepository;
+    private final PatientRegistry patientRegistry;
+    private final KafkaProducerService kafkaProducerService;
 
     public List<Patient> getAllPatients() {
         log.info("Retrieving all patients");
@@ -75,6 +78,8 @@ public class PatientService {
         }
         
         Patient savedPatient = patientRepository.save(patient);
+        patientRegistry.register(savedPatient);
+        kafkaProducerService.sendPatientEvent(PatientEvent.of(PatientEvent.EventType.ADMITTED, savedPatient));
         log.info("Successfully created patient with ID: {}", savedPatient.getId());
         
         return savedPatient;
@@ -108,6 +113,8 @@ public class PatientService {
                 }
                 
                 Patient updatedPatient = patientRepository.save(patient);
+                patientRegistry.register(updatedPatient);
+                kafkaProducerService.sendPatientEvent(PatientEvent.of(eventTypeFor(updatedPatient), updatedPatient));
                 log.info("Successfully updated patient with ID: {}", id);
                 return updatedPatient;
             })
@@ -118,6 +125,11 @@ public class PatientService {
         log.info("Deleting patient with ID: {}", id);
         if (patientRepository.existsById(id)) {
             patientRepository.deleteById(id);
+            patientRegistry.remove(id);
+            PatientEvent event = new PatientEvent();
+            event.setEventType(PatientEvent.EventType.DELETED);
+            event.setPatientId(id);
+            kafkaProducerService.sendPatientEvent(event);
             log.info("Successfully deleted patient with ID: {}", id);
         } else {
             throw new RuntimeException("Patient not found with id: " + id);
@@ -125,6 +137,14 @@ public class PatientService {
     }
 
     public boolean patientExists(String id) {
-        return patientRepository.existsById(id);
+        return patientRegistry.contains(id);
+    }
+
+    private PatientEvent.EventType eventTypeFor(Patient patient) {
+        return switch (patient.getStatus()) {
+            case DISCHARGED -> PatientEvent.EventType.DISCHARGED;
+            case TRANSFERRED -> PatientEvent.EventType.TRANSFERRED;
+            default -> PatientEvent.EventType.UPDATED;
+        };
     }
 }
\ No newline at end of file
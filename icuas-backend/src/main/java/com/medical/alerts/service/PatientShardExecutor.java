@@ -0,0 +1,256 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.config.ShardingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs all per-patient work (rule evaluation, trend windows, early warning scores, alert state)
+ * on one single-threaded shard per patient, so that state needs no locks and readings of a patient
+ * are processed in order whichever path they arrive on.
+ * <p>
+ * Patients are hashed with Kafka's default key partitioner (murmur2 of the UTF-8 patient ID).
+ * The shard count is a multiple of the partition count, so every shard holds patients of exactly
+ * one {@code vital-signs-topic} partition. This instance's partition assignment is tracked to
+ * decide which patients it owns, and shards are drained and their state evicted when partitions
+ * are revoked. With incremental rebalancing only partitions that move away are revoked, so state of
+ * the partitions a consumer keeps survives a rebalance.
+ */
+@Slf4j
+@Service
+public class PatientShardExecutor implements SmartLifecycle {
+
+    private final ShardingProperties properties;
+    private final ThreadPoolExecutor[] shards;
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<Predicate<String>>> evictionHandlers = new CopyOnWriteArrayList<>();
+
+    private volatile boolean assignmentKnown;
+    private volatile boolean running;
+
+    public PatientShardExecutor(ShardingProperties properties) {
+        this.properties = properties;
+        int partitions = Math.max(1, properties.getPartitions());
+        int requested = properties.getShards() > 0 ? properties.getShards() : Runtime.getRuntime().availableProcessors();
+        int count = ((requested + partitions - 1) / partitions) * partitions;
+
+        this.shards = new ThreadPoolExecutor[count];
+        for (int i = 0; i < count; i++) {
+            String name = "patient-shard-" + i;
+            shards[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int shardOf(String patientId) {
+        return hash(patientId) % shards.length;
+    }
+
+    public int partitionOf(String patientId) {
+        return hash(patientId) % properties.getPartitions();
+    }
+
+    /**
+     * Fill ratio of the fullest shard queue, from 0 (idle) to 1 (submitters blocked). One hot shard
+     * delays its patients as much as if all were behind, hence the maximum.
+     */
+    public double getBacklogRatio() {
+        int fullest = 0;
+        for (ThreadPoolExecutor shard : shards) {
+            fullest = Math.max(fullest, shard.getQueue().size());
+        }
+        return (double) fullest / properties.getQueueCapacity();
+    }
+
+    /**
+     * Whether this instance should evaluate the patient locally: it owns the patient's partition,
+     * or no partition assignment has been received (e.g. Kafka is unavailable), in which case
+     * evaluating locally is the only way alerts are raised.
+     */
+    public boolean ownsPatient(String patientId) {
+        return !assignmentKnown || ownedPartitions.contains(partitionOf(patientId));
+    }
+
+    /**
+     * Runs the task on the patient's shard, blocking while the shard queue is full.
+     */
+    public <T> CompletableFuture<T> submit(String patientId, Supplier<T> task) {
+        return submitToShard(shardOf(patientId), task);
+    }
+
+    public CompletableFuture<Void> run(String patientId, Runnable task) {
+        return submit(patientId, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Queues the task on the patient's shard without blocking.
+     *
+     * @throws RejectedExecutionException if the shard queue is full or the executor is stopped
+     */
+    public void execute(String patientId, Runnable task) {
+        if (!running) {
+            throw new RejectedExecutionException("Patient shards are not running");
+        }
+        shards[shardOf(patientId)].execute(task);
+    }
+
+    /**
+     * Splits items by shard, runs the task once per shard with that shard's items in their
+     * original order, and completes when every shard is done.
+     */
+    public <E> CompletableFuture<Void> runGrouped(List<E> items, Function<E, String> patientIdOf, Consumer<List<E>> task) {
+        Map<Integer, List<E>> byShard = new HashMap<>();
+        for (E item : items) {
+            byShard.computeIfAbsent(shardOf(patientIdOf.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        List<CompletableFuture<Object>> futures = new ArrayList<>(byShard.size());
+        byShard.forEach((shard, shardItems) -> futures.add(submitToShard(shard, () -> {
+            task.accept(shardItems);
+            return null;
+        })));
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Registers a handler that evicts per-patient state. It is invoked on each shard of a revoked
+     * partition with a predicate matching the patients of that shard.
+     */
+    public void onEviction(Consumer<Predicate<String>> handler) {
+        evictionHandlers.add(handler);
+    }
+
+    public void partitionsAssigned(Collection<TopicPartition> partitions) {
+        partitions.forEach(partition -> ownedPartitions.add(partition.partition()));
+        assignmentKnown = true;
+        log.info("Now owning patients of partitions {}", ownedPartitions);
+    }
+
+    /**
+     * Drains the shards of the revoked partitions and evicts their per-patient state. Blocks until
+     * done, so the new owner never races this instance on the same patient.
+     */
+    public void partitionsRevoked(Collection<TopicPartition> partitions) {
+        List<Integer> revoked = partitions.stream().map(TopicPartition::partition).toList();
+        if (revoked.isEmpty()) {
+            return;
+        }
+        ownedPartitions.removeAll(revoked);
+
+        List<CompletableFuture<Object>> drained = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            if (revoked.contains(shard % properties.getPartitions())) {
+                int current = shard;
+                Predicate<String> ofShard = patientId -> shardOf(patientId) == current;
+                drained.add(submitToShard(shard, () -> {
+                    evictionHandlers.forEach(handler -> handler.accept(ofShard));
+                    return null;
+                }));
+            }
+        }
+        CompletableFuture.allOf(drained.toArray(CompletableFuture[]::new)).join();
+        log.info("Released patients of partitions {}", revoked);
+    }
+
+    private <T> CompletableFuture<T> submitToShard(int shard, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable wrapped = () -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        ThreadPoolExecutor executor = shards[shard];
+        if (!running || executor.isShutdown()) {
+            throw new RejectedExecutionException("Patient shards are not running");
+        }
+        // The single worker is always alive, so queueing directly gives blocking backpressure
+        BlockingQueue<Runnable> queue = executor.getQueue();
+        try {
+            queue.put(wrapped);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing on patient shard " + shard, e);
+        }
+        return future;
+    }
+
+    private static int hash(String patientId) {
+        // Same as Kafka's default partitioner for String keys
+        return Utils.toPositive(Utils.murmur2(patientId.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void start() {
+        for (ThreadPoolExecutor shard : shards) {
+            shard.prestartAllCoreThreads();
+        }
+        running = true;
+        log.info("Started {} patient shards over {} partitions", shards.length, properties.getPartitions());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor shard : shards) {
+                if (!shard.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Patient shard did not drain, {} tasks dropped", shard.shutdownNow().size());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the Kafka listeners and the ingest pipeline that submit to the shards,
+        // but before the write-behind buffer the shards feed
+        return Integer.MAX_VALUE - 175;
+    }
+}
@@ -0,0 +1,108 @@
+package com.medical.alerts.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of the reading-to-alert path, for checking the "alert within one second" objective and
+ * finding the stage that misses it:
+ * <ul>
+ *   <li>{@value #STAGE_TIMER}, tagged {@code stage} (deserialize, evaluate, persist, publish) and
+ *       {@code type} (vitals, alerts)</li>
+ *   <li>{@value #ALERT_LATENCY_TIMER}: from the timestamp of a reading until the alerts it changed
+ *       were published or, when deferred by the {@link AlertLoadShedder}, handed to the
+ *       {@link AlertOutbox}</li>
+ * </ul>
+ * Rows the database rejected and the background writers dropped are counted in
+ * {@value #REJECTED_COUNTER}, tagged {@code type}.
+ * <p>
+ * Histogram buckets and objectives are set through {@code management.metrics.distribution.*}.
+ * Consumer lag per partition comes from the Kafka client metrics
+ * ({@code kafka.consumer.fetch.manager.records.lag}).
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String STAGE_TIMER = "medical.pipeline.stage";
+    public static final String ALERT_LATENCY_TIMER = "medical.alert.latency";
+    public static final String REJECTED_COUNTER = "medical.persistence.rejected";
+
+    private final Timer evaluate;
+    private final Timer persistVitals;
+    private final Timer persistAlerts;
+    private final Timer publishAlerts;
+    private final Timer alertLatency;
+    private final Counter rejectedVitals;
+    private final Counter rejectedAlerts;
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.evaluate = stageTimer(registry, "evaluate", "vitals");
+        this.persistVitals = stageTimer(registry, "persist", "vitals");
+        this.persistAlerts = stageTimer(registry, "persist", "alerts");
+        this.publishAlerts = stageTimer(registry, "publish", "alerts");
+        this.alertLatency = Timer.builder(ALERT_LATENCY_TIMER)
+            .description("Time from the timestamp of a reading until the alerts it changed were emitted")
+            .register(registry);
+        this.rejectedVitals = rejectedCounter(registry, "vitals");
+        this.rejectedAlerts = rejectedCounter(registry, "alerts");
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String type) {
+        return Counter.builder(REJECTED_COUNTER)
+            .description("Rows the database rejected, dropped so they do not stall persistence")
+            .tag("type", type)
+            .register(registry);
+    }
+
+    /**
+     * A timer of {@value #STAGE_TIMER}; also used by the Kafka deserializer, which is not a bean and
+     * registers with the global registry.
+     */
+    public static Timer stageTimer(MeterRegistry registry, String stage, String type) {
+        return Timer.builder(STAGE_TIMER)
+            .description("Time spent in one stage of processing readings and alerts")
+            .tag("stage", stage)
+            .tag("type", type)
+            .register(registry);
+    }
+
+    public void recordEvaluate(long startNanos) {
+        evaluate.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPersistVitals(long startNanos) {
+        persistVitals.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPersistAlerts(long startNanos) {
+        persistAlerts.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPublishAlerts(long startNanos) {
+        publishAlerts.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRejectedVitals() {
+        rejectedVitals.increment();
+    }
+
+    public void recordRejectedAlerts() {
+        rejectedAlerts.increment();
+    }
+
+    /** Records the latency of alerts emitted now for a reading taken at this time. */
+    public void recordAlertLatency(LocalDateTime readingTimestamp) {
+        if (readingTimestamp == null) {
+            return;
+        }
+        Duration latency = Duration.between(readingTimestamp, LocalDateTime.now());
+        // Clock skew between device and server can make this negative; it then counts as zero
+        alertLatency.record(latency.isNegative() ? Duration.ZERO : latency);
+    }
+}
@@ -0,0 +1,117 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.config.IngestProperties;
+import com.medical.alerts.model.PatientVitalSigns;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Durable acceptance behind {@code POST /api/vitals/{patientId}} in
+ * {@link IngestProperties.Mode#PIPELINE} mode. A validated reading is published to
+ * {@code vital-signs-topic}, marked for persistence, and the request waits until the broker has
+ * acknowledged it (the vitals producer uses {@code acks=all} and idempotence). From then on the
+ * reading survives a crash of this instance. The consumer owning the patient evaluates it like
+ * any reading from the topic and writes it through its {@link VitalSignsWriteBehindBuffer}, and
+ * the poll is only committed once those readings are written.
+ * Request latency therefore depends on the broker rather than on MySQL commit latency.
+ * <p>
+ * Readings waiting for the broker are bounded; past that, and when the broker does not
+ * acknowledge within {@code medical.ingest.accept-timeout}, readings are rejected with a
+ * {@link RejectedExecutionException}. Readings in flight are waited for on graceful shutdown.
+ */
+@Slf4j
+@Service
+public class VitalSignsIngestPipeline implements SmartLifecycle {
+
+    private final KafkaProducerService kafkaProducerService;
+    private final IngestProperties properties;
+
+    // One permit per accepted reading the broker has not acknowledged yet
+    private final Semaphore capacity;
+    private volatile boolean running;
+
+    public VitalSignsIngestPipeline(KafkaProducerService kafkaProducerService, IngestProperties properties) {
+        this.kafkaProducerService = kafkaProducerService;
+        this.properties = properties;
+        this.capacity = new Semaphore(properties.getQueueCapacity());
+    }
+
+    /**
+     * Publishes an already validated reading and waits until the broker acknowledged it.
+     *
+     * @throws RejectedExecutionException if the pipeline is full or shutting down, or the reading
+     *                                    could not be published in time
+     */
+    public void accept(PatientVitalSigns vitalSigns) {
+        if (!running) {
+            throw new RejectedExecutionException("Ingest pipeline is not running");
+        }
+        if (!capacity.tryAcquire()) {
+            throw new RejectedExecutionException("Ingest pipeline is full");
+        }
+        try {
+            kafkaProducerService.sendVitalSignsForPersistence(vitalSigns)
+                .get(properties.getAcceptTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RejectedExecutionException("Kafka did not acknowledge the reading within "
+                + properties.getAcceptTimeout(), e);
+        } catch (ExecutionException e) {
+            log.warn("Failed to publish accepted vital signs for patient {}: {}",
+                vitalSigns.getPatientId(), e.getCause().toString());
+            throw new RejectedExecutionException("Kafka did not accept the reading", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while publishing the reading", e);
+        } finally {
+            capacity.release();
+        }
+    }
+
+    public int getPendingCount() {
+        return properties.getQueueCapacity() - capacity.availablePermits();
+    }
+
+    public int getCapacity() {
+        return properties.getQueueCapacity();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        int accepted = properties.getQueueCapacity();
+        try {
+            // Every permit is back once the broker answered for all accepted readings
+            if (capacity.tryAcquire(accepted, properties.getDrainTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                capacity.release(accepted);
+            } else {
+                log.warn("Ingest pipeline did not drain within {}, {} readings still pending",
+                    properties.getDrainTimeout(), getPendingCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop before the Kafka producers it publishes through
+        return Integer.MAX_VALUE - 150;
+    }
+}
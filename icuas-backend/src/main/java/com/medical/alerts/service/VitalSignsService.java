@@ -1,15 +1,18 @@
 package com.medical.alerts.service;
 
+import com.medical.alerts.config.QueryProperties;
 import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.dto.CursorPage;
 import com.medical.alerts.model.dto.VitalSignsRequest;
 import com.medical.alerts.repository.VitalSignsRepository;
+import com.medical.alerts.strategy.ConditionProfile;
+import com.medical.alerts.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -24,8 +27,17 @@ public class VitalSignsService {
     private final MedicalAlertService medicalAlertService;
     private final PatientService patientService;
     private final KafkaProducerService kafkaProducerService;
+    private final PatientRegistry patientRegistry;
+    private final VitalSignsIngestPipeline ingestPipeline;
+    private final LatestVitalsService latestVitalsService;
+    private final PatientShardExecutor shardExecutor;
+    private final QueryProperties queryProperties;
+    private final PipelineMetrics pipelineMetrics;
 
-    @Transactional
+    /**
+     * Stores a reading, then evaluates it on the patient's shard and publishes it. The reading is
+     * saved in a transaction of its own, so no connection is held while waiting for the shard.
+     */
     public PatientVitalSigns submitVitalSigns(VitalSignsRequest request) {
         log.info("Submitting vital signs for patient: {}", request.getPatientId());
         
@@ -38,29 +50,85 @@ public class VitalSignsService {
         validateVitalSigns(request);
 
         PatientVitalSigns vitalSigns = request.toEntity();
+        long start = System.nanoTime();
         PatientVitalSigns savedVitalSigns = vitalSignsRepository.save(vitalSigns);
+        pipelineMetrics.recordPersistVitals(start);
+        latestVitalsService.update(savedVitalSigns);
         
         log.info("Vital signs submitted successfully for patient: {}", request.getPatientId());
         
-        // Send to Kafka for stream processing
-        kafkaProducerService.sendVitalSigns(savedVitalSigns);
+        // Evaluate here only if this instance owns the patient; otherwise the owner's consumer does
+        boolean evaluateLocally = shardExecutor.ownsPatient(request.getPatientId());
+        if (evaluateLocally) {
+            ConditionProfile patientCondition = getPatientCondition(request.getPatientId());
+            shardExecutor.submit(request.getPatientId(),
+                () -> medicalAlertService.evaluateVitalSigns(savedVitalSigns, patientCondition)).join();
+        }
         
-        // Evaluate for medical alerts
-        String patientCondition = getPatientCondition(request.getPatientId());
-        medicalAlertService.evaluateVitalSigns(savedVitalSigns, patientCondition);
+        // Send to Kafka for stream processing
+        kafkaProducerService.sendVitalSigns(savedVitalSigns, evaluateLocally);
         
         return savedVitalSigns;
     }
 
+    /**
+     * Validates a reading and hands it durably to Kafka through the {@link VitalSignsIngestPipeline};
+     * it is evaluated and persisted by the consumer owning the patient. The returned reading
+     * carries its assigned ID but may not have been written to the database yet.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the pipeline is full or Kafka
+     *                                                         did not acknowledge the reading
+     */
+    public PatientVitalSigns acceptVitalSigns(VitalSignsRequest request) {
+        log.debug("Accepting vital signs for patient: {}", request.getPatientId());
+
+        if (!patientService.patientExists(request.getPatientId())) {
+            throw new RuntimeException("Patient not found: " + request.getPatientId());
+        }
+
+        validateVitalSigns(request);
+
+        PatientVitalSigns vitalSigns = request.toEntity();
+        ingestPipeline.accept(vitalSigns);
+        latestVitalsService.update(vitalSigns);
+        return vitalSigns;
+    }
+
+    /**
+     * The newest readings of a patient, at most {@code medical.query.max-list-size} of them.
+     */
     public List<PatientVitalSigns> getPatientVitalSigns(String patientId) {
         log.debug("Retrieving vital signs for patient: {}", patientId);
-        return vitalSignsRepository.findByPatientIdOrderByTimestampDesc(patientId);
+        return vitalSignsRepository.findLatestVitalSigns(patientId, PageRequest.of(0, queryProperties.getMaxListSize()));
     }
 
+    /**
+     * The readings of a patient in the last hours, newest first and at most
+     * {@code medical.query.max-list-size} of them.
+     */
     public List<PatientVitalSigns> getRecentVitalSigns(String patientId, int hours) {
         log.debug("Retrieving recent vital signs for patient: {} (last {} hours)", patientId, hours);
         LocalDateTime since = LocalDateTime.now().minusHours(hours);
-        return vitalSignsRepository.findRecentVitalSigns(patientId, since);
+        return vitalSignsRepository.findRecentVitalSigns(patientId, since, PageRequest.of(0, queryProperties.getMaxListSize()));
+    }
+
+    /**
+     * One page of the readings of a patient, newest first.
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public CursorPage<PatientVitalSigns> getVitalSignsPage(String patientId, String cursor, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<PatientVitalSigns> readings;
+        if (cursor == null) {
+            readings = vitalSignsRepository.findFirstPage(patientId, page);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            readings = vitalSignsRepository.findPageAfter(patientId, position.timestamp(), position.id(), page);
+        }
+        PatientVitalSigns last = readings.size() < limit ? null : readings.get(readings.size() - 1);
+        return new CursorPage<>(readings, last == null ? null : new KeysetCursor(last.getTimestamp(), last.getId()).encode());
     }
 
     public List<PatientVitalSigns> getLatestVitalSigns(String patientId, int limit) {
@@ -82,7 +150,21 @@ public class VitalSignsService {
         log.info("IoT data simulation completed for patient: {}", iotData.getPatientId());
     }
 
-    private void validateVitalSigns(VitalSignsRequest request) {
+    /**
+     * Checks that a reading is plausible and fits the {@code patient_vital_signs} columns. Applied
+     * on every ingest path, so the write-behind buffer is not handed rows the database rejects.
+     *
+     * @throws IllegalArgumentException if it is not
+     */
+    public void validateVitalSigns(VitalSignsRequest request) {
+        if (request.getPatientId() == null || request.getPatientId().isBlank()) {
+            throw new IllegalArgumentException("Patient ID is required");
+        }
+        
+        if (request.getPatientId().length() > 36) {
+            throw new IllegalArgumentException("Patient ID cannot be longer than 36 characters");
+        }
+        
         if (request.getHeartRate() != null && request.getHeartRate().compareTo(new BigDecimal("30")) < 0) {
             throw new IllegalArgumentException("Heart rate cannot be less than 30 bpm");
         }
@@ -108,15 +190,25 @@ public class VitalSignsService {
              request.getRespiratoryRate().compareTo(new BigDecimal("60")) > 0)) {
             throw new IllegalArgumentException("Respiratory rate must be between 8 and 60 breaths per minute");
         }
+        
+        if (request.getSystolicBP() != null && 
+            (request.getSystolicBP().compareTo(new BigDecimal("40")) < 0 || 
+             request.getSystolicBP().compareTo(new BigDecimal("300")) > 0)) {
+            throw new IllegalArgumentException("Systolic blood pressure must be between 40 and 300 mmHg");
+        }
+        
+        if (request.getDiastolicBP() != null && 
+            (request.getDiastolicBP().compareTo(new BigDecimal("20")) < 0 || 
+             request.getDiastolicBP().compareTo(new BigDecimal("200")) > 0)) {
+            throw new IllegalArgumentException("Diastolic blood pressure must be between 20 and 200 mmHg");
+        }
     }
 
-    private String getPatientCondition(String patientId) {
-        // In a real system, you would get this from the patient record
-        // For now, return a default condition
-        return "ADULT_RESTING";
+    private ConditionProfile getPatientCondition(String patientId) {
+        return patientRegistry.profileFor(patientId);
     }
 
     public long getVitalSignsCount(String patientId) {
-        return vitalSignsRepository.findByPatientIdOrderByTimestampDesc(patientId).size();
+        return vitalSignsRepository.countByPatientId(patientId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,249 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.config.WriteBehindProperties;
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.repository.VitalSignsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Bounded write-behind buffer for vital signs. Readings are queued by the ingest paths and written
+ * by a single background thread with batched inserts, flushed when a batch fills up or the flush
+ * interval elapses. When the buffer fills past the pause threshold the configured Kafka listeners
+ * are paused until it drains, so memory stays bounded and the consumer is never throttled by
+ * individual inserts.
+ * <p>
+ * Kafka records are only acknowledged after the batch containing them has been written, so a
+ * crash before a flush results in redelivery rather than data loss. Readings are plain inserts; a
+ * redelivered reading already written before the crash fails on its primary key and is
+ * acknowledged as written. Any other reading the database rejects is logged, counted and
+ * acknowledged, so it cannot stall the buffer (see {@link BatchWriter}).
+ */
+@Slf4j
+@Service
+public class VitalSignsWriteBehindBuffer implements SmartLifecycle {
+
+    private static final int MYSQL_DUPLICATE_KEY = 1062;
+
+    private final VitalSignsRepository vitalSignsRepository;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final WriteBehindProperties properties;
+    private final PipelineMetrics pipelineMetrics;
+    private final BatchWriter<Pending> batchWriter;
+
+    private final BlockingQueue<Pending> queue;
+    private final int pauseAt;
+    private final int resumeAt;
+    private final AtomicBoolean listenersPaused = new AtomicBoolean();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public VitalSignsWriteBehindBuffer(VitalSignsRepository vitalSignsRepository,
+                                       KafkaListenerEndpointRegistry listenerRegistry,
+                                       WriteBehindProperties properties,
+                                       PipelineMetrics pipelineMetrics) {
+        this.vitalSignsRepository = vitalSignsRepository;
+        this.listenerRegistry = listenerRegistry;
+        this.properties = properties;
+        this.pipelineMetrics = pipelineMetrics;
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.pauseAt = (int) (properties.getCapacity() * properties.getPauseThreshold());
+        this.resumeAt = (int) (properties.getCapacity() * properties.getResumeThreshold());
+        this.batchWriter = new BatchWriter<>("vital signs", this::save, properties.getIsolateAfterAttempts(),
+            () -> running);
+    }
+
+    /**
+     * Queues a reading for persistence, blocking while the buffer is full.
+     *
+     * @param ack acknowledgment to complete once the reading is written, or {@code null}
+     */
+    public void enqueue(PatientVitalSigns vitalSigns, Acknowledgment ack) {
+        if (queue.size() >= pauseAt) {
+            pauseListeners();
+        }
+        try {
+            queue.put(new Pending(vitalSigns, ack));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing vital signs for patient: "
+                + vitalSigns.getPatientId(), e);
+        }
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public int getCapacity() {
+        return properties.getCapacity();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "vitals-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Vital signs write-behind buffer started (capacity {}, batch size {}, flush interval {})",
+            properties.getCapacity(), properties.getBatchSize(), properties.getFlushInterval());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            try {
+                flusher.join(properties.getFlushInterval().toMillis() * 10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Write-behind buffer stopped with {} unflushed vital signs; unacknowledged records will be redelivered",
+                queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before and stop after the Kafka listener containers that feed the buffer
+        return Integer.MAX_VALUE - 200;
+    }
+
+    private void runFlusher() {
+        int batchSize = properties.getBatchSize();
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        List<Pending> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    resumeListenersIfDrained();
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                if (!running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                flush(batch);
+                batch.clear();
+                resumeListenersIfDrained();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) throws InterruptedException {
+        batchWriter.write(batch, this::acknowledge,
+            (pending, failure) -> {
+                if (isDuplicateKey(failure)) {
+                    log.debug("Vital signs {} were already written", pending.vitalSigns().getId());
+                    acknowledge(List.of(pending));
+                    return;
+                }
+                log.error("Dropping vital signs the database rejected: {}", pending.vitalSigns(), failure);
+                pipelineMetrics.recordRejectedVitals();
+                acknowledge(List.of(pending));
+            },
+            abandoned -> log.error("Dropped {} unflushed vital signs; unacknowledged records will be redelivered",
+                abandoned.size()));
+        log.debug("Flushed {} vital signs to the database", batch.size());
+    }
+
+    private void save(List<Pending> batch) {
+        List<PatientVitalSigns> readings = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            // Inserted, never merged: a failed attempt was rolled back even where Hibernate had
+            // already marked the reading as persisted
+            pending.vitalSigns().setNewEntity(true);
+            readings.add(pending.vitalSigns());
+        }
+        long start = System.nanoTime();
+        vitalSignsRepository.saveAll(readings);
+        pipelineMetrics.recordPersistVitals(start);
+    }
+
+    // MySQL reports a duplicate key as error 1062, which JPA translates to a generic integrity violation
+    private static boolean isDuplicateKey(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DuplicateKeyException
+                    || (cause instanceof SQLException sqlException && sqlException.getErrorCode() == MYSQL_DUPLICATE_KEY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void acknowledge(List<Pending> batch) {
+        for (Pending pending : batch) {
+            if (pending.ack() != null) {
+                pending.ack().acknowledge();
+            }
+        }
+    }
+
+    private void pauseListeners() {
+        if (listenersPaused.compareAndSet(false, true)) {
+            log.warn("Write-behind buffer above {} pending readings, pausing listeners {}",
+                pauseAt, properties.getPauseListeners());
+            properties.getPauseListeners().forEach(id -> withContainer(id, MessageListenerContainer::pause));
+        }
+    }
+
+    private void resumeListenersIfDrained() {
+        if (listenersPaused.get() && queue.size() <= resumeAt && listenersPaused.compareAndSet(true, false)) {
+            log.info("Write-behind buffer drained to {} pending readings, resuming listeners {}",
+                queue.size(), properties.getPauseListeners());
+            properties.getPauseListeners().forEach(id -> withContainer(id, MessageListenerContainer::resume));
+        }
+    }
+
+    private void withContainer(String listenerId, Consumer<MessageListenerContainer> action) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId);
+        if (container != null) {
+            action.accept(container);
+        } else {
+            log.warn("No Kafka listener container registered with id: {}", listenerId);
+        }
+    }
+
+    private record Pending(PatientVitalSigns vitalSigns, Acknowledgment ack) {
+    }
+}
@@ -0,0 +1,328 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.archive.VitalsArchive;
+import com.medical.alerts.config.VitalsStorageProperties;
+import com.medical.alerts.model.Vital;
+import com.medical.alerts.model.dto.VitalSample;
+import com.medical.alerts.model.dto.VitalStats;
+import com.medical.alerts.model.dto.VitalsHistory;
+import com.medical.alerts.model.dto.VitalsHistoryPoint;
+import com.medical.alerts.repository.VitalsRollupRepository;
+import com.medical.alerts.repository.VitalsRollupRepository.Bucket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads the vitals history of a patient from the tier that fits the requested range: raw readings
+ * for short recent ranges, per-minute rollups for ranges up to a week and per-hour rollups beyond.
+ * Buckets newer than a rollup table's watermark are aggregated on the fly from the tier below, so
+ * the most recent minutes are included. Raw readings of archived days are read from the
+ * {@link VitalsArchive}, so raw history stays available past retention.
+ * <p>
+ * Downsampled histories are reduced to a target number of points in one streaming pass. They are
+ * read from the coarsest tier that is still finer than the target bucket width, so the rows read
+ * stay within about 60 per point whether the range is an hour or a month.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VitalsHistoryService {
+
+    private final VitalsRollupRepository rollupRepository;
+    private final VitalsStorageProperties properties;
+    private final VitalsArchive archive;
+
+    /**
+     * @param resolution the resolution to read at, or {@code null} to choose one from the range
+     */
+    public VitalsHistory getHistory(String patientId, LocalDateTime from, LocalDateTime to,
+                                    VitalsHistory.Resolution resolution) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("History range start must be before its end");
+        }
+        if (resolution == null) {
+            resolution = resolutionFor(from, to);
+        }
+        log.debug("Reading {} vitals history for patient {} from {} to {}", resolution, patientId, from, to);
+
+        List<VitalsHistoryPoint> points;
+        if (resolution == VitalsHistory.Resolution.RAW) {
+            List<VitalsHistoryPoint> readings = new ArrayList<>();
+            readRaw(patientId, from, to, (timestamp, values) -> readings.add(toPoint(timestamp, values)));
+            points = readings;
+        } else {
+            List<Bucket> buckets = new ArrayList<>();
+            readBuckets(patientId, from, to, resolution, buckets::add);
+            points = toPoints(buckets);
+        }
+
+        VitalsHistory history = history(patientId, from, to, resolution);
+        history.setPoints(points);
+        return history;
+    }
+
+    /**
+     * Reads the history reduced to about {@code points} points, without materializing the rows read.
+     *
+     * @param resolution the resolution to read at, or {@code null} to choose one from the target
+     *                   bucket width
+     */
+    public VitalsHistory getDownsampledHistory(String patientId, LocalDateTime from, LocalDateTime to,
+                                               VitalsHistory.Resolution resolution, int points,
+                                               VitalsHistory.Downsampling method) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("History range start must be before its end");
+        }
+        if (points < (method == VitalsHistory.Downsampling.LTTB ? 3 : 1)) {
+            throw new IllegalArgumentException("Too few points for " + method + " downsampling: " + points);
+        }
+        if (resolution == null) {
+            resolution = sourceFor(from, to, points);
+        }
+        log.debug("Downsampling {} vitals history for patient {} from {} to {} to {} points with {}",
+            resolution, patientId, from, to, points, method);
+
+        VitalsHistory history = history(patientId, from, to, resolution);
+        history.setDownsampling(method);
+        if (method == VitalsHistory.Downsampling.LTTB) {
+            Map<Vital, LttbSeries> series = new EnumMap<>(Vital.class);
+            for (Vital vital : Vital.values()) {
+                series.put(vital, new LttbSeries(from, to, points));
+            }
+            read(patientId, from, to, resolution,
+                (timestamp, values) -> {
+                    for (Vital vital : Vital.values()) {
+                        double value = values[vital.ordinal()];
+                        if (!Double.isNaN(value)) {
+                            series.get(vital).add(timestamp, value);
+                        }
+                    }
+                },
+                bucket -> {
+                    for (Vital vital : Vital.values()) {
+                        if (bucket.count(vital) > 0) {
+                            series.get(vital).add(bucket.getStart(), bucket.mean(vital));
+                        }
+                    }
+                });
+            Map<Vital, List<VitalSample>> samples = new EnumMap<>(Vital.class);
+            series.forEach((vital, lttb) -> samples.put(vital, lttb.finish()));
+            history.setSeries(samples);
+        } else {
+            BucketFolder folder = new BucketFolder(from, to, points, resolution);
+            read(patientId, from, to, resolution,
+                (timestamp, values) -> {
+                    Bucket bucket = folder.bucketFor(timestamp);
+                    bucket.addSample();
+                    for (Vital vital : Vital.values()) {
+                        bucket.add(vital, values[vital.ordinal()]);
+                    }
+                },
+                bucket -> folder.bucketFor(bucket.getStart()).merge(bucket));
+            history.setBucketSeconds(folder.widthSeconds);
+            history.setPoints(toPoints(folder.buckets));
+        }
+        return history;
+    }
+
+    VitalsHistory.Resolution resolutionFor(LocalDateTime from, LocalDateTime to) {
+        Duration range = Duration.between(from, to);
+        LocalDateTime now = LocalDateTime.now();
+        if (range.compareTo(properties.getRawMaxRange()) <= 0 && hasRaw(from, now)) {
+            return VitalsHistory.Resolution.RAW;
+        }
+        if (range.compareTo(properties.getMinuteMaxRange()) <= 0
+                && !from.isBefore(now.minusDays(properties.getMinuteRetentionDays()))) {
+            return VitalsHistory.Resolution.MINUTE;
+        }
+        return VitalsHistory.Resolution.HOUR;
+    }
+
+    /**
+     * Chooses the tier to downsample from: the coarsest one whose buckets are still narrower than
+     * the target bucket width, among those that retain the start of the range.
+     */
+    VitalsHistory.Resolution sourceFor(LocalDateTime from, LocalDateTime to, int points) {
+        Duration width = Duration.between(from, to).dividedBy(points);
+        LocalDateTime now = LocalDateTime.now();
+        if (width.compareTo(Duration.ofMinutes(1)) < 0 && hasRaw(from, now)) {
+            return VitalsHistory.Resolution.RAW;
+        }
+        if (width.compareTo(Duration.ofHours(1)) < 0
+                && !from.isBefore(now.minusDays(properties.getMinuteRetentionDays()))) {
+            return VitalsHistory.Resolution.MINUTE;
+        }
+        return VitalsHistory.Resolution.HOUR;
+    }
+
+    /** Whether raw readings from this time on are still in the database or in the archive. */
+    private boolean hasRaw(LocalDateTime from, LocalDateTime now) {
+        return !from.isBefore(now.minusDays(properties.getRawRetentionDays())) || archive.isArchived(VitalsArchive.dayOf(from));
+    }
+
+    private void read(String patientId, LocalDateTime from, LocalDateTime to, VitalsHistory.Resolution resolution,
+                      VitalsRollupRepository.ReadingHandler readings, Consumer<Bucket> buckets) {
+        if (resolution == VitalsHistory.Resolution.RAW) {
+            readRaw(patientId, from, to, readings);
+        } else {
+            readBuckets(patientId, from, to, resolution, buckets);
+        }
+    }
+
+    /** Reads archived days from the archive and runs of other days with one query each. */
+    private void readRaw(String patientId, LocalDateTime from, LocalDateTime to,
+                         VitalsRollupRepository.ReadingHandler handler) {
+        archive.split(from, to,
+            (start, end) -> rollupRepository.streamReadings(patientId, start, end, handler),
+            (start, end) -> archive.read(patientId, start, end, handler));
+    }
+
+    private void readBuckets(String patientId, LocalDateTime from, LocalDateTime to,
+                             VitalsHistory.Resolution resolution, Consumer<Bucket> sink) {
+        if (resolution == VitalsHistory.Resolution.MINUTE) {
+            readMinutes(patientId, from.truncatedTo(ChronoUnit.MINUTES), to, sink);
+        } else {
+            readHours(patientId, from.truncatedTo(ChronoUnit.HOURS), to, sink);
+        }
+    }
+
+    private void readMinutes(String patientId, LocalDateTime from, LocalDateTime to, Consumer<Bucket> sink) {
+        LocalDateTime watermark = rollupRepository.getWatermark(VitalsRollupRepository.MINUTE_TABLE).orElse(from);
+        if (watermark.isAfter(from)) {
+            rollupRepository.findBuckets(VitalsRollupRepository.MINUTE_TABLE, patientId, from, min(to, watermark), sink);
+        }
+        if (to.isAfter(watermark)) {
+            rollupRepository.aggregateRawMinutes(patientId, max(from, watermark), to, sink);
+        }
+    }
+
+    private void readHours(String patientId, LocalDateTime from, LocalDateTime to, Consumer<Bucket> sink) {
+        LocalDateTime watermark = rollupRepository.getWatermark(VitalsRollupRepository.HOUR_TABLE).orElse(from);
+        if (watermark.isAfter(from)) {
+            rollupRepository.findBuckets(VitalsRollupRepository.HOUR_TABLE, patientId, from, min(to, watermark), sink);
+        }
+        if (to.isAfter(watermark)) {
+            // The open hour: per-minute rollups plus the raw minutes not rolled up yet
+            List<Bucket> hours = new ArrayList<>();
+            readMinutes(patientId, max(from, watermark), to, minute -> {
+                LocalDateTime hour = minute.getStart().truncatedTo(ChronoUnit.HOURS);
+                Bucket last = hours.isEmpty() ? null : hours.get(hours.size() - 1);
+                if (last == null || !last.getStart().equals(hour)) {
+                    last = new Bucket(hour);
+                    hours.add(last);
+                }
+                last.merge(minute);
+            });
+            hours.forEach(sink);
+        }
+    }
+
+    private static VitalsHistory history(String patientId, LocalDateTime from, LocalDateTime to,
+                                         VitalsHistory.Resolution resolution) {
+        VitalsHistory history = new VitalsHistory();
+        history.setPatientId(patientId);
+        history.setResolution(resolution);
+        history.setFrom(from);
+        history.setTo(to);
+        return history;
+    }
+
+    private static List<VitalsHistoryPoint> toPoints(List<Bucket> buckets) {
+        List<VitalsHistoryPoint> points = new ArrayList<>(buckets.size());
+        for (Bucket bucket : buckets) {
+            VitalsHistoryPoint point = new VitalsHistoryPoint();
+            point.setTimestamp(bucket.getStart());
+            point.setSampleCount(bucket.getSampleCount());
+            point.setHeartRate(stats(bucket, Vital.HEART_RATE));
+            point.setOxygenSaturation(stats(bucket, Vital.OXYGEN_SATURATION));
+            point.setSystolicBP(stats(bucket, Vital.SYSTOLIC_BP));
+            point.setDiastolicBP(stats(bucket, Vital.DIASTOLIC_BP));
+            point.setTemperature(stats(bucket, Vital.TEMPERATURE));
+            point.setRespiratoryRate(stats(bucket, Vital.RESPIRATORY_RATE));
+            points.add(point);
+        }
+        return points;
+    }
+
+    private static VitalStats stats(Bucket bucket, Vital vital) {
+        if (bucket.count(vital) == 0) {
+            return null;
+        }
+        return new VitalStats(bucket.min(vital), bucket.max(vital), bucket.mean(vital));
+    }
+
+    private static VitalsHistoryPoint toPoint(LocalDateTime timestamp, double[] values) {
+        VitalsHistoryPoint point = new VitalsHistoryPoint();
+        point.setTimestamp(timestamp);
+        point.setSampleCount(1);
+        point.setHeartRate(stats(values[Vital.HEART_RATE.ordinal()]));
+        point.setOxygenSaturation(stats(values[Vital.OXYGEN_SATURATION.ordinal()]));
+        point.setSystolicBP(stats(values[Vital.SYSTOLIC_BP.ordinal()]));
+        point.setDiastolicBP(stats(values[Vital.DIASTOLIC_BP.ordinal()]));
+        point.setTemperature(stats(values[Vital.TEMPERATURE.ordinal()]));
+        point.setRespiratoryRate(stats(values[Vital.RESPIRATORY_RATE.ordinal()]));
+        return point;
+    }
+
+    private static VitalStats stats(double value) {
+        return Double.isNaN(value) ? null : new VitalStats(value, value, value);
+    }
+
+    /**
+     * Folds readings or rollup buckets, oldest first, into equal-width buckets. The width is a
+     * whole multiple of the source tier's bucket, so no source bucket is split.
+     */
+    private static final class BucketFolder {
+
+        private final LocalDateTime origin;
+        private final long widthSeconds;
+        private final List<Bucket> buckets;
+        private Bucket current;
+        private long currentIndex = -1;
+
+        private BucketFolder(LocalDateTime from, LocalDateTime to, int points, VitalsHistory.Resolution source) {
+            ChronoUnit tier = switch (source) {
+                case RAW -> ChronoUnit.SECONDS;
+                case MINUTE -> ChronoUnit.MINUTES;
+                case HOUR -> ChronoUnit.HOURS;
+            };
+            long tierSeconds = tier.getDuration().getSeconds();
+            long targetSeconds = ceilDiv(Duration.between(from, to).getSeconds(), points);
+            this.widthSeconds = Math.max(1, ceilDiv(targetSeconds, tierSeconds)) * tierSeconds;
+            this.origin = from.truncatedTo(tier);
+            this.buckets = new ArrayList<>(points + 1);
+        }
+
+        private Bucket bucketFor(LocalDateTime timestamp) {
+            long index = ChronoUnit.SECONDS.between(origin, timestamp) / widthSeconds;
+            if (index != currentIndex) {
+                currentIndex = index;
+                current = new Bucket(origin.plusSeconds(index * widthSeconds));
+                buckets.add(current);
+            }
+            return current;
+        }
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
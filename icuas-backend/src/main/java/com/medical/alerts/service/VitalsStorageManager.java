@@ -0,0 +1,189 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.archive.VitalsArchive;
+import com.medical.alerts.config.VitalsStorageProperties;
+import com.medical.alerts.repository.VitalsRollupRepository;
+import com.medical.alerts.repository.VitalsRollupRepository.Partition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Background maintenance of the vitals history:
+ * <ul>
+ *   <li>keeps daily partitions of {@code patient_vital_signs} and {@code patient_vital_signs_1m}
+ *       created ahead of time, and drops partitions past retention instead of deleting rows</li>
+ *   <li>moves raw readings past retention into the {@link VitalsArchive} before their partitions
+ *       are dropped</li>
+ *   <li>rolls raw readings up into per-minute buckets and those into per-hour buckets, advancing a
+ *       watermark per rollup table</li>
+ * </ul>
+ * Partitions are UTC days. Every replica schedules the work, but a MySQL named lock lets only one
+ * of them run it at a time.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VitalsStorageManager {
+
+    private static final String LOCK_NAME = "medical-vitals-storage";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    private final VitalsRollupRepository rollupRepository;
+    private final VitalsStorageProperties properties;
+    private final VitalsArchive archive;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${medical.persistence.storage.maintenance-interval:PT1H}")
+    public void maintainPartitions() {
+        try {
+            rollupRepository.withLock(LOCK_NAME, session -> {
+                maintain(session, VitalsRollupRepository.RAW_TABLE, properties.getRawRetentionDays());
+                maintain(session, VitalsRollupRepository.MINUTE_TABLE, properties.getMinuteRetentionDays());
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Error maintaining vital signs partitions: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${medical.persistence.storage.rollup-interval:PT1M}")
+    public void rollUp() {
+        try {
+            rollupRepository.withLock(LOCK_NAME, session -> {
+                LocalDateTime minutesTo = rollUpMinutes(session);
+                rollUpHours(session, minutesTo);
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Error rolling up vital signs: {}", e.getMessage(), e);
+        }
+    }
+
+    private void maintain(JdbcTemplate session, String table, int retentionDays) {
+        List<Partition> partitions = rollupRepository.findPartitions(session, table);
+        if (partitions.isEmpty()) {
+            log.warn("Table {} is not partitioned, skipping partition maintenance", table);
+            return;
+        }
+        Partition catchAll = partitions.get(partitions.size() - 1);
+        if (catchAll.upperBound() != Long.MAX_VALUE) {
+            log.warn("Table {} has no MAXVALUE partition, skipping partition maintenance", table);
+            return;
+        }
+
+        // Partition p<day> holds readings before the start of the next day
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        long highestBound = partitions.size() > 1 ? partitions.get(partitions.size() - 2).upperBound() : Long.MIN_VALUE;
+        List<Partition> added = new ArrayList<>();
+        for (LocalDate day = today; !day.isAfter(today.plusDays(properties.getPartitionsAhead())); day = day.plusDays(1)) {
+            long upperBound = startOf(day.plusDays(1));
+            if (upperBound > highestBound) {
+                added.add(new Partition(day.format(PARTITION_NAME), upperBound));
+            }
+        }
+        if (!added.isEmpty()) {
+            rollupRepository.addPartitions(session, table, catchAll.name(), added);
+            log.info("Added partitions {} to {}", added.stream().map(Partition::name).toList(), table);
+        }
+
+        long cutoff = startOf(today.minusDays(retentionDays));
+        List<Partition> expired = partitions.stream()
+            .filter(partition -> partition.upperBound() <= cutoff)
+            .toList();
+        if (!expired.isEmpty()) {
+            if (VitalsRollupRepository.RAW_TABLE.equals(table) && archive.isEnabled()) {
+                // A failure leaves the partitions in place, to be archived on the next run
+                archiveBefore(session, expired.get(expired.size() - 1).upperBound());
+            }
+            List<String> names = expired.stream().map(Partition::name).toList();
+            rollupRepository.dropPartitions(session, table, names);
+            log.info("Dropped expired partitions {} of {}", names, table);
+        }
+    }
+
+    /**
+     * Archives every day of raw readings before the partition bound that is not archived yet, and
+     * checks that all of them are before the partitions are dropped.
+     */
+    private void archiveBefore(JdbcTemplate session, long upperBound) {
+        Optional<LocalDateTime> earliest = rollupRepository.findEarliest(session, VitalsRollupRepository.RAW_TABLE);
+        if (earliest.isEmpty()) {
+            return;
+        }
+        // Archive days and partitions are both UTC days
+        LocalDate first = VitalsArchive.dayOf(earliest.get());
+        LocalDate end = LocalDateTime.ofEpochSecond(upperBound, 0, ZoneOffset.UTC).toLocalDate();
+        for (LocalDate day = first; day.isBefore(end); day = day.plusDays(1)) {
+            if (archive.isArchived(day)) {
+                continue;
+            }
+            try {
+                archive.archiveDay(session, day);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error archiving vital signs of " + day, e);
+            }
+        }
+        for (LocalDate day = first; day.isBefore(end); day = day.plusDays(1)) {
+            if (!archive.isArchived(day)) {
+                throw new IllegalStateException("Vital signs of " + day + " are not archived, keeping their partitions");
+            }
+        }
+    }
+
+    private LocalDateTime rollUpMinutes(JdbcTemplate session) {
+        LocalDateTime target = LocalDateTime.now().minus(properties.getRollupDelay()).truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime watermark = rollupRepository.getWatermark(VitalsRollupRepository.MINUTE_TABLE)
+            .or(() -> rollupRepository.findEarliest(session, VitalsRollupRepository.RAW_TABLE))
+            .orElse(target)
+            .truncatedTo(ChronoUnit.MINUTES);
+        if (!target.isAfter(watermark)) {
+            return watermark;
+        }
+
+        LocalDateTime from = watermark.minus(properties.getRollupLookback());
+        LocalDateTime to = min(target, watermark.plus(properties.getRollupMaxCatchUp()));
+        int buckets = rollupRepository.rollUpMinutes(session, from, to);
+        rollupRepository.setWatermark(session, VitalsRollupRepository.MINUTE_TABLE, to);
+        log.debug("Rolled up raw vital signs from {} to {} ({} rows affected)", from, to, buckets);
+        return to;
+    }
+
+    private void rollUpHours(JdbcTemplate session, LocalDateTime minutesRolledUpTo) {
+        LocalDateTime target = minutesRolledUpTo.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime watermark = rollupRepository.getWatermark(VitalsRollupRepository.HOUR_TABLE)
+            .or(() -> rollupRepository.findEarliest(session, VitalsRollupRepository.MINUTE_TABLE))
+            .orElse(target)
+            .truncatedTo(ChronoUnit.HOURS);
+        if (!target.isAfter(watermark)) {
+            return;
+        }
+
+        // Late readings re-rolled into minutes before the watermark change the hour they fall in
+        LocalDateTime from = watermark.minus(properties.getRollupLookback()).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = min(target, watermark.plusDays(1));
+        int buckets = rollupRepository.rollUpHours(session, from, to);
+        rollupRepository.setWatermark(session, VitalsRollupRepository.HOUR_TABLE, to);
+        log.debug("Rolled up per-minute vital signs from {} to {} ({} rows affected)", from, to, buckets);
+    }
+
+    private static long startOf(LocalDate day) {
+        return day.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,46 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.config.MedicalRulesProperties;
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.Vital;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BloodPressureRule implements MedicalRuleStrategy {
+    
+    private static final String ALERT_TYPE = "BLOOD_PRESSURE";
+    private static final String CRITICAL_HIGH_KEY = "alert.critical.blood_pressure.high";
+    private static final String CRITICAL_LOW_KEY = "alert.critical.blood_pressure.low";
+    private static final String WARNING_HIGH_KEY = "alert.warning.blood_pressure.high";
+    private static final String WARNING_LOW_KEY = "alert.warning.blood_pressure.low";
+    
+    @Override
+    public void compile(RuleTable.Builder table, MedicalRulesProperties rules, ConditionProfile profile) {
+        MedicalRulesProperties.Bands systolic = rules.getBloodPressure().getSystolic();
+        MedicalRulesProperties.Bands diastolic = rules.getBloodPressure().getDiastolic();
+        
+        table.above(ALERT_TYPE, Vital.SYSTOLIC_BP, systolic.getCriticalHigh(), MedicalAlert.AlertSeverity.CRITICAL, CRITICAL_HIGH_KEY)
+            .below(ALERT_TYPE, Vital.SYSTOLIC_BP, systolic.getCriticalLow(), MedicalAlert.AlertSeverity.CRITICAL, CRITICAL_LOW_KEY)
+            .above(ALERT_TYPE, Vital.DIASTOLIC_BP, diastolic.getCriticalHigh(), MedicalAlert.AlertSeverity.CRITICAL, CRITICAL_HIGH_KEY)
+            .below(ALERT_TYPE, Vital.DIASTOLIC_BP, diastolic.getCriticalLow(), MedicalAlert.AlertSeverity.CRITICAL, CRITICAL_LOW_KEY)
+            .above(ALERT_TYPE, Vital.SYSTOLIC_BP, systolic.getWarningHigh(), MedicalAlert.AlertSeverity.WARNING, WARNING_HIGH_KEY)
+            .below(ALERT_TYPE, Vital.SYSTOLIC_BP, systolic.getWarningLow(), MedicalAlert.AlertSeverity.WARNING, WARNING_LOW_KEY)
+            .above(ALERT_TYPE, Vital.DIASTOLIC_BP, diastolic.getWarningHigh(), MedicalAlert.AlertSeverity.WARNING, WARNING_HIGH_KEY)
+            .below(ALERT_TYPE, Vital.DIASTOLIC_BP, diastolic.getWarningLow(), MedicalAlert.AlertSeverity.WARNING, WARNING_LOW_KEY);
+    }
+    
+    @Override
+    public boolean supports(String alertType) {
+        return ALERT_TYPE.equals(alertType);
+    }
+    
+    @Override
+    public int getPriority() {
+        return 8;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Monitors systolic and diastolic blood pressure for hypertension and hypotension";
+    }
+}
\ No newline at end of file
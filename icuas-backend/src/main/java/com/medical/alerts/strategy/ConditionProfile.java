@@ -0,0 +1,22 @@
+package com.medical.alerts.strategy;
+
+/**
+ * Threshold profiles selected by {@code Patient.conditionType}. Conditions without a dedicated
+ * profile are evaluated against {@link #ADULT_RESTING}.
+ */
+public enum ConditionProfile {
+    ADULT_RESTING,
+    POST_SURGERY;
+
+    public static ConditionProfile of(String conditionType) {
+        if (conditionType == null) {
+            return ADULT_RESTING;
+        }
+        for (ConditionProfile profile : values()) {
+            if (profile.name().equalsIgnoreCase(conditionType)) {
+                return profile;
+            }
+        }
+        return ADULT_RESTING;
+    }
+}
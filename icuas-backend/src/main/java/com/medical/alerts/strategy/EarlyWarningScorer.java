@@ -0,0 +1,189 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.config.MedicalRulesProperties;
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.Vital;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * NEWS2-style early warning score kept per patient in memory. Each reading re-scores only the
+ * vitals it carries and adjusts the running total, so partial device readings combine with the
+ * last known value of the other vitals. Diastolic pressure is not part of NEWS2 and does not
+ * contribute; consciousness and supplemental oxygen are not captured by this system.
+ * <p>
+ * Escalations are recorded in the {@link RuleResultSink} as {@value #ALERT_TYPE} alerts and go
+ * through the same open/escalate/resolve lifecycle as threshold alerts.
+ * <p>
+ * A patient's score is only updated from its patient shard thread; dashboard reads from other
+ * threads use a sequence counter to retry if they overlap an update instead of locking (a seqlock,
+ * fenced like {@link java.util.concurrent.locks.StampedLock} optimistic reads).
+ */
+@Component
+public class EarlyWarningScorer {
+
+    public static final String ALERT_TYPE = "EARLY_WARNING_SCORE";
+    private static final String CRITICAL_KEY = "alert.critical.early_warning_score.high";
+    private static final String WARNING_KEY = "alert.warning.early_warning_score.medium";
+
+    /** Vitals that contribute to the score. */
+    public static final List<Vital> SCORED_VITALS = List.of(Vital.RESPIRATORY_RATE, Vital.OXYGEN_SATURATION,
+        Vital.SYSTOLIC_BP, Vital.HEART_RATE, Vital.TEMPERATURE);
+
+    private static final int UNKNOWN = -1;
+
+    private final RuleTableCompiler ruleTableCompiler;
+
+    private final Map<String, PatientScore> scores = new ConcurrentHashMap<>();
+
+    public EarlyWarningScorer(RuleTableCompiler ruleTableCompiler) {
+        this.ruleTableCompiler = ruleTableCompiler;
+    }
+
+    /**
+     * Updates the patient's score from the reading and records an alert if the score is at or
+     * above the warning level.
+     */
+    public void evaluate(VitalReading reading, RuleResultSink sink) {
+        MedicalRulesProperties.EarlyWarning settings = ruleTableCompiler.getRules().getEarlyWarning();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        PatientScore score = scores.get(reading.getPatientId());
+        if (score == null) {
+            score = scores.computeIfAbsent(reading.getPatientId(), id -> new PatientScore());
+        }
+
+        score.update(reading);
+        RiskLevel level = score.riskLevel(settings);
+        if (level == RiskLevel.HIGH) {
+            sink.add(ALERT_TYPE, MedicalAlert.AlertSeverity.CRITICAL, CRITICAL_KEY);
+        } else if (level == RiskLevel.MEDIUM || level == RiskLevel.LOW_MEDIUM) {
+            sink.add(ALERT_TYPE, MedicalAlert.AlertSeverity.WARNING, WARNING_KEY);
+        }
+    }
+
+    public Optional<EarlyWarningScore> getScore(String patientId) {
+        PatientScore score = scores.get(patientId);
+        if (score == null) {
+            return Optional.empty();
+        }
+        return Optional.of(score.snapshot(patientId, ruleTableCompiler.getRules().getEarlyWarning()));
+    }
+
+    /** All known scores, highest first. */
+    public List<EarlyWarningScore> getScores() {
+        MedicalRulesProperties.EarlyWarning settings = ruleTableCompiler.getRules().getEarlyWarning();
+        List<EarlyWarningScore> snapshots = new ArrayList<>(scores.size());
+        scores.forEach((patientId, score) -> snapshots.add(score.snapshot(patientId, settings)));
+        snapshots.sort(Comparator.comparingInt(EarlyWarningScore::totalScore).reversed());
+        return snapshots;
+    }
+
+    public void evict(String patientId) {
+        scores.remove(patientId);
+    }
+
+    public void evictIf(Predicate<String> patientFilter) {
+        scores.keySet().removeIf(patientFilter);
+    }
+
+    static int score(Vital vital, double value) {
+        return switch (vital) {
+            case RESPIRATORY_RATE -> value <= 8 ? 3 : value <= 11 ? 1 : value <= 20 ? 0 : value <= 24 ? 2 : 3;
+            case OXYGEN_SATURATION -> value <= 91 ? 3 : value <= 93 ? 2 : value <= 95 ? 1 : 0;
+            case SYSTOLIC_BP -> value <= 90 ? 3 : value <= 100 ? 2 : value <= 110 ? 1 : value < 220 ? 0 : 3;
+            case HEART_RATE -> value <= 40 ? 3 : value <= 50 ? 1 : value <= 90 ? 0 : value <= 110 ? 1 : value <= 130 ? 2 : 3;
+            case TEMPERATURE -> value <= 35.0 ? 3 : value <= 36.0 ? 1 : value <= 38.0 ? 0 : value <= 39.0 ? 1 : 2;
+            default -> 0;
+        };
+    }
+
+    public enum RiskLevel {
+        LOW, LOW_MEDIUM, MEDIUM, HIGH
+    }
+
+    public record EarlyWarningScore(String patientId, int totalScore, RiskLevel riskLevel,
+                                    Map<Vital, Integer> components, LocalDateTime updatedAt) {
+    }
+
+    private static final class PatientScore {
+
+        private final int[] subScores = new int[Vital.COUNT];
+        private int total;
+        private int maxSubScore;
+        private long updatedAt;
+        // Odd while an update is in progress
+        private volatile int sequence;
+
+        private PatientScore() {
+            Arrays.fill(subScores, UNKNOWN);
+        }
+
+        private void update(VitalReading reading) {
+            sequence++;
+            // The volatile write only keeps earlier accesses before it; keep the fields' writes after it
+            VarHandle.releaseFence();
+            int max = 0;
+            for (int i = 0; i < SCORED_VITALS.size(); i++) {
+                Vital vital = SCORED_VITALS.get(i);
+                double value = reading.get(vital);
+                int index = vital.ordinal();
+                if (!Double.isNaN(value)) {
+                    int subScore = score(vital, value);
+                    total += subScore - Math.max(subScores[index], 0);
+                    subScores[index] = subScore;
+                }
+                max = Math.max(max, subScores[index]);
+            }
+            maxSubScore = max;
+            updatedAt = reading.getTimestampMillis();
+            sequence++;
+        }
+
+        private RiskLevel riskLevel(MedicalRulesProperties.EarlyWarning settings) {
+            if (total >= settings.getCriticalScore()) {
+                return RiskLevel.HIGH;
+            }
+            if (total >= settings.getWarningScore()) {
+                return RiskLevel.MEDIUM;
+            }
+            return maxSubScore >= settings.getSingleParameterScore() ? RiskLevel.LOW_MEDIUM : RiskLevel.LOW;
+        }
+
+        private EarlyWarningScore snapshot(String patientId, MedicalRulesProperties.EarlyWarning settings) {
+            while (true) {
+                int before = sequence;
+                Map<Vital, Integer> components = new EnumMap<>(Vital.class);
+                for (Vital vital : SCORED_VITALS) {
+                    if (subScores[vital.ordinal()] != UNKNOWN) {
+                        components.put(vital, subScores[vital.ordinal()]);
+                    }
+                }
+                int copiedTotal = total;
+                RiskLevel level = riskLevel(settings);
+                long copiedUpdatedAt = updatedAt;
+                // Keep the fields' reads before the re-read of the sequence
+                VarHandle.acquireFence();
+                if ((before & 1) == 0 && before == sequence) {
+                    return new EarlyWarningScore(patientId, copiedTotal, level, components,
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(copiedUpdatedAt), ZoneOffset.UTC));
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -1,57 +1,33 @@
 package com.medical.alerts.strategy;
 
+import com.medical.alerts.config.MedicalRulesProperties;
 import com.medical.alerts.model.MedicalAlert;
-import com.medical.alerts.model.PatientVitalSigns;
-import lombok.extern.slf4j.Slf4j;
+import com.medical.alerts.model.Vital;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.util.Optional;
-
-@Slf4j
 @Component
 public class HeartRateRule implements MedicalRuleStrategy {
     
-    private static final BigDecimal CRITICAL_HIGH_THRESHOLD = new BigDecimal("130");
-    private static final BigDecimal CRITICAL_LOW_THRESHOLD = new BigDecimal("50");
-    private static final BigDecimal WARNING_HIGH_THRESHOLD = new BigDecimal("110");
-    private static final BigDecimal WARNING_LOW_THRESHOLD = new BigDecimal("60");
+    private static final String ALERT_TYPE = "HEART_RATE";
+    private static final String CRITICAL_HIGH_KEY = "alert.critical.heart_rate.high";
+    private static final String CRITICAL_LOW_KEY = "alert.critical.heart_rate.low";
+    private static final String WARNING_HIGH_KEY = "alert.warning.heart_rate.high";
+    private static final String WARNING_LOW_KEY = "alert.warning.heart_rate.low";
     
     @Override
-    public Optional<MedicalAlert> evaluate(PatientVitalSigns vitalSigns, String patientCondition) {
-        if (vitalSigns.getHeartRate() == null) {
-            return Optional.empty();
-        }
-        
-        BigDecimal heartRate = vitalSigns.getHeartRate();
-        MedicalAlert.AlertSeverity severity = null;
-        String alertType = "HEART_RATE";
-        
-        if (heartRate.compareTo(CRITICAL_HIGH_THRESHOLD) > 0 || heartRate.compareTo(CRITICAL_LOW_THRESHOLD) < 0) {
-            severity = MedicalAlert.AlertSeverity.CRITICAL;
-            log.warn("Critical heart rate detected: {} bpm for patient {}", heartRate, vitalSigns.getPatientId());
-        } else if (heartRate.compareTo(WARNING_HIGH_THRESHOLD) > 0 || heartRate.compareTo(WARNING_LOW_THRESHOLD) < 0) {
-            severity = MedicalAlert.AlertSeverity.WARNING;
-            log.info("Warning heart rate detected: {} bpm for patient {}", heartRate, vitalSigns.getPatientId());
-        }
-        
-        if (severity != null) {
-            MedicalAlert alert = new MedicalAlert();
-            alert.setPatientId(vitalSigns.getPatientId());
-            alert.setSeverity(severity);
-            alert.setAlertType(alertType);
-            alert.setMessageKey("alert." + severity.name().toLowerCase() + ".heart_rate." + 
-                (heartRate.compareTo(new BigDecimal("100")) > 0 ? "high" : "low"));
-            alert.setRequiresAcknowledgment(severity == MedicalAlert.AlertSeverity.CRITICAL);
-            return Optional.of(alert);
-        }
+    public void compile(RuleTable.Builder table, MedicalRulesProperties rules, ConditionProfile profile) {
+        MedicalRulesProperties.HeartRate heartRate = rules.getHeartRate();
+        MedicalRulesProperties.Range normal = heartRate.rangeFor(profile);
         
-        return Optional.empty();
+        table.above(ALERT_TYPE, Vital.HEART_RATE, heartRate.getCriticalHigh(), MedicalAlert.AlertSeverity.CRITICAL, CRITICAL_HIGH_KEY)
+            .below(ALERT_TYPE, Vital.HEART_RATE, heartRate.getCriticalLow(), MedicalAlert.AlertSeverity.CRITICAL, CRITICAL_LOW_KEY)
+            .above(ALERT_TYPE, Vital.HEART_RATE, normal.getMax(), MedicalAlert.AlertSeverity.WARNING, WARNING_HIGH_KEY)
+            .below(ALERT_TYPE, Vital.HEART_RATE, normal.getMin(), MedicalAlert.AlertSeverity.WARNING, WARNING_LOW_KEY);
     }
     
     @Override
     public boolean supports(String alertType) {
-        return "HEART_RATE".equals(alertType);
+        return ALERT_TYPE.equals(alertType);
     }
     
     @Override
@@ -0,0 +1,47 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.config.MedicalRulesProperties;
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.Vital;
+import org.springframework.stereotype.Component;
+
+@Component
+public class HeartRateTrendRule implements WindowedRuleStrategy {
+    
+    private static final String ALERT_TYPE = "HEART_RATE_TREND";
+    private static final String WARNING_KEY = "alert.warning.heart_rate.sustained_high";
+    
+    @Override
+    public String getAlertType() {
+        return ALERT_TYPE;
+    }
+    
+    @Override
+    public Vital getVital() {
+        return Vital.HEART_RATE;
+    }
+    
+    @Override
+    public long getWindowMillis(MedicalRulesProperties rules) {
+        return rules.getTrends().getHeartRateSustained().getWindow().toMillis();
+    }
+    
+    @Override
+    public void evaluate(RingWindow window, MedicalRulesProperties rules, RuleResultSink sink) {
+        MedicalRulesProperties.Sustained sustained = rules.getTrends().getHeartRateSustained();
+        // Every sample for the whole window above the threshold
+        if (window.coveredMillis() >= sustained.getWindow().toMillis() && window.min() > sustained.getAbove()) {
+            sink.add(ALERT_TYPE, MedicalAlert.AlertSeverity.WARNING, WARNING_KEY);
+        }
+    }
+    
+    @Override
+    public int getPriority() {
+        return 9;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Detects heart rate staying above the threshold for the whole trend window";
+    }
+}
@@ -1,12 +1,15 @@
 package com.medical.alerts.strategy;
 
-import com.medical.alerts.model.MedicalAlert;
-import com.medical.alerts.model.PatientVitalSigns;
-import java.util.Optional;
+import com.medical.alerts.config.MedicalRulesProperties;
 
 public interface MedicalRuleStrategy {
     
-    Optional<MedicalAlert> evaluate(PatientVitalSigns vitalSigns, String patientCondition);
+    /**
+     * Contributes this rule's threshold rows to the rule table being compiled for the given
+     * condition profile. Called once per profile at startup and on every rules reload,
+     * never per reading.
+     */
+    void compile(RuleTable.Builder table, MedicalRulesProperties rules, ConditionProfile profile);
     
     boolean supports(String alertType);
     
@@ -1,52 +1,28 @@
 package com.medical.alerts.strategy;
 
+import com.medical.alerts.config.MedicalRulesProperties;
 import com.medical.alerts.model.MedicalAlert;
-import com.medical.alerts.model.PatientVitalSigns;
-import lombok.extern.slf4j.Slf4j;
+import com.medical.alerts.model.Vital;
 import org.springframework.stereotype.Component;
-import java.math.BigDecimal;
-import java.util.Optional;
 
-@Slf4j
 @Component
 public class OxygenSaturationRule implements MedicalRuleStrategy {
     
-    private static final BigDecimal CRITICAL_THRESHOLD = new BigDecimal("92");
-    private static final BigDecimal WARNING_THRESHOLD = new BigDecimal("94");
+    private static final String ALERT_TYPE = "OXYGEN_SATURATION";
+    private static final String CRITICAL_KEY = "alert.critical.oxygen.saturation";
+    private static final String WARNING_KEY = "alert.warning.oxygen.saturation";
     
     @Override
-    public Optional<MedicalAlert> evaluate(PatientVitalSigns vitalSigns, String patientCondition) {
-        if (vitalSigns.getOxygenSaturation() == null) {
-            return Optional.empty();
-        }
+    public void compile(RuleTable.Builder table, MedicalRulesProperties rules, ConditionProfile profile) {
+        MedicalRulesProperties.OxygenSaturation oxygen = rules.getOxygenSaturation();
         
-        BigDecimal oxygenSaturation = vitalSigns.getOxygenSaturation();
-        MedicalAlert.AlertSeverity severity = null;
-        
-        if (oxygenSaturation.compareTo(CRITICAL_THRESHOLD) < 0) {
-            severity = MedicalAlert.AlertSeverity.CRITICAL;
-            log.warn("Critical oxygen saturation detected: {}% for patient {}", oxygenSaturation, vitalSigns.getPatientId());
-        } else if (oxygenSaturation.compareTo(WARNING_THRESHOLD) < 0) {
-            severity = MedicalAlert.AlertSeverity.WARNING;
-            log.info("Warning oxygen saturation detected: {}% for patient {}", oxygenSaturation, vitalSigns.getPatientId());
-        }
-        
-        if (severity != null) {
-            MedicalAlert alert = new MedicalAlert();
-            alert.setPatientId(vitalSigns.getPatientId());
-            alert.setSeverity(severity);
-            alert.setAlertType("OXYGEN_SATURATION");
-            alert.setMessageKey("alert." + severity.name().toLowerCase() + ".oxygen.saturation");
-            alert.setRequiresAcknowledgment(severity == MedicalAlert.AlertSeverity.CRITICAL);
-            return Optional.of(alert);
-        }
-        
-        return Optional.empty();
+        table.below(ALERT_TYPE, Vital.OXYGEN_SATURATION, oxygen.getCritical(), MedicalAlert.AlertSeverity.CRITICAL, CRITICAL_KEY)
+            .below(ALERT_TYPE, Vital.OXYGEN_SATURATION, oxygen.getWarning(), MedicalAlert.AlertSeverity.WARNING, WARNING_KEY);
     }
     
     @Override
     public boolean supports(String alertType) {
-        return "OXYGEN_SATURATION".equals(alertType);
+        return ALERT_TYPE.equals(alertType);
     }
     
     @Override
@@ -0,0 +1,46 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.config.MedicalRulesProperties;
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.Vital;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OxygenSaturationTrendRule implements WindowedRuleStrategy {
+    
+    private static final String ALERT_TYPE = "OXYGEN_SATURATION_TREND";
+    private static final String WARNING_KEY = "alert.warning.oxygen.saturation.drop";
+    
+    @Override
+    public String getAlertType() {
+        return ALERT_TYPE;
+    }
+    
+    @Override
+    public Vital getVital() {
+        return Vital.OXYGEN_SATURATION;
+    }
+    
+    @Override
+    public long getWindowMillis(MedicalRulesProperties rules) {
+        return rules.getTrends().getOxygenSaturationDrop().getWindow().toMillis();
+    }
+    
+    @Override
+    public void evaluate(RingWindow window, MedicalRulesProperties rules, RuleResultSink sink) {
+        // Drop from the highest value in the window to the current one
+        if (window.count() > 1 && window.max() - window.newest() >= rules.getTrends().getOxygenSaturationDrop().getDrop()) {
+            sink.add(ALERT_TYPE, MedicalAlert.AlertSeverity.WARNING, WARNING_KEY);
+        }
+    }
+    
+    @Override
+    public int getPriority() {
+        return 10;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Detects a rapid drop in oxygen saturation within the trend window";
+    }
+}
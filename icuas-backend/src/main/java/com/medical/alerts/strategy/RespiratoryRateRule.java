@@ -0,0 +1,39 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.config.MedicalRulesProperties;
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.Vital;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RespiratoryRateRule implements MedicalRuleStrategy {
+    
+    private static final String ALERT_TYPE = "RESPIRATORY_RATE";
+    private static final String CRITICAL_HIGH_KEY = "alert.critical.respiratory_rate.high";
+    private static final String WARNING_HIGH_KEY = "alert.warning.respiratory_rate.high";
+    private static final String WARNING_LOW_KEY = "alert.warning.respiratory_rate.low";
+    
+    @Override
+    public void compile(RuleTable.Builder table, MedicalRulesProperties rules, ConditionProfile profile) {
+        MedicalRulesProperties.RespiratoryRate respiratoryRate = rules.getRespiratoryRate();
+        
+        table.above(ALERT_TYPE, Vital.RESPIRATORY_RATE, respiratoryRate.getCriticalHigh(), MedicalAlert.AlertSeverity.CRITICAL, CRITICAL_HIGH_KEY)
+            .above(ALERT_TYPE, Vital.RESPIRATORY_RATE, respiratoryRate.getNormalMax(), MedicalAlert.AlertSeverity.WARNING, WARNING_HIGH_KEY)
+            .below(ALERT_TYPE, Vital.RESPIRATORY_RATE, respiratoryRate.getNormalMin(), MedicalAlert.AlertSeverity.WARNING, WARNING_LOW_KEY);
+    }
+    
+    @Override
+    public boolean supports(String alertType) {
+        return ALERT_TYPE.equals(alertType);
+    }
+    
+    @Override
+    public int getPriority() {
+        return 7;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Monitors respiratory rate for tachypnea and bradypnea";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+package com.medical.alerts.strategy;
+
+/**
+ * Ring buffer of recent (timestamp, value) samples of one vital for one patient, with aggregates
+ * maintained incrementally: count, mean and least-squares slope from running sums, min and max
+ * from monotonic deques. Adding a sample and reading any aggregate is O(1) amortized and
+ * allocation free once the buffer has reached its size.
+ * <p>
+ * The window keeps the newest samples within the requested span plus the newest sample at or
+ * before the span start, so once enough history exists {@link #coveredMillis()} reaches the
+ * span and "sustained for N minutes" can be decided exactly. When full, it doubles up to its
+ * maximum capacity rather than drop a sample still needed to cover the span; past that, the
+ * oldest sample is dropped. Not thread-safe.
+ */
+public final class RingWindow {
+
+    /** Largest capacity of any window, e.g. five minutes of samples at over 200 Hz. */
+    public static final int MAX_CAPACITY = 1 << 16;
+
+    private final int maxCapacity;
+    private long[] times;
+    private double[] values;
+    private int mask;
+
+    // Samples are addressed by absolute sequence number; slot = seq & mask
+    private long first;
+    private long next;
+
+    // Monotonic deques of sequence numbers (max: decreasing values, min: increasing values)
+    private long[] maxDeque;
+    private long[] minDeque;
+    private long maxHead;
+    private long maxTail;
+    private long minHead;
+    private long minTail;
+
+    // Running sums for mean and slope, with time in seconds relative to baseTime
+    private long baseTime;
+    private double sumV;
+    private double sumT;
+    private double sumTT;
+    private double sumTV;
+    private int removalsSinceRebase;
+
+    /** A window of fixed capacity. */
+    public RingWindow(int capacity) {
+        this(capacity, capacity);
+    }
+
+    /**
+     * @param capacity    samples held before the window first grows
+     * @param maxCapacity samples held at most
+     */
+    public RingWindow(int capacity, int maxCapacity) {
+        if (capacity > maxCapacity || maxCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Invalid window capacity " + capacity + " growing to "
+                + maxCapacity + "; windows hold at most " + MAX_CAPACITY + " samples");
+        }
+        int size = sizeFor(capacity);
+        this.maxCapacity = sizeFor(maxCapacity);
+        this.times = new long[size];
+        this.values = new double[size];
+        this.maxDeque = new long[size];
+        this.minDeque = new long[size];
+        this.mask = size - 1;
+    }
+
+    private static int sizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    }
+
+    /**
+     * Appends a sample and evicts samples that fell out of the span or the capacity.
+     * Samples older than the newest one are ignored.
+     *
+     * @return whether the sample was added
+     */
+    public boolean add(long timeMillis, double value, long spanMillis) {
+        if (Double.isNaN(value) || (count() > 0 && timeMillis < newestTime())) {
+            return false;
+        }
+        if (count() == times.length) {
+            // The second oldest sample is past the span start: dropping the oldest loses coverage
+            if (times.length < maxCapacity && times[slot(first + 1)] > timeMillis - spanMillis) {
+                grow();
+            } else {
+                removeFirst();
+            }
+        }
+        if (count() == 0) {
+            baseTime = timeMillis;
+        }
+
+        long seq = next++;
+        int slot = (int) (seq & mask);
+        times[slot] = timeMillis;
+        values[slot] = value;
+
+        while (maxTail > maxHead && values[slot(maxDeque[(int) ((maxTail - 1) & mask)])] <= value) {
+            maxTail--;
+        }
+        maxDeque[(int) (maxTail++ & mask)] = seq;
+        while (minTail > minHead && values[slot(minDeque[(int) ((minTail - 1) & mask)])] >= value) {
+            minTail--;
+        }
+        minDeque[(int) (minTail++ & mask)] = seq;
+
+        double t = seconds(timeMillis);
+        sumV += value;
+        sumT += t;
+        sumTT += t * t;
+        sumTV += t * value;
+
+        // Keep one sample at or before the span start, drop anything older
+        long spanStart = timeMillis - spanMillis;
+        while (count() > 1 && times[slot(first + 1)] <= spanStart) {
+            removeFirst();
+        }
+        return true;
+    }
+
+    public int count() {
+        return (int) (next - first);
+    }
+
+    /** Samples the window holds before it grows again or drops its oldest sample. */
+    public int capacity() {
+        return times.length;
+    }
+
+    public double newest() {
+        return values[slot(next - 1)];
+    }
+
+    public long newestTime() {
+        return times[slot(next - 1)];
+    }
+
+    public double oldest() {
+        return values[slot(first)];
+    }
+
+    /** Time between the oldest and the newest sample. */
+    public long coveredMillis() {
+        return count() == 0 ? 0 : newestTime() - times[slot(first)];
+    }
+
+    public double max() {
+        return count() == 0 ? Double.NaN : values[slot(maxDeque[(int) (maxHead & mask)])];
+    }
+
+    public double min() {
+        return count() == 0 ? Double.NaN : values[slot(minDeque[(int) (minHead & mask)])];
+    }
+
+    public double mean() {
+        return count() == 0 ? Double.NaN : sumV / count();
+    }
+
+    /** Least-squares slope in units per minute, or NaN with fewer than two distinct timestamps. */
+    public double slopePerMinute() {
+        int n = count();
+        double denominator = n * sumTT - sumT * sumT;
+        if (n < 2 || denominator <= 1e-9) {
+            return Double.NaN;
+        }
+        return (n * sumTV - sumT * sumV) / denominator * 60.0;
+    }
+
+    public void clear() {
+        first = next;
+        maxHead = maxTail;
+        minHead = minTail;
+        sumV = sumT = sumTT = sumTV = 0;
+        removalsSinceRebase = 0;
+    }
+
+    private void removeFirst() {
+        long seq = first++;
+        int slot = slot(seq);
+        if (maxTail > maxHead && maxDeque[(int) (maxHead & mask)] == seq) {
+            maxHead++;
+        }
+        if (minTail > minHead && minDeque[(int) (minHead & mask)] == seq) {
+            minHead++;
+        }
+
+        double t = seconds(times[slot]);
+        double value = values[slot];
+        sumV -= value;
+        sumT -= t;
+        sumTT -= t * t;
+        sumTV -= t * value;
+
+        // Subtracting accumulates rounding error and the base drifts away from the samples,
+        // so recompute the sums from the buffer once per capacity worth of removals
+        if (++removalsSinceRebase >= times.length) {
+            rebase();
+        }
+    }
+
+    private void grow() {
+        int size = times.length * 2;
+        int newMask = size - 1;
+        long[] newTimes = new long[size];
+        double[] newValues = new double[size];
+        long[] newMaxDeque = new long[size];
+        long[] newMinDeque = new long[size];
+        // Sequence numbers and deque positions stay; only their slots move
+        for (long seq = first; seq < next; seq++) {
+            newTimes[(int) (seq & newMask)] = times[slot(seq)];
+            newValues[(int) (seq & newMask)] = values[slot(seq)];
+        }
+        for (long position = maxHead; position < maxTail; position++) {
+            newMaxDeque[(int) (position & newMask)] = maxDeque[(int) (position & mask)];
+        }
+        for (long position = minHead; position < minTail; position++) {
+            newMinDeque[(int) (position & newMask)] = minDeque[(int) (position & mask)];
+        }
+        times = newTimes;
+        values = newValues;
+        maxDeque = newMaxDeque;
+        minDeque = newMinDeque;
+        mask = newMask;
+    }
+
+    private void rebase() {
+        removalsSinceRebase = 0;
+        sumV = sumT = sumTT = sumTV = 0;
+        if (count() == 0) {
+            return;
+        }
+        baseTime = times[slot(first)];
+        for (long seq = first; seq < next; seq++) {
+            int slot = slot(seq);
+            double t = seconds(times[slot]);
+            sumV += values[slot];
+            sumT += t;
+            sumTT += t * t;
+            sumTV += t * values[slot];
+        }
+    }
+
+    private double seconds(long timeMillis) {
+        return (timeMillis - baseTime) / 1000.0;
+    }
+
+    private int slot(long seq) {
+        return (int) (seq & mask);
+    }
+}
@@ -0,0 +1,60 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.model.MedicalAlert;
+
+import java.util.Arrays;
+
+/**
+ * Reusable collector for rule matches. Rules record matches as (alert type, severity, message key)
+ * triples and {@link MedicalAlert} entities are only materialized by the alert state machine when
+ * something matched, so evaluating a normal reading does not allocate.
+ */
+public final class RuleResultSink {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private String[] alertTypes = new String[INITIAL_CAPACITY];
+    private MedicalAlert.AlertSeverity[] severities = new MedicalAlert.AlertSeverity[INITIAL_CAPACITY];
+    private String[] messageKeys = new String[INITIAL_CAPACITY];
+    private int size;
+
+    public void add(String alertType, MedicalAlert.AlertSeverity severity, String messageKey) {
+        if (size == alertTypes.length) {
+            int capacity = size * 2;
+            alertTypes = Arrays.copyOf(alertTypes, capacity);
+            severities = Arrays.copyOf(severities, capacity);
+            messageKeys = Arrays.copyOf(messageKeys, capacity);
+        }
+        alertTypes[size] = alertType;
+        severities[size] = severity;
+        messageKeys[size] = messageKey;
+        size++;
+    }
+
+    public void clear() {
+        Arrays.fill(alertTypes, 0, size, null);
+        Arrays.fill(severities, 0, size, null);
+        Arrays.fill(messageKeys, 0, size, null);
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String alertType(int index) {
+        return alertTypes[index];
+    }
+
+    public MedicalAlert.AlertSeverity severity(int index) {
+        return severities[index];
+    }
+
+    public String messageKey(int index) {
+        return messageKeys[index];
+    }
+}
@@ -0,0 +1,178 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.Vital;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flat, priority-ordered threshold table compiled from the registered {@link MedicalRuleStrategy}
+ * beans. Rows are grouped per strategy; groups are ordered by descending priority and rows inside
+ * a group by descending severity, so the first matching row of a group is the alert for that
+ * group and the rest of the group is skipped. Instances are immutable and safe to share.
+ */
+public final class RuleTable {
+
+    private static final int BELOW = 0;
+    private static final int ABOVE = 1;
+
+    private final int[] vitals;
+    private final int[] operators;
+    private final double[] thresholds;
+    private final int[] groupEnds;
+    private final String[] alertTypes;
+    private final MedicalAlert.AlertSeverity[] severities;
+    private final String[] messageKeys;
+    // Alert type -> bit mask of the vitals its rules look at, including non-threshold rules
+    private final Map<String, Integer> observedVitals;
+
+    private RuleTable(List<Row> rows, Map<String, Integer> observedVitals) {
+        int size = rows.size();
+        vitals = new int[size];
+        operators = new int[size];
+        thresholds = new double[size];
+        groupEnds = new int[size];
+        alertTypes = new String[size];
+        severities = new MedicalAlert.AlertSeverity[size];
+        messageKeys = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            Row row = rows.get(i);
+            vitals[i] = row.vital.ordinal();
+            operators[i] = row.operator;
+            thresholds[i] = row.threshold;
+            alertTypes[i] = row.alertType.intern();
+            severities[i] = row.severity;
+            messageKeys[i] = row.messageKey.intern();
+            observedVitals.merge(row.alertType, 1 << row.vital.ordinal(), (a, b) -> a | b);
+        }
+        this.observedVitals = Map.copyOf(observedVitals);
+        for (int i = 0; i < size; i++) {
+            int end = i;
+            while (end + 1 < size && rows.get(end + 1).group == rows.get(i).group) {
+                end++;
+            }
+            groupEnds[i] = end;
+        }
+    }
+
+    public void evaluate(VitalReading reading, RuleResultSink sink) {
+        final int size = vitals.length;
+        for (int i = 0; i < size; i++) {
+            double value = reading.get(vitals[i]);
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            boolean matched = operators[i] == BELOW ? value < thresholds[i] : value > thresholds[i];
+            if (matched) {
+                sink.add(alertTypes[i], severities[i], messageKeys[i]);
+                i = groupEnds[i];
+            }
+        }
+    }
+
+    /**
+     * Whether the reading carries any vital checked by rules of the given alert type, i.e. whether
+     * the absence of a match for that type means the condition is actually normal.
+     */
+    public boolean observes(String alertType, VitalReading reading) {
+        Integer mask = observedVitals.get(alertType);
+        if (mask == null) {
+            return false;
+        }
+        for (int vital = 0; vital < Vital.COUNT; vital++) {
+            if ((mask & (1 << vital)) != 0 && !Double.isNaN(reading.get(vital))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return vitals.length;
+    }
+
+    public List<RuleDefinition> describe() {
+        List<RuleDefinition> definitions = new ArrayList<>(vitals.length);
+        for (int i = 0; i < vitals.length; i++) {
+            definitions.add(new RuleDefinition(alertTypes[i], severities[i], Vital.values()[vitals[i]],
+                operators[i] == BELOW ? "<" : ">", thresholds[i], messageKeys[i]));
+        }
+        return definitions;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public record RuleDefinition(String alertType, MedicalAlert.AlertSeverity severity, Vital vital,
+                                 String operator, double threshold, String messageKey) {
+    }
+
+    private record Row(int group, int priority, String alertType, Vital vital, int operator,
+                       double threshold, MedicalAlert.AlertSeverity severity, String messageKey) {
+    }
+
+    public static final class Builder {
+
+        private final List<Row> rows = new ArrayList<>();
+        private final Map<String, Integer> observedVitals = new HashMap<>();
+        private int group = -1;
+        private int priority;
+
+        private Builder() {
+        }
+
+        /**
+         * Starts a new rule group; at most one alert is raised per group and reading.
+         */
+        public Builder group(int priority) {
+            this.group++;
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder below(String alertType, Vital vital, double threshold,
+                             MedicalAlert.AlertSeverity severity, String messageKey) {
+            return add(alertType, vital, BELOW, threshold, severity, messageKey);
+        }
+
+        public Builder above(String alertType, Vital vital, double threshold,
+                             MedicalAlert.AlertSeverity severity, String messageKey) {
+            return add(alertType, vital, ABOVE, threshold, severity, messageKey);
+        }
+
+        /**
+         * Registers an alert type raised outside the table (e.g. by a trend rule) so that
+         * {@link RuleTable#observes} knows which vitals it depends on.
+         */
+        public Builder observe(String alertType, Vital vital) {
+            observedVitals.merge(alertType, 1 << vital.ordinal(), (a, b) -> a | b);
+            return this;
+        }
+
+        private Builder add(String alertType, Vital vital, int operator, double threshold,
+                            MedicalAlert.AlertSeverity severity, String messageKey) {
+            if (group < 0) {
+                throw new IllegalStateException("group() must be called before adding rules");
+            }
+            if (Double.isNaN(threshold)) {
+                throw new IllegalArgumentException("Threshold for " + alertType + " must be a number");
+            }
+            rows.add(new Row(group, priority, alertType, vital, operator, threshold, severity, messageKey));
+            return this;
+        }
+
+        public RuleTable build() {
+            List<Row> ordered = new ArrayList<>(rows);
+            ordered.sort(Comparator.comparingInt(Row::priority).reversed()
+                .thenComparingInt(Row::group)
+                .thenComparing(Row::severity));
+            return new RuleTable(ordered, new HashMap<>(observedVitals));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.config.MedicalRulesProperties;
+import com.medical.alerts.model.Vital;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles the registered {@link MedicalRuleStrategy} beans and the {@code medical.rules.*}
+ * thresholds into one {@link RuleTable} per {@link ConditionProfile}. The compiled tables are
+ * swapped atomically on reload, so readers never see a partially built table and never lock.
+ * Rules whose trend windows cannot be held in a {@link RingWindow} are rejected, at startup or on
+ * reload.
+ */
+@Slf4j
+@Component
+public class RuleTableCompiler {
+
+    private final List<MedicalRuleStrategy> strategies;
+    private final List<WindowedRuleStrategy> windowedStrategies;
+    private final Environment environment;
+
+    private volatile MedicalRulesProperties rules;
+    private volatile RuleTable[] tables;
+
+    public RuleTableCompiler(List<MedicalRuleStrategy> strategies, List<WindowedRuleStrategy> windowedStrategies,
+                             MedicalRulesProperties rules, Environment environment) {
+        this.strategies = List.copyOf(strategies);
+        this.windowedStrategies = List.copyOf(windowedStrategies);
+        this.environment = environment;
+        reload(rules);
+    }
+
+    public RuleTable getTable(ConditionProfile profile) {
+        return tables[profile.ordinal()];
+    }
+
+    public MedicalRulesProperties getRules() {
+        return rules;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a trend window is not positive or does not fit a
+     *                                  {@link RingWindow} at the configured sample rate
+     */
+    public synchronized void reload(MedicalRulesProperties newRules) {
+        validateTrendWindows(newRules);
+        ConditionProfile[] profiles = ConditionProfile.values();
+        RuleTable[] compiled = new RuleTable[profiles.length];
+        for (ConditionProfile profile : profiles) {
+            compiled[profile.ordinal()] = compile(newRules, profile);
+        }
+        this.rules = newRules;
+        this.tables = compiled;
+        log.info("Compiled medical rule tables: {} rules from {} strategies for {} condition profiles",
+            compiled[0].size(), strategies.size(), profiles.length);
+    }
+
+    /**
+     * Re-binds {@code medical.rules.*} from the current environment and recompiles.
+     */
+    public void reloadFromEnvironment() {
+        MedicalRulesProperties boundRules = Binder.get(environment)
+            .bind(MedicalRulesProperties.PREFIX, MedicalRulesProperties.class)
+            .orElseGet(MedicalRulesProperties::new);
+        reload(boundRules);
+    }
+
+    public Map<ConditionProfile, List<RuleTable.RuleDefinition>> describe() {
+        RuleTable[] current = tables;
+        Map<ConditionProfile, List<RuleTable.RuleDefinition>> definitions = new EnumMap<>(ConditionProfile.class);
+        for (ConditionProfile profile : ConditionProfile.values()) {
+            definitions.put(profile, current[profile.ordinal()].describe());
+        }
+        return definitions;
+    }
+
+    private void validateTrendWindows(MedicalRulesProperties newRules) {
+        double sampleRate = newRules.getTrends().getMaxSampleRate();
+        if (!(sampleRate > 0)) {
+            throw new IllegalArgumentException("medical.rules.trends.max-sample-rate must be positive: " + sampleRate);
+        }
+        for (WindowedRuleStrategy strategy : windowedStrategies) {
+            long windowMillis = strategy.getWindowMillis(newRules);
+            if (windowMillis <= 0) {
+                throw new IllegalArgumentException("Trend window of " + strategy.getAlertType() + " must be positive");
+            }
+            long capacity = TrendRuleEngine.capacityFor(windowMillis, sampleRate);
+            if (capacity > RingWindow.MAX_CAPACITY) {
+                throw new IllegalArgumentException("Trend window of " + strategy.getAlertType() + " needs " + capacity
+                    + " samples at " + sampleRate + " readings per second, more than the " + RingWindow.MAX_CAPACITY
+                    + " a window holds");
+            }
+        }
+    }
+
+    private RuleTable compile(MedicalRulesProperties source, ConditionProfile profile) {
+        RuleTable.Builder builder = RuleTable.builder();
+        for (MedicalRuleStrategy strategy : strategies) {
+            builder.group(strategy.getPriority());
+            strategy.compile(builder, source, profile);
+        }
+        // Trend and early warning alerts are raised outside the table but resolve like table alerts
+        for (WindowedRuleStrategy strategy : windowedStrategies) {
+            builder.observe(strategy.getAlertType(), strategy.getVital());
+        }
+        for (Vital vital : EarlyWarningScorer.SCORED_VITALS) {
+            builder.observe(EarlyWarningScorer.ALERT_TYPE, vital);
+        }
+        return builder.build();
+    }
+}
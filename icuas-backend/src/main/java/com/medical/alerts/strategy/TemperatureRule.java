@@ -0,0 +1,39 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.config.MedicalRulesProperties;
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.Vital;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TemperatureRule implements MedicalRuleStrategy {
+    
+    private static final String ALERT_TYPE = "TEMPERATURE";
+    private static final String CRITICAL_HIGH_KEY = "alert.critical.temperature.high";
+    private static final String CRITICAL_LOW_KEY = "alert.critical.temperature.low";
+    private static final String WARNING_HIGH_KEY = "alert.warning.temperature.high";
+    
+    @Override
+    public void compile(RuleTable.Builder table, MedicalRulesProperties rules, ConditionProfile profile) {
+        MedicalRulesProperties.Temperature temperature = rules.getTemperature();
+        
+        table.above(ALERT_TYPE, Vital.TEMPERATURE, temperature.getHyperthermia(), MedicalAlert.AlertSeverity.CRITICAL, CRITICAL_HIGH_KEY)
+            .below(ALERT_TYPE, Vital.TEMPERATURE, temperature.getHypothermia(), MedicalAlert.AlertSeverity.CRITICAL, CRITICAL_LOW_KEY)
+            .above(ALERT_TYPE, Vital.TEMPERATURE, temperature.getFever(), MedicalAlert.AlertSeverity.WARNING, WARNING_HIGH_KEY);
+    }
+    
+    @Override
+    public boolean supports(String alertType) {
+        return ALERT_TYPE.equals(alertType);
+    }
+    
+    @Override
+    public int getPriority() {
+        return 6;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Monitors body temperature for fever, hyperthermia and hypothermia";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.config.MedicalRulesProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates the {@link WindowedRuleStrategy} beans. Keeps one {@link RingWindow} per patient and
+ * rule, fed from every evaluated reading, so trend rules see recent history without querying
+ * {@code patient_vital_signs}. Windows live only in memory and refill after a restart. Each is
+ * sized to hold its rule's window at {@code medical.rules.trends.max-sample-rate}, and grows if
+ * readings come faster or the window is lengthened.
+ * <p>
+ * A patient's windows are not synchronized: all readings of a patient must be evaluated on the
+ * same thread (its patient shard).
+ */
+@Component
+public class TrendRuleEngine {
+
+    private final List<WindowedRuleStrategy> strategies;
+    private final RuleTableCompiler ruleTableCompiler;
+
+    private final Map<String, RingWindow[]> windows = new ConcurrentHashMap<>();
+
+    public TrendRuleEngine(List<WindowedRuleStrategy> strategies, RuleTableCompiler ruleTableCompiler) {
+        List<WindowedRuleStrategy> ordered = new ArrayList<>(strategies);
+        ordered.sort(Comparator.comparingInt(WindowedRuleStrategy::getPriority).reversed());
+        this.strategies = List.copyOf(ordered);
+        this.ruleTableCompiler = ruleTableCompiler;
+    }
+
+    /**
+     * Adds the reading to the patient's windows and records trend matches in the sink.
+     */
+    public void evaluate(VitalReading reading, RuleResultSink sink) {
+        if (strategies.isEmpty()) {
+            return;
+        }
+        MedicalRulesProperties rules = ruleTableCompiler.getRules();
+        RingWindow[] patientWindows = windows.get(reading.getPatientId());
+        if (patientWindows == null) {
+            patientWindows = windows.computeIfAbsent(reading.getPatientId(), id -> newWindows(rules));
+        }
+
+        for (int i = 0; i < patientWindows.length; i++) {
+            WindowedRuleStrategy strategy = strategies.get(i);
+            double value = reading.get(strategy.getVital());
+            if (!Double.isNaN(value)
+                    && patientWindows[i].add(reading.getTimestampMillis(), value, strategy.getWindowMillis(rules))) {
+                strategy.evaluate(patientWindows[i], rules, sink);
+            }
+        }
+    }
+
+    /**
+     * Drops the windows of a patient, e.g. after discharge.
+     */
+    public void evict(String patientId) {
+        windows.remove(patientId);
+    }
+
+    public void evictIf(Predicate<String> patientFilter) {
+        windows.keySet().removeIf(patientFilter);
+    }
+
+    /**
+     * Samples a window must hold to span {@code windowMillis} at {@code samplesPerSecond}: those
+     * within the span plus the one at its start.
+     */
+    public static long capacityFor(long windowMillis, double samplesPerSecond) {
+        return (long) Math.ceil(windowMillis / 1000.0 * samplesPerSecond) + 1;
+    }
+
+    private RingWindow[] newWindows(MedicalRulesProperties rules) {
+        RingWindow[] patientWindows = new RingWindow[strategies.size()];
+        for (int i = 0; i < patientWindows.length; i++) {
+            long capacity = capacityFor(strategies.get(i).getWindowMillis(rules), rules.getTrends().getMaxSampleRate());
+            patientWindows[i] = new RingWindow((int) capacity, RingWindow.MAX_CAPACITY);
+        }
+        return patientWindows;
+    }
+}
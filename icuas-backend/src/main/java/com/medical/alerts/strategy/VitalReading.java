@@ -0,0 +1,58 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.Vital;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Mutable, primitive view of a single vital signs reading used on the rule evaluation path.
+ * Missing values are represented as {@link Double#NaN}. Instances are meant to be reused
+ * per thread, so they must not be retained after evaluation returns.
+ */
+public final class VitalReading {
+
+    private final double[] values = new double[Vital.COUNT];
+    private String patientId;
+    private long timestampMillis;
+
+    public VitalReading load(PatientVitalSigns vitalSigns) {
+        this.patientId = vitalSigns.getPatientId();
+        LocalDateTime timestamp = vitalSigns.getTimestamp() != null ? vitalSigns.getTimestamp() : LocalDateTime.now();
+        // Only differences between readings matter, so the zone is irrelevant
+        this.timestampMillis = timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+        values[Vital.HEART_RATE.ordinal()] = toDouble(vitalSigns.getHeartRate());
+        values[Vital.OXYGEN_SATURATION.ordinal()] = toDouble(vitalSigns.getOxygenSaturation());
+        values[Vital.SYSTOLIC_BP.ordinal()] = toDouble(vitalSigns.getSystolicBP());
+        values[Vital.DIASTOLIC_BP.ordinal()] = toDouble(vitalSigns.getDiastolicBP());
+        values[Vital.TEMPERATURE.ordinal()] = toDouble(vitalSigns.getTemperature());
+        values[Vital.RESPIRATORY_RATE.ordinal()] = toDouble(vitalSigns.getRespiratoryRate());
+        return this;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public double get(Vital vital) {
+        return values[vital.ordinal()];
+    }
+
+    public double get(int vitalIndex) {
+        return values[vitalIndex];
+    }
+
+    public boolean has(Vital vital) {
+        return !Double.isNaN(values[vital.ordinal()]);
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+}
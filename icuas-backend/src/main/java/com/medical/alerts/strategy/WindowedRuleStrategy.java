@@ -0,0 +1,31 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.config.MedicalRulesProperties;
+import com.medical.alerts.model.Vital;
+
+/**
+ * Rule over the recent history of one vital rather than a single reading, e.g. a drop or a
+ * sustained excursion. The {@link TrendRuleEngine} keeps one {@link RingWindow} per patient and
+ * rule in memory, so evaluation never reads past readings from the database.
+ */
+public interface WindowedRuleStrategy {
+    
+    /** The alert type raised by this rule; at most one alert per reading. */
+    String getAlertType();
+    
+    /** The vital whose samples are collected into this rule's window. */
+    Vital getVital();
+    
+    /** How much history the window must keep. Read on every reading, so reloads apply immediately. */
+    long getWindowMillis(MedicalRulesProperties rules);
+    
+    /**
+     * Evaluates the window after the current sample has been added.
+     * Called only when the current reading carries this rule's vital.
+     */
+    void evaluate(RingWindow window, MedicalRulesProperties rules, RuleResultSink sink);
+    
+    int getPriority();
+    
+    String getDescription();
+}
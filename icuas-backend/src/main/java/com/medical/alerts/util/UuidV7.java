@@ -0,0 +1,29 @@
+package com.medical.alerts.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered version 7 UUIDs (RFC 9562): a 48-bit Unix millisecond timestamp, a 12-bit
+ * counter and 62 random bits. IDs from this process are strictly increasing; when more than 4096
+ * are generated in one millisecond the counter carries into the timestamp. Stored as BINARY(16),
+ * new rows are appended to the end of the clustered index instead of splitting random pages.
+ */
+public final class UuidV7 {
+
+    // Unix millis << 12 | counter of the last generated ID
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long candidate = System.currentTimeMillis() << 12;
+        long state = LAST.updateAndGet(last -> Math.max(candidate, last + 1));
+
+        long mostSignificant = (state >>> 12) << 16 | 0x7000L | (state & 0xFFFL);
+        long leastSignificant = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
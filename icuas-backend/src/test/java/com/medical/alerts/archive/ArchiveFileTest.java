@@ -0,0 +1,102 @@
+package com.medical.alerts.archive;
+
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.Vital;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArchiveFileTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsReadingsOfADay() throws IOException {
+        ArchiveFile.Writer writer = new ArchiveFile.Writer();
+        for (int i = 0; i < 1440; i++) {
+            BigDecimal[] vitals = new BigDecimal[Vital.COUNT];
+            vitals[Vital.HEART_RATE.ordinal()] = BigDecimal.valueOf(60 + i % 40);
+            vitals[Vital.TEMPERATURE.ordinal()] = new BigDecimal("36.85");
+            if (i % 10 == 0) {
+                vitals[Vital.SYSTOLIC_BP.ordinal()] = new BigDecimal("118.50");
+            }
+            writer.add(DAY.plusMinutes(i).plusNanos(i % 3 * 1_000_000L), vitals,
+                i < 720 ? PatientVitalSigns.DataSource.MONITOR : PatientVitalSigns.DataSource.IOT_DEVICE);
+        }
+        Path file = write(writer);
+
+        List<LocalDateTime> timestamps = new ArrayList<>();
+        List<double[]> rows = new ArrayList<>();
+        List<PatientVitalSigns.DataSource> sources = new ArrayList<>();
+        ArchiveFile.read(file, DAY, DAY.plusDays(1), (timestamp, values, source) -> {
+            timestamps.add(timestamp);
+            rows.add(values.clone());
+            sources.add(source);
+        });
+
+        assertThat(writer.count()).isEqualTo(1440);
+        assertThat(timestamps).hasSize(1440);
+        assertThat(timestamps.get(1)).isEqualTo(DAY.plusMinutes(1).plusNanos(1_000_000));
+        assertThat(rows.get(25)[Vital.HEART_RATE.ordinal()]).isEqualTo(85);
+        assertThat(rows.get(25)[Vital.TEMPERATURE.ordinal()]).isEqualTo(36.85);
+        assertThat(rows.get(25)[Vital.SYSTOLIC_BP.ordinal()]).isNaN();
+        assertThat(rows.get(30)[Vital.SYSTOLIC_BP.ordinal()]).isEqualTo(118.5);
+        assertThat(rows.get(30)[Vital.OXYGEN_SATURATION.ordinal()]).isNaN();
+        assertThat(sources.get(719)).isEqualTo(PatientVitalSigns.DataSource.MONITOR);
+        assertThat(sources.get(720)).isEqualTo(PatientVitalSigns.DataSource.IOT_DEVICE);
+        assertThat(sources.get(1439)).isEqualTo(PatientVitalSigns.DataSource.IOT_DEVICE);
+    }
+
+    @Test
+    void readsOnlyTheRequestedRange() throws IOException {
+        ArchiveFile.Writer writer = new ArchiveFile.Writer();
+        for (int i = 0; i < 24; i++) {
+            BigDecimal[] vitals = new BigDecimal[Vital.COUNT];
+            vitals[Vital.HEART_RATE.ordinal()] = BigDecimal.valueOf(i);
+            writer.add(DAY.plusHours(i), vitals,
+                i < 7 ? PatientVitalSigns.DataSource.MONITOR : PatientVitalSigns.DataSource.MANUAL);
+        }
+        Path file = write(writer);
+
+        List<Double> heartRates = new ArrayList<>();
+        List<PatientVitalSigns.DataSource> sources = new ArrayList<>();
+        ArchiveFile.read(file, DAY.plusHours(6), DAY.plusHours(9), (timestamp, values, source) -> {
+            heartRates.add(values[Vital.HEART_RATE.ordinal()]);
+            sources.add(source);
+        });
+
+        assertThat(heartRates).containsExactly(6.0, 7.0, 8.0);
+        assertThat(sources).containsExactly(PatientVitalSigns.DataSource.MONITOR,
+            PatientVitalSigns.DataSource.MANUAL, PatientVitalSigns.DataSource.MANUAL);
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = Files.write(directory.resolve("other.bin"), new byte[64]);
+
+        assertThatThrownBy(() -> ArchiveFile.read(file, DAY, DAY.plusDays(1), (timestamp, values) -> { }))
+            .isInstanceOf(IOException.class);
+    }
+
+    private Path write(ArchiveFile.Writer writer) throws IOException {
+        Path file = directory.resolve("P-1.vca");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            writer.writeTo(out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,61 @@
+package com.medical.alerts.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimestampCodecTest {
+
+    @Test
+    void roundTripsEveryDeltaOfDeltaBucket() {
+        long[] timestamps = {
+            1_709_294_400_000L,
+            1_709_294_401_000L,
+            1_709_294_402_000L,  // 0
+            1_709_294_403_064L,  // +64
+            1_709_294_404_065L,  // -63
+            1_709_294_405_321L,  // +255
+            1_709_294_406_322L,  // -255
+            1_709_294_409_371L,  // +2048
+            1_709_294_410_373L,  // -2047
+            1_709_294_410_374L,  // -1001
+            1_709_380_800_000L,  // a day later
+            1_709_380_800_000L,  // repeated
+        };
+
+        assertThat(roundTrip(timestamps)).containsExactly(timestamps);
+    }
+
+    @Test
+    void storesASteadyRateInOneBitPerTimestamp() {
+        TimestampCodec.Encoder encoder = new TimestampCodec.Encoder();
+        for (int i = 0; i < 1000; i++) {
+            encoder.add(1_709_294_400_000L + i * 1000L);
+        }
+
+        // 64 bits for the first, '1110' + 12 bits for the first delta, then one bit each
+        assertThat(encoder.output().length()).isEqualTo((64 + 4 + 12 + 998 + 7) / 8);
+    }
+
+    @Test
+    void roundTripsTimestampsBeforeTheEpoch() {
+        long[] timestamps = {-86_400_000L, -1L, 0L, 1L};
+
+        assertThat(roundTrip(timestamps)).containsExactly(timestamps);
+    }
+
+    private static long[] roundTrip(long[] timestamps) {
+        TimestampCodec.Encoder encoder = new TimestampCodec.Encoder();
+        for (long timestamp : timestamps) {
+            encoder.add(timestamp);
+        }
+        TimestampCodec.Decoder decoder = new TimestampCodec.Decoder(new BitInput(ByteBuffer.wrap(encoder.output().bytes()), 0));
+        long[] decoded = new long[timestamps.length];
+        for (int i = 0; i < decoded.length; i++) {
+            decoded[i] = decoder.next();
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,52 @@
+package com.medical.alerts.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValueCodecTest {
+
+    @Test
+    void roundTripsRepeatsChangesAndMissingValues() {
+        double[] values = {7200, 7200, 7250, Double.NaN, Double.NaN, 7250, -150, 0, 3685, 1e12, Double.MIN_VALUE, 7200};
+
+        assertThat(roundTrip(values)).containsExactly(values);
+    }
+
+    @Test
+    void roundTripsRandomScaledVitals() {
+        Random random = new Random(7);
+        double[] values = new double[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(5) == 0 ? Double.NaN : 3000 + random.nextInt(1500);
+        }
+
+        assertThat(roundTrip(values)).containsExactly(values);
+    }
+
+    @Test
+    void storesARepeatedValueInOneBit() {
+        ValueCodec.Encoder encoder = new ValueCodec.Encoder();
+        for (int i = 0; i < 800; i++) {
+            encoder.add(9700);
+        }
+
+        assertThat(encoder.output().length()).isEqualTo((64 + 799 + 7) / 8);
+    }
+
+    private static double[] roundTrip(double[] values) {
+        ValueCodec.Encoder encoder = new ValueCodec.Encoder();
+        for (double value : values) {
+            encoder.add(value);
+        }
+        ValueCodec.Decoder decoder = new ValueCodec.Decoder(new BitInput(ByteBuffer.wrap(encoder.output().bytes()), 0));
+        double[] decoded = new double[values.length];
+        for (int i = 0; i < decoded.length; i++) {
+            decoded[i] = decoder.next();
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,83 @@
+package com.medical.alerts.archive;
+
+import com.medical.alerts.config.ArchiveProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VitalsArchiveTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    @TempDir
+    Path directory;
+
+    private final ArchiveProperties properties = new ArchiveProperties();
+    private final List<String> runs = new ArrayList<>();
+    private VitalsArchive archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties.setDirectory(directory);
+        archive = new VitalsArchive(properties, null);
+        // Days 1 to 3 and 5 are archived; a staging directory is not a day
+        for (int day : new int[]{1, 2, 3, 5}) {
+            Files.createDirectory(directory.resolve(DAY.plusDays(day).toString()));
+        }
+        Files.createDirectory(directory.resolve("." + DAY.plusDays(4) + ".tmp"));
+    }
+
+    @Test
+    void splitsIntoRunsOfArchivedAndDatabaseDays() {
+        LocalDateTime from = at(0).plusHours(6);
+        LocalDateTime to = at(7).plusHours(6);
+
+        split(from, to);
+
+        assertThat(runs).containsExactly(
+            "database " + from + " " + at(1),
+            "archive " + at(1) + " " + at(4),
+            "database " + at(4) + " " + at(5),
+            "archive " + at(5) + " " + at(6),
+            "database " + at(6) + " " + to);
+    }
+
+    @Test
+    void clipsArchivedRunsToTheRange() {
+        LocalDateTime from = at(2).plusHours(3);
+        LocalDateTime to = at(2).plusHours(9);
+
+        split(from, to);
+
+        assertThat(runs).containsExactly("archive " + from + " " + to);
+    }
+
+    @Test
+    void readsEverythingFromTheDatabaseWithoutArchive() {
+        properties.setEnabled(false);
+
+        split(at(0), at(7));
+
+        assertThat(runs).containsExactly("database " + at(0) + " " + at(7));
+    }
+
+    private void split(LocalDateTime from, LocalDateTime to) {
+        archive.split(from, to,
+            (start, end) -> runs.add("database " + start + " " + end),
+            (start, end) -> runs.add("archive " + start + " " + end));
+    }
+
+    private static LocalDateTime at(int day) {
+        return VitalsArchive.startOf(DAY.plusDays(day));
+    }
+}
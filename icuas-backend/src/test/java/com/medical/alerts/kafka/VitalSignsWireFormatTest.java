@@ -0,0 +1,115 @@
+package com.medical.alerts.kafka;
+
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.Vital;
+import com.medical.alerts.model.dto.VitalSignsRequest;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VitalSignsWireFormatTest {
+
+    @Test
+    void roundTripsAReading() {
+        PatientVitalSigns reading = new PatientVitalSigns();
+        reading.setPatientId("ICU-07-Bett-ä");
+        reading.setHeartRate(new BigDecimal("72.00"));
+        reading.setOxygenSaturation(new BigDecimal("97.50"));
+        reading.setSystolicBP(new BigDecimal("121.00"));
+        reading.setDiastolicBP(new BigDecimal("79.00"));
+        reading.setTemperature(new BigDecimal("36.85"));
+        reading.setRespiratoryRate(new BigDecimal("14.00"));
+        reading.setSource(PatientVitalSigns.DataSource.IOT_DEVICE);
+        reading.setTimestamp(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000));
+
+        byte[] data = encode(reading);
+        PatientVitalSigns decoded = (PatientVitalSigns) VitalSignsWireFormat.decode(data);
+
+        assertThat(VitalSignsWireFormat.isBinary(data)).isTrue();
+        assertThat(data.length).isLessThan(70);
+        assertThat(decoded.getId()).isEqualTo(reading.getId());
+        assertThat(decoded.getPatientId()).isEqualTo(reading.getPatientId());
+        assertThat(decoded.getTimestamp()).isEqualTo(reading.getTimestamp());
+        assertThat(decoded.getSource()).isEqualTo(PatientVitalSigns.DataSource.IOT_DEVICE);
+        assertThat(decoded.getHeartRate()).isEqualByComparingTo("72");
+        assertThat(decoded.getOxygenSaturation()).isEqualByComparingTo("97.5");
+        assertThat(decoded.getSystolicBP()).isEqualByComparingTo("121");
+        assertThat(decoded.getDiastolicBP()).isEqualByComparingTo("79");
+        assertThat(decoded.getTemperature()).isEqualByComparingTo("36.85");
+        assertThat(decoded.getRespiratoryRate()).isEqualByComparingTo("14");
+    }
+
+    @Test
+    void roundTripsPartialReadingsAndTimestampsBeforeTheEpoch() {
+        PatientVitalSigns reading = new PatientVitalSigns();
+        reading.setPatientId("P-1");
+        reading.setTemperature(new BigDecimal("-1.005"));
+        reading.setTimestamp(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_000_000));
+
+        PatientVitalSigns decoded = (PatientVitalSigns) VitalSignsWireFormat.decode(encode(reading));
+
+        assertThat(decoded.getTimestamp()).isEqualTo(reading.getTimestamp());
+        assertThat(decoded.getTemperature()).isEqualByComparingTo("-1.01");
+        assertThat(decoded.getHeartRate()).isNull();
+        assertThat(decoded.getRespiratoryRate()).isNull();
+    }
+
+    @Test
+    void roundTripsDeviceData() {
+        VitalSignsRequest request = new VitalSignsRequest();
+        request.setHeartRate(new BigDecimal("88"));
+        request.setSystolicBP(new BigDecimal("140.25"));
+
+        VitalSignsRequest decoded = (VitalSignsRequest) VitalSignsWireFormat.decode(encode(request));
+
+        assertThat(decoded.getPatientId()).isNull();
+        assertThat(decoded.getSource()).isEqualTo(PatientVitalSigns.DataSource.MONITOR);
+        assertThat(decoded.getHeartRate()).isEqualByComparingTo("88");
+        assertThat(decoded.getSystolicBP()).isEqualByComparingTo("140.25");
+        assertThat(decoded.getOxygenSaturation()).isNull();
+    }
+
+    @Test
+    void tellsJsonApart() {
+        assertThat(VitalSignsWireFormat.isBinary("{\"patientId\":\"P-1\"}".getBytes(StandardCharsets.UTF_8))).isFalse();
+        assertThat(VitalSignsWireFormat.isBinary(new byte[0])).isFalse();
+        assertThat(VitalSignsWireFormat.isBinary(null)).isFalse();
+    }
+
+    @Test
+    void rejectsTruncatedAndUnknownMessages() {
+        PatientVitalSigns reading = new PatientVitalSigns();
+        reading.setPatientId("P-1");
+        reading.setHeartRate(new BigDecimal("60"));
+        byte[] data = encode(reading);
+
+        assertThatThrownBy(() -> VitalSignsWireFormat.decode(Arrays.copyOf(data, data.length - 1)))
+            .isInstanceOf(SerializationException.class);
+        byte[] newerVersion = data.clone();
+        newerVersion[1] = (byte) (VitalSignsWireFormat.VERSION + 1);
+        assertThatThrownBy(() -> VitalSignsWireFormat.decode(newerVersion))
+            .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void rejectsVitalsOutOfRange() {
+        PatientVitalSigns reading = new PatientVitalSigns();
+        reading.setHeartRate(new BigDecimal("100000"));
+
+        assertThatThrownBy(() -> encode(reading)).isInstanceOf(SerializationException.class);
+    }
+
+    private static byte[] encode(Object value) {
+        ByteBuffer out = ByteBuffer.allocate(256);
+        VitalSignsWireFormat.encode(value, new BigDecimal[Vital.COUNT], out);
+        return Arrays.copyOf(out.array(), out.position());
+    }
+}
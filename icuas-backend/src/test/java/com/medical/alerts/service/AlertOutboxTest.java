@@ -0,0 +1,134 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.config.AlertLaneProperties;
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.repository.AlertOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class AlertOutboxTest {
+
+    private final AlertOutboxRepository repository = mock(AlertOutboxRepository.class);
+    private final DashboardPushService dashboardPushService = mock(DashboardPushService.class);
+    private final AlertLaneProperties properties = new AlertLaneProperties();
+    private final List<UUID> written = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AlertOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        properties.setWriteWaitTimeout(Duration.ofMillis(200));
+        // The first save blocks until released, so later transitions queue up behind it
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            List<MedicalAlert> alerts = invocation.getArgument(0);
+            alerts.forEach(alert -> written.add(alert.getId()));
+            return null;
+        }).when(repository).upsertAll(anyList());
+        outbox = new AlertOutbox(repository, mock(ActiveAlertView.class), dashboardPushService,
+            mock(KafkaProducerService.class), new PipelineMetrics(new SimpleMeterRegistry()), properties,
+            new SimpleMeterRegistry());
+        outbox.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        outbox.stop();
+    }
+
+    @Test
+    void writesMoreSevereLanesFirstAndEachLaneInOrder() throws InterruptedException {
+        MedicalAlert blocking = alert(MedicalAlert.AlertSeverity.INFO);
+        outbox.add(blocking, false);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MedicalAlert info1 = alert(MedicalAlert.AlertSeverity.INFO);
+        MedicalAlert warning = alert(MedicalAlert.AlertSeverity.WARNING);
+        MedicalAlert info2 = alert(MedicalAlert.AlertSeverity.INFO);
+        MedicalAlert critical = alert(MedicalAlert.AlertSeverity.CRITICAL);
+        for (MedicalAlert alert : List.of(info1, warning, info2, critical)) {
+            outbox.add(alert, false);
+        }
+        release.countDown();
+
+        assertThat(outbox.awaitWritten(info2.getId())).isTrue();
+        assertThat(written).containsExactly(blocking.getId(), critical.getId(), warning.getId(),
+            info1.getId(), info2.getId());
+    }
+
+    @Test
+    void keepsOnlyTheLatestTransitionOfAnAlertInItsCurrentLane() throws InterruptedException {
+        outbox.add(alert(MedicalAlert.AlertSeverity.INFO), false);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MedicalAlert raised = alert(MedicalAlert.AlertSeverity.INFO);
+        MedicalAlert other = alert(MedicalAlert.AlertSeverity.WARNING);
+        outbox.add(raised, false);
+        outbox.add(other, false);
+        MedicalAlert critical = raised.snapshot();
+        critical.setSeverity(MedicalAlert.AlertSeverity.CRITICAL);
+        outbox.add(critical, false);
+        release.countDown();
+
+        assertThat(outbox.awaitWritten(other.getId())).isTrue();
+        assertThat(written.subList(1, written.size())).containsExactly(raised.getId(), other.getId());
+    }
+
+    @Test
+    void awaitWrittenTimesOutWhileTheTransitionIsUnwritten() throws InterruptedException {
+        MedicalAlert alert = alert(MedicalAlert.AlertSeverity.CRITICAL);
+        outbox.add(alert, false);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        long start = System.nanoTime();
+        assertThat(outbox.awaitWritten(alert.getId())).isFalse();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+
+        release.countDown();
+        assertThat(outbox.awaitWritten(alert.getId())).isTrue();
+        assertThat(written).containsExactly(alert.getId());
+    }
+
+    @Test
+    void publishesDeferredTransitionsOnceWritten() throws InterruptedException {
+        MedicalAlert alert = alert(MedicalAlert.AlertSeverity.INFO);
+        outbox.add(alert, true);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(dashboardPushService, never()).publishAlerts(any());
+
+        release.countDown();
+
+        verify(dashboardPushService, timeout(5000)).publishAlerts(List.of(alert));
+    }
+
+    private static MedicalAlert alert(MedicalAlert.AlertSeverity severity) {
+        MedicalAlert alert = new MedicalAlert();
+        alert.setId(UUID.randomUUID());
+        alert.setPatientId("P-1");
+        alert.setSeverity(severity);
+        alert.setStatus(MedicalAlert.AlertStatus.ACTIVE);
+        return alert;
+    }
+}
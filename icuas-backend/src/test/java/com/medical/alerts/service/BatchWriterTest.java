@@ -0,0 +1,81 @@
+package com.medical.alerts.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchWriterTest {
+
+    private final List<List<String>> saved = new ArrayList<>();
+    private final List<String> written = new ArrayList<>();
+    private final List<String> rejected = new ArrayList<>();
+    private final List<String> abandoned = new ArrayList<>();
+
+    @Test
+    void writesTheBatchInOneSave() throws InterruptedException {
+        BatchWriter<String> writer = new BatchWriter<>("rows", saved::add, 3, () -> true);
+
+        write(writer, List.of("a", "b", "c"));
+
+        assertThat(saved).containsExactly(List.of("a", "b", "c"));
+        assertThat(written).containsExactly("a", "b", "c");
+        assertThat(rejected).isEmpty();
+    }
+
+    @Test
+    void rejectsRowsTheDatabaseRejectsAndWritesTheRest() throws InterruptedException {
+        BatchWriter<String> writer = new BatchWriter<>("rows", rows -> {
+            if (rows.contains("bad")) {
+                throw new DataIntegrityViolationException("Out of range value");
+            }
+            saved.add(rows);
+        }, 3, () -> true);
+
+        write(writer, List.of("a", "bad", "c"));
+
+        assertThat(saved).containsExactly(List.of("a"), List.of("c"));
+        assertThat(written).containsExactly("a", "c");
+        assertThat(rejected).containsExactly("bad");
+    }
+
+    @Test
+    void rejectsARowThatKeepsFailingWhileOthersAreWritten() throws InterruptedException {
+        BatchWriter<String> writer = new BatchWriter<>("rows", rows -> {
+            if (rows.contains("stuck")) {
+                throw new TransientDataAccessResourceException("Lock wait timeout");
+            }
+            saved.add(rows);
+        }, 1, () -> true);
+
+        write(writer, List.of("a", "stuck", "c"));
+
+        assertThat(written).containsExactly("a", "c");
+        assertThat(rejected).containsExactly("stuck");
+        assertThat(abandoned).isEmpty();
+    }
+
+    @Test
+    void givesUpWhileStopping() throws InterruptedException {
+        List<Integer> attempts = new ArrayList<>();
+        BatchWriter<String> writer = new BatchWriter<>("rows", rows -> {
+            attempts.add(rows.size());
+            throw new TransientDataAccessResourceException("Connection refused");
+        }, 10, () -> false);
+
+        write(writer, List.of("a", "b"));
+
+        assertThat(attempts).hasSize(3);
+        assertThat(written).isEmpty();
+        assertThat(rejected).isEmpty();
+        assertThat(abandoned).containsExactly("a", "b");
+    }
+
+    private void write(BatchWriter<String> writer, List<String> rows) throws InterruptedException {
+        writer.write(rows, written::addAll, (row, failure) -> rejected.add(row), abandoned::addAll);
+    }
+}
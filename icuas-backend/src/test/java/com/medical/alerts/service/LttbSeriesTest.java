@@ -0,0 +1,62 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.model.dto.VitalSample;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LttbSeriesTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Test
+    void reducesToTheTargetKeepingEndsAndOrder() {
+        LttbSeries series = new LttbSeries(FROM, FROM.plusSeconds(1000), 50);
+        for (int i = 0; i < 1000; i++) {
+            series.add(FROM.plusSeconds(i), 80 + Math.sin(i / 20.0) * 10);
+        }
+
+        List<VitalSample> samples = series.finish();
+
+        assertThat(samples).hasSizeLessThanOrEqualTo(50).hasSizeGreaterThan(40);
+        assertThat(samples.get(0).getTimestamp()).isEqualTo(FROM);
+        assertThat(samples.get(samples.size() - 1).getTimestamp()).isEqualTo(FROM.plusSeconds(999));
+        for (int i = 1; i < samples.size(); i++) {
+            assertThat(samples.get(i).getTimestamp()).isAfter(samples.get(i - 1).getTimestamp());
+        }
+    }
+
+    @Test
+    void keepsIsolatedSpikes() {
+        LttbSeries series = new LttbSeries(FROM, FROM.plusSeconds(1000), 20);
+        for (int i = 0; i < 1000; i++) {
+            series.add(FROM.plusSeconds(i), i == 437 ? 180 : i == 712 ? 30 : 75);
+        }
+
+        assertThat(series.finish()).extracting(VitalSample::getValue).contains(180.0, 30.0);
+    }
+
+    @Test
+    void keepsEverySampleOfASparseSeries() {
+        LttbSeries series = new LttbSeries(FROM, FROM.plusMinutes(10), 100);
+        for (int i = 0; i < 10; i++) {
+            series.add(FROM.plusMinutes(i), i);
+        }
+
+        assertThat(series.finish()).extracting(VitalSample::getValue)
+            .containsExactly(0.0, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0);
+    }
+
+    @Test
+    void handlesSeriesOfOneOrNoSamples() {
+        assertThat(new LttbSeries(FROM, FROM.plusMinutes(1), 3).finish()).isEmpty();
+
+        LttbSeries single = new LttbSeries(FROM, FROM.plusMinutes(1), 3);
+        single.add(FROM.plusSeconds(5), 42);
+        assertThat(single.finish()).singleElement()
+            .isEqualTo(new VitalSample(FROM.plusSeconds(5), 42));
+    }
+}
@@ -0,0 +1,104 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.Vital;
+import com.medical.alerts.strategy.RuleResultSink;
+import com.medical.alerts.strategy.RuleTable;
+import com.medical.alerts.strategy.VitalReading;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientAlertStateTest {
+
+    private static final int CLEAR_AFTER = 2;
+
+    private final RuleTable table = RuleTable.builder()
+        .group(1)
+        .above("TACHYCARDIA", Vital.HEART_RATE, 130, MedicalAlert.AlertSeverity.CRITICAL, "hr.critical")
+        .above("TACHYCARDIA", Vital.HEART_RATE, 100, MedicalAlert.AlertSeverity.WARNING, "hr.high")
+        .build();
+
+    private final PatientAlertState state = new PatientAlertState("P-1");
+
+    @Test
+    void opensOneAlertForAPersistingCondition() {
+        List<MedicalAlert> opened = apply(110);
+        assertThat(opened).singleElement().satisfies(alert -> {
+            assertThat(alert.getPatientId()).isEqualTo("P-1");
+            assertThat(alert.getSeverity()).isEqualTo(MedicalAlert.AlertSeverity.WARNING);
+            assertThat(alert.isRequiresAcknowledgment()).isFalse();
+        });
+
+        assertThat(apply(115)).isNull();
+        assertThat(apply(105)).isNull();
+    }
+
+    @Test
+    void escalatesAndReactivatesTheOpenAlert() {
+        MedicalAlert alert = apply(110).get(0);
+        alert.setStatus(MedicalAlert.AlertStatus.ACKNOWLEDGED);
+
+        assertThat(apply(140)).containsExactly(alert);
+        assertThat(alert.getSeverity()).isEqualTo(MedicalAlert.AlertSeverity.CRITICAL);
+        assertThat(alert.getStatus()).isEqualTo(MedicalAlert.AlertStatus.ACTIVE);
+        assertThat(alert.isRequiresAcknowledgment()).isTrue();
+
+        // Falling back to a lower severity does not de-escalate
+        assertThat(apply(110)).isNull();
+        assertThat(alert.getSeverity()).isEqualTo(MedicalAlert.AlertSeverity.CRITICAL);
+    }
+
+    @Test
+    void resolvesAfterConsecutiveNormalReadings() {
+        MedicalAlert alert = apply(110).get(0);
+
+        assertThat(apply(80)).isNull();
+        assertThat(apply(110)).isNull();
+        assertThat(apply(80)).isNull();
+        assertThat(apply(80)).containsExactly(alert);
+        assertThat(alert.getStatus()).isEqualTo(MedicalAlert.AlertStatus.RESOLVED);
+
+        MedicalAlert reopened = apply(110).get(0);
+        assertThat(reopened).isNotSameAs(alert);
+    }
+
+    @Test
+    void readingsWithoutTheVitalDoNotCountAsNormal() {
+        apply(110);
+
+        assertThat(apply(null)).isNull();
+        assertThat(apply(null)).isNull();
+        assertThat(apply(80)).isNull();
+    }
+
+    @Test
+    void tracksAlertsUpdatedElsewhere() {
+        MedicalAlert alert = apply(110).get(0);
+        MedicalAlert acknowledged = alert.snapshot();
+        acknowledged.setStatus(MedicalAlert.AlertStatus.ACKNOWLEDGED);
+        state.track(acknowledged);
+
+        assertThat(apply(140)).containsExactly(acknowledged);
+
+        MedicalAlert resolved = acknowledged.snapshot();
+        resolved.setStatus(MedicalAlert.AlertStatus.RESOLVED);
+        state.track(resolved);
+        assertThat(apply(140)).singleElement().isNotSameAs(acknowledged);
+    }
+
+    private List<MedicalAlert> apply(Integer heartRate) {
+        PatientVitalSigns vitalSigns = new PatientVitalSigns();
+        vitalSigns.setPatientId("P-1");
+        vitalSigns.setHeartRate(heartRate == null ? null : BigDecimal.valueOf(heartRate));
+        vitalSigns.setTemperature(BigDecimal.valueOf(37));
+        VitalReading reading = new VitalReading().load(vitalSigns);
+        RuleResultSink sink = new RuleResultSink();
+        table.evaluate(reading, sink);
+        return state.apply(reading, table, sink, CLEAR_AFTER, null);
+    }
+}
@@ -0,0 +1,138 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.config.ShardingProperties;
+import org.apache.kafka.clients.producer.internals.BuiltInPartitioner;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PatientShardExecutorTest {
+
+    private PatientShardExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.stop();
+    }
+
+    @Test
+    void roundsShardsUpToAMultipleOfThePartitions() {
+        start(4, 3, 100);
+
+        assertThat(executor.getShardCount()).isEqualTo(6);
+    }
+
+    @Test
+    void keepsEachPatientOnAShardOfTheirKafkaPartition() {
+        start(6, 3, 100);
+
+        for (int i = 0; i < 1000; i++) {
+            String patientId = "P-" + i;
+            int partition = BuiltInPartitioner.partitionForKey(patientId.getBytes(StandardCharsets.UTF_8), 3);
+            assertThat(executor.partitionOf(patientId)).isEqualTo(partition);
+            assertThat(executor.shardOf(patientId) % 3).isEqualTo(partition);
+        }
+    }
+
+    @Test
+    void runsTasksOfAPatientOnOneThreadInOrder() {
+        start(6, 3, 100);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int task = i;
+            futures.add(executor.run("P-1", () -> {
+                threads.add(Thread.currentThread().getName());
+                order.add(task);
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(threads).containsOnly("patient-shard-" + executor.shardOf("P-1"));
+        assertThat(order).isSorted().hasSize(50);
+    }
+
+    @Test
+    void blocksSubmittersWhileTheShardQueueIsFull() throws Exception {
+        start(1, 1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.run("P-1", () -> {
+            running.countDown();
+            await(release);
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.run("P-1", () -> { });
+
+        // The queue holds one task; the next submitter waits for room, a non-blocking one is refused
+        Thread submitter = new Thread(() -> executor.run("P-1", () -> { }).join());
+        submitter.start();
+        awaitState(submitter, Thread.State.WAITING);
+        assertThatThrownBy(() -> executor.execute("P-1", () -> { }))
+            .isInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+        submitter.join(5000);
+        assertThat(submitter.isAlive()).isFalse();
+    }
+
+    @Test
+    void evictsOnlyPatientsOfRevokedPartitions() {
+        start(6, 3, 100);
+        List<String> evicted = Collections.synchronizedList(new ArrayList<>());
+        List<String> patients = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            patients.add("P-" + i);
+        }
+        executor.onEviction(ofShard -> patients.stream().filter(ofShard).forEach(evicted::add));
+        executor.partitionsAssigned(List.of(new TopicPartition("vital-signs-topic", 0),
+            new TopicPartition("vital-signs-topic", 1)));
+
+        executor.partitionsRevoked(List.of(new TopicPartition("vital-signs-topic", 1)));
+
+        assertThat(evicted).isNotEmpty()
+            .allSatisfy(patientId -> assertThat(executor.partitionOf(patientId)).isEqualTo(1))
+            .hasSize((int) patients.stream().filter(patientId -> executor.partitionOf(patientId) == 1).count());
+        assertThat(patients).allSatisfy(patientId ->
+            assertThat(executor.ownsPatient(patientId)).isEqualTo(executor.partitionOf(patientId) == 0));
+    }
+
+    private void start(int shards, int partitions, int queueCapacity) {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setShards(shards);
+        properties.setPartitions(partitions);
+        properties.setQueueCapacity(queueCapacity);
+        executor = new PatientShardExecutor(properties);
+        executor.start();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(thread.getState()).isEqualTo(state);
+    }
+}
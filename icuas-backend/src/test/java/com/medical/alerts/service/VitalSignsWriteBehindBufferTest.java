@@ -0,0 +1,160 @@
+package com.medical.alerts.service;
+
+import com.medical.alerts.config.WriteBehindProperties;
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.repository.VitalSignsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VitalSignsWriteBehindBufferTest {
+
+    private final VitalSignsRepository repository = mock(VitalSignsRepository.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final WriteBehindProperties properties = new WriteBehindProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Saves and acknowledgements in the order they happened
+    private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+    private VitalSignsWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainer("iotDeviceListener")).thenReturn(container);
+        properties.setCapacity(10);
+        properties.setBatchSize(3);
+        properties.setFlushInterval(Duration.ofMillis(50));
+        properties.setPauseThreshold(0.5);
+        properties.setResumeThreshold(0.2);
+        buffer = new VitalSignsWriteBehindBuffer(repository, registry, properties, new PipelineMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.stop();
+    }
+
+    @Test
+    void flushesInBatchesAndAcknowledgesAfterEachSave() throws InterruptedException {
+        recordSaves();
+        buffer.start();
+
+        for (int i = 0; i < 5; i++) {
+            enqueue("P-" + i);
+        }
+
+        awaitEvents(7);
+        assertThat(events).containsExactly("save P-0 P-1 P-2", "ack P-0", "ack P-1", "ack P-2",
+            "save P-3 P-4", "ack P-3", "ack P-4");
+        assertThat(buffer.getPendingCount()).isZero();
+    }
+
+    @Test
+    void acknowledgesOnlyOnceAFailedBatchIsWritten() throws InterruptedException {
+        List<Integer> attempts = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            attempts.add(attempts.size());
+            if (attempts.size() == 1) {
+                throw new IllegalStateException("Connection refused");
+            }
+            events.add("save " + patientIds(invocation.getArgument(0)));
+            return invocation.getArgument(0);
+        }).when(repository).saveAll(any());
+        buffer.start();
+
+        enqueue("P-1");
+
+        awaitEvents(2);
+        assertThat(attempts).hasSize(2);
+        assertThat(events).containsExactly("save P-1", "ack P-1");
+    }
+
+    @Test
+    void acknowledgesARedeliveredReadingAsWritten() throws InterruptedException {
+        doAnswer(invocation -> {
+            throw new DuplicateKeyException("Duplicate entry for key 'PRIMARY'");
+        }).when(repository).saveAll(any());
+        buffer.start();
+
+        enqueue("P-1");
+
+        awaitEvents(1);
+        assertThat(events).containsExactly("ack P-1");
+        assertThat(meterRegistry.find(PipelineMetrics.REJECTED_COUNTER).counters())
+            .allSatisfy(counter -> assertThat(counter.count()).isZero());
+    }
+
+    @Test
+    void pausesListenersWhenFullAndResumesOnceDrained() throws InterruptedException {
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            saving.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        }).when(repository).saveAll(any());
+        buffer.start();
+
+        // The flusher takes the first reading and blocks in the save, so the rest stays queued
+        enqueue("P-0");
+        assertThat(saving.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 5; i++) {
+            enqueue("P-" + i);
+        }
+        verify(container, never()).pause();
+
+        enqueue("P-6");
+        verify(container).pause();
+        verify(container, never()).resume();
+
+        release.countDown();
+        verify(container, timeout(5000)).resume();
+        assertThat(buffer.getPendingCount()).isLessThanOrEqualTo(2);
+    }
+
+    private void recordSaves() {
+        doAnswer(invocation -> {
+            events.add("save " + patientIds(invocation.getArgument(0)));
+            return invocation.getArgument(0);
+        }).when(repository).saveAll(any());
+    }
+
+    private void enqueue(String patientId) {
+        PatientVitalSigns reading = new PatientVitalSigns();
+        reading.setPatientId(patientId);
+        buffer.enqueue(reading, () -> events.add("ack " + patientId));
+    }
+
+    private void awaitEvents(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static String patientIds(Iterable<PatientVitalSigns> readings) {
+        List<String> ids = new ArrayList<>();
+        readings.forEach(reading -> ids.add(reading.getPatientId()));
+        return String.join(" ", ids);
+    }
+}
@@ -0,0 +1,103 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.config.MedicalRulesProperties;
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.Vital;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EarlyWarningScorerTest {
+
+    private final EarlyWarningScorer scorer = new EarlyWarningScorer(
+        new RuleTableCompiler(List.of(), List.of(), new MedicalRulesProperties(), null));
+    private final RuleResultSink sink = new RuleResultSink();
+
+    @Test
+    void scoresRespiratoryRateBands() {
+        assertBands(Vital.RESPIRATORY_RATE, new double[]{8, 9, 11, 12, 20, 21, 24, 25}, new int[]{3, 1, 1, 0, 0, 2, 2, 3});
+    }
+
+    @Test
+    void scoresOxygenSaturationBands() {
+        assertBands(Vital.OXYGEN_SATURATION, new double[]{91, 92, 93, 94, 95, 96}, new int[]{3, 2, 2, 1, 1, 0});
+    }
+
+    @Test
+    void scoresSystolicPressureBands() {
+        assertBands(Vital.SYSTOLIC_BP, new double[]{90, 91, 100, 101, 110, 111, 219, 220}, new int[]{3, 2, 2, 1, 1, 0, 0, 3});
+    }
+
+    @Test
+    void scoresHeartRateBands() {
+        assertBands(Vital.HEART_RATE, new double[]{40, 41, 50, 51, 90, 91, 110, 111, 130, 131},
+            new int[]{3, 1, 1, 0, 0, 1, 1, 2, 2, 3});
+    }
+
+    @Test
+    void scoresTemperatureBands() {
+        assertBands(Vital.TEMPERATURE, new double[]{35.0, 35.1, 36.0, 36.1, 38.0, 38.1, 39.0, 39.1},
+            new int[]{3, 1, 1, 0, 0, 1, 1, 2});
+    }
+
+    @Test
+    void diastolicPressureDoesNotContribute() {
+        assertThat(EarlyWarningScorer.score(Vital.DIASTOLIC_BP, 200)).isZero();
+    }
+
+    @Test
+    void combinesPartialReadingsWithLastKnownValues() {
+        scorer.evaluate(reading(120, null, 22), sink);
+        assertThat(sink.isEmpty()).isTrue();
+
+        // 2 (heart rate) + 2 (respiratory rate) + 2 (saturation) reaches the warning score
+        scorer.evaluate(reading(null, 93, null), sink);
+        assertThat(sink.size()).isEqualTo(1);
+        assertThat(sink.severity(0)).isEqualTo(MedicalAlert.AlertSeverity.WARNING);
+
+        EarlyWarningScorer.EarlyWarningScore score = scorer.getScore("P-1").orElseThrow();
+        assertThat(score.totalScore()).isEqualTo(6);
+        assertThat(score.riskLevel()).isEqualTo(EarlyWarningScorer.RiskLevel.MEDIUM);
+        assertThat(score.components()).containsOnlyKeys(Vital.HEART_RATE, Vital.RESPIRATORY_RATE, Vital.OXYGEN_SATURATION);
+    }
+
+    @Test
+    void replacesTheSubScoreOfARescoredVital() {
+        scorer.evaluate(reading(140, 85, 30), sink);
+        assertThat(sink.severity(0)).isEqualTo(MedicalAlert.AlertSeverity.CRITICAL);
+        assertThat(scorer.getScore("P-1").orElseThrow().riskLevel()).isEqualTo(EarlyWarningScorer.RiskLevel.HIGH);
+
+        sink.clear();
+        scorer.evaluate(reading(70, 98, 16), sink);
+        assertThat(sink.isEmpty()).isTrue();
+        assertThat(scorer.getScore("P-1").orElseThrow().totalScore()).isZero();
+    }
+
+    @Test
+    void singleRedScoreRaisesAWarning() {
+        scorer.evaluate(reading(null, 85, null), sink);
+
+        assertThat(sink.size()).isEqualTo(1);
+        assertThat(sink.severity(0)).isEqualTo(MedicalAlert.AlertSeverity.WARNING);
+        assertThat(scorer.getScore("P-1").orElseThrow().riskLevel()).isEqualTo(EarlyWarningScorer.RiskLevel.LOW_MEDIUM);
+    }
+
+    private static void assertBands(Vital vital, double[] values, int[] expected) {
+        for (int i = 0; i < values.length; i++) {
+            assertThat(EarlyWarningScorer.score(vital, values[i])).as("%s %s", vital, values[i]).isEqualTo(expected[i]);
+        }
+    }
+
+    private static VitalReading reading(Integer heartRate, Integer oxygenSaturation, Integer respiratoryRate) {
+        PatientVitalSigns vitalSigns = new PatientVitalSigns();
+        vitalSigns.setPatientId("P-1");
+        vitalSigns.setHeartRate(heartRate == null ? null : BigDecimal.valueOf(heartRate));
+        vitalSigns.setOxygenSaturation(oxygenSaturation == null ? null : BigDecimal.valueOf(oxygenSaturation));
+        vitalSigns.setRespiratoryRate(respiratoryRate == null ? null : BigDecimal.valueOf(respiratoryRate));
+        return new VitalReading().load(vitalSigns);
+    }
+}
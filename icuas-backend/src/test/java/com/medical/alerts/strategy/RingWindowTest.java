@@ -0,0 +1,169 @@
+package com.medical.alerts.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RingWindowTest {
+
+    private static final long SPAN = 30_000;
+
+    @Test
+    void evictsByCapacity() {
+        RingWindow window = new RingWindow(4);
+        for (int i = 0; i < 10; i++) {
+            window.add(i * 1000L, i, Long.MAX_VALUE / 2);
+        }
+
+        assertThat(window.count()).isEqualTo(4);
+        assertThat(window.oldest()).isEqualTo(6);
+        assertThat(window.newest()).isEqualTo(9);
+        assertThat(window.min()).isEqualTo(6);
+        assertThat(window.max()).isEqualTo(9);
+        assertThat(window.mean()).isEqualTo(7.5);
+    }
+
+    @Test
+    void growsToCoverTheSpan() {
+        RingWindow window = new RingWindow(4, 64);
+        for (int i = 0; i <= 30; i++) {
+            window.add(i * 1000L, i, SPAN);
+        }
+
+        assertThat(window.capacity()).isEqualTo(32);
+        assertThat(window.coveredMillis()).isEqualTo(SPAN);
+        assertThat(window.min()).isEqualTo(0);
+        assertThat(window.max()).isEqualTo(30);
+        assertThat(window.mean()).isEqualTo(15);
+
+        // Once covered, the span evicts rather than the window growing
+        window.add(31_000, 31, SPAN);
+        assertThat(window.capacity()).isEqualTo(32);
+        assertThat(window.oldest()).isEqualTo(1);
+        assertThat(window.min()).isEqualTo(1);
+    }
+
+    @Test
+    void stopsGrowingAtItsMaximum() {
+        RingWindow window = new RingWindow(4, 8);
+        for (int i = 0; i < 20; i++) {
+            window.add(i * 1000L, 20 - i, SPAN);
+        }
+
+        assertThat(window.capacity()).isEqualTo(8);
+        assertThat(window.count()).isEqualTo(8);
+        assertThat(window.oldest()).isEqualTo(8);
+        assertThat(window.max()).isEqualTo(8);
+        assertThat(window.min()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsOneSampleAtOrBeforeSpanStart() {
+        RingWindow window = new RingWindow(64);
+        window.add(0, 200, SPAN);
+        window.add(10_000, 100, SPAN);
+        window.add(20_000, 110, SPAN);
+        window.add(45_000, 120, SPAN);
+
+        // 0 is evicted, 10 000 stays as the sample at or before the span start (15 000)
+        assertThat(window.count()).isEqualTo(3);
+        assertThat(window.coveredMillis()).isEqualTo(35_000);
+        assertThat(window.max()).isEqualTo(120);
+        assertThat(window.min()).isEqualTo(100);
+        assertThat(window.mean()).isEqualTo(110);
+    }
+
+    @Test
+    void minAndMaxFollowEvictedExtremes() {
+        RingWindow window = new RingWindow(64);
+        window.add(0, 50, SPAN);
+        window.add(1_000, 150, SPAN);
+        window.add(2_000, 100, SPAN);
+        assertThat(window.min()).isEqualTo(50);
+        assertThat(window.max()).isEqualTo(150);
+
+        window.add(32_000, 100, SPAN);
+        assertThat(window.min()).isEqualTo(100);
+        assertThat(window.max()).isEqualTo(100);
+        assertThat(window.mean()).isEqualTo(100);
+    }
+
+    @Test
+    void ignoresOutOfOrderAndNaNSamples() {
+        RingWindow window = new RingWindow(8);
+        assertThat(window.add(5_000, 80, SPAN)).isTrue();
+        assertThat(window.add(4_000, 90, SPAN)).isFalse();
+        assertThat(window.add(6_000, Double.NaN, SPAN)).isFalse();
+
+        assertThat(window.count()).isEqualTo(1);
+        assertThat(window.newest()).isEqualTo(80);
+    }
+
+    @Test
+    void slopeIsPerMinute() {
+        RingWindow window = new RingWindow(16);
+        for (int i = 0; i <= 10; i++) {
+            window.add(i * 6_000L, 100 - i, 120_000);
+        }
+
+        assertThat(window.slopePerMinute()).isCloseTo(-10, within(1e-9));
+    }
+
+    @Test
+    void emptyWindowHasNoAggregates() {
+        RingWindow window = new RingWindow(8);
+        window.add(0, 1, SPAN);
+        window.clear();
+
+        assertThat(window.count()).isZero();
+        assertThat(window.min()).isNaN();
+        assertThat(window.max()).isNaN();
+        assertThat(window.mean()).isNaN();
+        assertThat(window.slopePerMinute()).isNaN();
+    }
+
+    @Test
+    void matchesRecomputedAggregatesOverManyEvictions() {
+        Random random = new Random(1);
+        RingWindow window = new RingWindow(64);
+        Deque<double[]> reference = new ArrayDeque<>();
+        long time = 1_000_000;
+        for (int i = 0; i < 5000; i++) {
+            time += 200 + random.nextInt(1500);
+            double value = 90 + random.nextInt(10) + i * 0.001;
+            window.add(time, value, SPAN);
+
+            reference.addLast(new double[]{time, value});
+            if (reference.size() > 64) {
+                reference.removeFirst();
+            }
+            while (reference.size() > 1) {
+                Iterator<double[]> iterator = reference.iterator();
+                iterator.next();
+                if (iterator.next()[0] > time - SPAN) {
+                    break;
+                }
+                reference.removeFirst();
+            }
+
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            double sum = 0;
+            for (double[] sample : reference) {
+                min = Math.min(min, sample[1]);
+                max = Math.max(max, sample[1]);
+                sum += sample[1];
+            }
+            assertThat(window.count()).isEqualTo(reference.size());
+            assertThat(window.min()).isEqualTo(min);
+            assertThat(window.max()).isEqualTo(max);
+            assertThat(window.mean()).isCloseTo(sum / reference.size(), within(1e-6));
+        }
+    }
+}
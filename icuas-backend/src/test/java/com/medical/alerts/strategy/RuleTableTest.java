@@ -0,0 +1,97 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.model.MedicalAlert;
+import com.medical.alerts.model.PatientVitalSigns;
+import com.medical.alerts.model.Vital;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleTableTest {
+
+    private final RuleTable table = RuleTable.builder()
+        .group(10)
+        .below("HYPOXIA", Vital.OXYGEN_SATURATION, 95, MedicalAlert.AlertSeverity.WARNING, "spo2.low")
+        .below("HYPOXIA", Vital.OXYGEN_SATURATION, 90, MedicalAlert.AlertSeverity.CRITICAL, "spo2.critical")
+        .group(5)
+        .above("TACHYCARDIA", Vital.HEART_RATE, 100, MedicalAlert.AlertSeverity.WARNING, "hr.high")
+        .above("TACHYCARDIA", Vital.HEART_RATE, 130, MedicalAlert.AlertSeverity.CRITICAL, "hr.critical")
+        .below("BRADYCARDIA", Vital.HEART_RATE, 50, MedicalAlert.AlertSeverity.WARNING, "hr.low")
+        .observe("HEART_RATE_TREND", Vital.HEART_RATE)
+        .build();
+
+    private final RuleResultSink sink = new RuleResultSink();
+
+    @Test
+    void raisesOnlyTheMostSevereMatchOfEachGroup() {
+        table.evaluate(reading(140, 85), sink);
+
+        assertThat(sink.size()).isEqualTo(2);
+        assertThat(sink.alertType(0)).isEqualTo("HYPOXIA");
+        assertThat(sink.severity(0)).isEqualTo(MedicalAlert.AlertSeverity.CRITICAL);
+        assertThat(sink.messageKey(0)).isEqualTo("spo2.critical");
+        assertThat(sink.alertType(1)).isEqualTo("TACHYCARDIA");
+        assertThat(sink.severity(1)).isEqualTo(MedicalAlert.AlertSeverity.CRITICAL);
+    }
+
+    @Test
+    void thresholdsAreExclusive() {
+        table.evaluate(reading(100, 95), sink);
+
+        assertThat(sink.isEmpty()).isTrue();
+    }
+
+    @Test
+    void laterRowsOfAGroupStillMatchWhenEarlierOnesDoNot() {
+        table.evaluate(reading(45, 97), sink);
+
+        assertThat(sink.size()).isEqualTo(1);
+        assertThat(sink.alertType(0)).isEqualTo("BRADYCARDIA");
+    }
+
+    @Test
+    void skipsMissingVitals() {
+        table.evaluate(reading(null, 80), sink);
+
+        assertThat(sink.size()).isEqualTo(1);
+        assertThat(sink.alertType(0)).isEqualTo("HYPOXIA");
+    }
+
+    @Test
+    void observesVitalsOfTableAndRegisteredRules() {
+        VitalReading heartRateOnly = reading(80, null);
+
+        assertThat(table.observes("TACHYCARDIA", heartRateOnly)).isTrue();
+        assertThat(table.observes("HEART_RATE_TREND", heartRateOnly)).isTrue();
+        assertThat(table.observes("HYPOXIA", heartRateOnly)).isFalse();
+        assertThat(table.observes("UNKNOWN", heartRateOnly)).isFalse();
+    }
+
+    @Test
+    void describesRowsInEvaluationOrder() {
+        assertThat(table.size()).isEqualTo(5);
+        assertThat(table.describe()).first().isEqualTo(new RuleTable.RuleDefinition("HYPOXIA",
+            MedicalAlert.AlertSeverity.CRITICAL, Vital.OXYGEN_SATURATION, "<", 90, "spo2.critical"));
+    }
+
+    @Test
+    void rejectsRulesOutsideAGroupOrWithoutThreshold() {
+        assertThatThrownBy(() -> RuleTable.builder()
+            .above("TACHYCARDIA", Vital.HEART_RATE, 100, MedicalAlert.AlertSeverity.WARNING, "hr.high"))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> RuleTable.builder().group(1)
+            .above("TACHYCARDIA", Vital.HEART_RATE, Double.NaN, MedicalAlert.AlertSeverity.WARNING, "hr.high"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static VitalReading reading(Integer heartRate, Integer oxygenSaturation) {
+        PatientVitalSigns vitalSigns = new PatientVitalSigns();
+        vitalSigns.setPatientId("P-1");
+        vitalSigns.setHeartRate(heartRate == null ? null : BigDecimal.valueOf(heartRate));
+        vitalSigns.setOxygenSaturation(oxygenSaturation == null ? null : BigDecimal.valueOf(oxygenSaturation));
+        return new VitalReading().load(vitalSigns);
+    }
+}
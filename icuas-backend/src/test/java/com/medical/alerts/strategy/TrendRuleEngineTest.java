@@ -0,0 +1,68 @@
+package com.medical.alerts.strategy;
+
+import com.medical.alerts.config.MedicalRulesProperties;
+import com.medical.alerts.model.PatientVitalSigns;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrendRuleEngineTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    private final RuleResultSink sink = new RuleResultSink();
+
+    @Test
+    void sustainedRuleFiresAboveTheSampleRateWindowsAreSizedFor() {
+        TrendRuleEngine engine = engine(new MedicalRulesProperties());
+
+        // 5 Hz against windows sized for 2 Hz: two minutes are 600 samples
+        boolean raised = false;
+        for (int i = 0; i <= 600; i++) {
+            sink.clear();
+            engine.evaluate(reading(START.plusNanos(i * 200_000_000L), 120), sink);
+            raised = !sink.isEmpty();
+            assertThat(raised).isEqualTo(i == 600);
+        }
+        assertThat(sink.alertType(0)).isEqualTo("HEART_RATE_TREND");
+    }
+
+    @Test
+    void sizesWindowsForTheirSpan() {
+        assertThat(TrendRuleEngine.capacityFor(Duration.ofMinutes(5).toMillis(), 1)).isEqualTo(301);
+        assertThat(TrendRuleEngine.capacityFor(Duration.ofMinutes(2).toMillis(), 2.5)).isEqualTo(301);
+    }
+
+    @Test
+    void rejectsWindowsThatCannotBeCovered() {
+        MedicalRulesProperties tooFast = new MedicalRulesProperties();
+        tooFast.getTrends().setMaxSampleRate(1000);
+        assertThatThrownBy(() -> compiler(tooFast)).isInstanceOf(IllegalArgumentException.class);
+
+        MedicalRulesProperties empty = new MedicalRulesProperties();
+        empty.getTrends().getHeartRateSustained().setWindow(Duration.ZERO);
+        assertThatThrownBy(() -> compiler(empty)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TrendRuleEngine engine(MedicalRulesProperties rules) {
+        return new TrendRuleEngine(List.of(new HeartRateTrendRule()), compiler(rules));
+    }
+
+    private static RuleTableCompiler compiler(MedicalRulesProperties rules) {
+        return new RuleTableCompiler(List.of(), List.of(new HeartRateTrendRule()), rules, null);
+    }
+
+    private static VitalReading reading(LocalDateTime timestamp, int heartRate) {
+        PatientVitalSigns vitalSigns = new PatientVitalSigns();
+        vitalSigns.setPatientId("P-1");
+        vitalSigns.setTimestamp(timestamp);
+        vitalSigns.setHeartRate(BigDecimal.valueOf(heartRate));
+        return new VitalReading().load(vitalSigns);
+    }
+}
@@ -0,0 +1,69 @@
+package com.medical.alerts.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+    @Test
+    void carriesVersionVariantAndCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        // A counter overflow may carry a few milliseconds ahead
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after + 5);
+    }
+
+    @Test
+    void isStrictlyIncreasingInBinaryOrder() {
+        // More than the 4096 IDs of one millisecond, so the counter carries into the timestamp
+        byte[] previous = bytes(UuidV7.next());
+        for (int i = 0; i < 20_000; i++) {
+            UUID id = UuidV7.next();
+            byte[] current = bytes(id);
+            assertThat(Arrays.compareUnsigned(current, previous)).as("ID %d: %s", i, id).isPositive();
+            previous = current;
+        }
+    }
+
+    @Test
+    void isUniqueAcrossThreads() throws Exception {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int t = 0; t < futures.length; t++) {
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        ids.add(UuidV7.next());
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(40_000);
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
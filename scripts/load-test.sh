@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+# Compares REST ingest under platform threads and the virtual-threads profile.
+#
+# Starts the backend jar once per mode against the local MySQL/Kafka (docker-compose), drives
+# POST /api/vitals/{patientId} for the sample patients with `hey`, and prints both summaries.
+#
+# Usage: scripts/load-test.sh [platform|virtual-threads|both]
+# Env:   JAR (default icuas-backend/target/alerts-*.jar), JAVA (a Java 21+ binary for virtual-threads),
+#        CONCURRENCY per patient (default 200), DURATION (default 60s), PORT (default 8080)
+set -euo pipefail
+
+MODE=${1:-both}
+JAR=${JAR:-$(ls icuas-backend/target/alerts-*.jar | head -1)}
+JAVA=${JAVA:-java}
+CONCURRENCY=${CONCURRENCY:-200}
+DURATION=${DURATION:-60s}
+PORT=${PORT:-8080}
+PATIENTS=(PT-001 PT-002 PT-003 PT-004 PT-005)
+RESULTS=loadtest-results
+BODY='{"heartRate":88,"oxygenSaturation":97,"systolicBP":124,"diastolicBP":80,"temperature":36.8,"respiratoryRate":16}'
+
+command -v hey >/dev/null || { echo "hey is required: go install github.com/rakyll/hey@latest" >&2; exit 1; }
+mkdir -p "$RESULTS"
+
+run_mode() {
+  local mode=$1 profiles=dev jvm_opts=()
+  if [[ $mode == virtual-threads ]]; then
+    profiles=dev,virtual-threads
+    # MySQL Connector/J blocks inside synchronized blocks, pinning a carrier per active connection;
+    # keep more carriers than pooled connections
+    jvm_opts+=(-Djdk.virtualThreadScheduler.parallelism=32)
+  fi
+
+  echo "== $mode: starting backend (profiles: $profiles)"
+  "$JAVA" "${jvm_opts[@]}" -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profiles" \
+    --spring.jpa.show-sql=false > "$RESULTS/$mode-app.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" EXIT
+  until curl -sf "http://localhost:$PORT/actuator/health" >/dev/null; do
+    kill -0 "$pid" 2>/dev/null || { echo "backend exited, see $RESULTS/$mode-app.log" >&2; exit 1; }
+    sleep 2
+  done
+
+  echo "== $mode: $DURATION at $CONCURRENCY concurrent requests per patient"
+  for patient in "${PATIENTS[@]}"; do
+    hey -z "$DURATION" -c "$CONCURRENCY" -m POST -T application/json -d "$BODY" \
+      "http://localhost:$PORT/api/vitals/$patient" > "$RESULTS/$mode-$patient.txt" &
+  done
+  wait $(jobs -p | grep -v "^$pid$")
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+summary() {
+  local mode=$1
+  [[ -f $RESULTS/$mode-${PATIENTS[0]}.txt ]] || return 0
+  echo "== $mode"
+  for patient in "${PATIENTS[@]}"; do
+    awk -v p="$patient" '/Requests\/sec/ {rps=$2} /99% in/ {p99=$3} /\[2[0-9][0-9]\]/ {ok+=$2}
+      /\[5[0-9][0-9]\]/ {err+=$2} END {printf "  %s  %8.1f req/s  p99 %ss  2xx %d  5xx %d\n", p, rps, p99, ok, err}' \
+      "$RESULTS/$mode-$patient.txt"
+  done
+}
+
+case $MODE in
+  platform|virtual-threads) run_mode "$MODE" ;;
+  both) run_mode platform; run_mode virtual-threads ;;
+  *) echo "unknown mode: $MODE" >&2; exit 1 ;;
+esac
+
+summary platform
+summary virtual-threads